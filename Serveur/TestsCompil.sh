@@ -14,17 +14,14 @@ if [[ ! -f "$JAVA_FILE" ]]; then
 fi
 
 
-# Vérification que le script a reçu 2 arguments
-if [[ $# -ne 2 ]]; then
-  echo "Erreur : vous devez fournir exactement 2 arguments."
-  echo "Utilisation : ./tests.sh <argument1> <argument2>"
+# Vérification que le script a reçu 2 ou 3 arguments
+if [[ $# -lt 2 || $# -gt 3 ]]; then
+  echo "Erreur : vous devez fournir 2 ou 3 arguments."
+  echo "Utilisation : ./TestsCompil.sh <niveauJoueur1> <niveauJoueur2> [traceCroyances]"
+  echo "  traceCroyances : fichier où écrire la trace des croyances (voir analyticProbaEvo.py)"
   exit 1
 fi
 
-# Récupérer les arguments
-ARG1="$1"
-ARG2="$2"
-
 # Initialiser les variables pour les librairies et modules JavaFX
 JAVAFX_SDK="$LIB_DIR/javafx-sdk-21.0.5/lib"
 JAVAFX_MODULES="javafx.controls,javafx.fxml"
@@ -45,7 +42,7 @@ if [[ $? -eq 0 ]]; then
 
   # Exécution de la classe JavaFX avec les bibliothèques et les modules nécessaires
   echo "Exécution de l'application..."
-  java --module-path "$JAVAFX_SDK" --add-modules $JAVAFX_MODULES -cp "$BIN_DIR" "$MAIN_CLASS" "$ARG1" "$ARG2"
+  java --module-path "$JAVAFX_SDK" --add-modules $JAVAFX_MODULES -cp "$BIN_DIR" "$MAIN_CLASS" "$@"
 
   # Supprimer les fichiers .class générés après l'exécution (optionnel)
   rm -rf "$BIN_DIR"/* &> /dev/null
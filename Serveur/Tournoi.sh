@@ -0,0 +1,55 @@
+#!/bin/bash
+
+# Répertoire des bibliothèques
+LIB_DIR="./lib"
+# Dossier de compilation
+BIN_DIR="./bin"
+# Chemin du fichier source principal
+JAVA_FILE="src/Tests/Tournoi.java"
+
+# Vérification que le fichier existe
+if [[ ! -f "$JAVA_FILE" ]]; then
+  echo "Le fichier $JAVA_FILE n'existe pas."
+  exit 1
+fi
+
+
+# Vérification que le script a reçu au moins un appariement
+if [[ $# -lt 1 ]]; then
+  echo "Erreur : vous devez fournir au moins un appariement."
+  echo "Utilisation : ./Tournoi.sh [-n parties] [-t threads] [-o fichier] [-g graine] [-r] [-d] [-j dossier] <niveauA:niveauB> ..."
+  echo "  -g graine : graine du tournoi, pour le rejouer à l'identique"
+  echo "  -r        : bots à effort fixe, le tournoi ne dépend que de sa graine"
+  echo "  -d        : paquet mélangé à chaque donne au lieu d'être ramassé et coupé"
+  echo "  -j dossier: enregistre les donnes des parties dans ce dossier"
+  echo "Exemple : ./Tournoi.sh -n 50 débutant:expert"
+  exit 1
+fi
+
+# Initialiser les variables pour les librairies et modules JavaFX
+JAVAFX_SDK="$LIB_DIR/javafx-sdk-21.0.5/lib"
+JAVAFX_MODULES="javafx.controls,javafx.fxml"
+
+# Créer le dossier bin s'il n'existe pas
+mkdir -p "$BIN_DIR"
+
+# Compiler le fichier Java en incluant tous les fichiers source dans les sous-dossiers
+echo "Compilation du fichier $JAVA_FILE..."
+javac -d "$BIN_DIR" --module-path "$JAVAFX_SDK" --add-modules $JAVAFX_MODULES "$JAVA_FILE"
+
+# Vérifier si la compilation a réussi
+if [[ $? -eq 0 ]]; then
+  echo "Compilation réussie."
+
+  # Récupérer le nom de la classe principale relative au package
+  MAIN_CLASS="src.Tests.Tournoi"
+
+  # Toutes les parties sont jouées dans une seule JVM
+  echo "Exécution du tournoi..."
+  java --module-path "$JAVAFX_SDK" --add-modules $JAVAFX_MODULES -cp "$BIN_DIR" "$MAIN_CLASS" "$@"
+
+  # Supprimer les fichiers .class générés après l'exécution (optionnel)
+  rm -rf "$BIN_DIR"/* &> /dev/null
+else
+  echo "Erreur lors de la compilation."
+fi
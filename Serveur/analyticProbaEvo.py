@@ -1,44 +1,56 @@
-import re
-import ast
+import struct
 import matplotlib.pyplot as plt
 
-def transform_snapshot(snapshot_str):
+# Format écrit par TraceDesCroyances (little-endian) : entête puis trames de taille fixe
+MAGIQUE = 0x43525442
+VERSION = 2
+TRAME = struct.Struct('<qqhbb4i128f')
+
+COULEURS = ['CARREAU', 'PIQUE', 'COEUR', 'TREFLE']
+TYPES = ['SEPT', 'HUIT', 'NEUF', 'VALET', 'DAME', 'ROI', 'DIX', 'AS']
+
+
+def nom_carte(id_carte):
     """
-    Transforme une chaîne représentant un dictionnaire avec des clés non citées en une chaîne
-    valide pour ast.literal_eval.
-    Exemple : 
-      {0={CARREAU={SEPTDeCARREAU=0.25, HUITDeCARREAU=0.25}, ...}, 1={...}}
-    devient
-      {0:{"CARREAU": {"SEPTDeCARREAU": 0.25, "HUITDeCARREAU": 0.25}, ...}, 1:{...}}
+    Retourne le nom d'une carte à partir de son identifiant (couleur * 8 + type), comme Carte.toString.
     """
-    # On ajoute des guillemets autour des clés alphabétiques après un { ou une virgule
-    pattern = r'([{,]\s*)([A-Za-z][A-Za-z0-9]*)(\s*=)'
-    transformed = re.sub(pattern, r'\1"\2"\3', snapshot_str)
-    # Remplacer ensuite tous les '=' restants par ':'
-    transformed = transformed.replace("=", ":")
-    return transformed
+    return TYPES[id_carte % 8] + 'De' + COULEURS[id_carte // 8]
+
 
-def load_proba_evo(filepath):
+def load_proba_evo(filepath, premiere_donne=False):
     """
-    Ouvre le fichier 'filepath' et extrait une liste de snapshots.
-    Les lignes "carte joué: ..." sont ignorées.
-    Les autres lignes sont transformées pour être évaluées en structure Python.
+    Lit une trace des croyances et retourne une liste de snapshots, un par carte jouée :
+    {joueur: {couleur: {carte: probabilité}}}, seules les cartes de probabilité non nulle sont gardées.
+    Avec premiere_donne, seules les trames de la première donne de la trace sont gardées.
     """
     snapshots = []
-    with open(filepath, "r", encoding="utf-8") as f:
-        lines = f.readlines()
-    
-    for line in lines:
-        line = line.strip()
-        if not line or line.startswith("carte joué:"):
-            # On ignore les lignes vides et celles indiquant la carte jouée
-            continue
-        try:
-            transformed_line = transform_snapshot(line)
-            snapshot = ast.literal_eval(transformed_line)
+    donne = None
+    with open(filepath, 'rb') as f:
+        magique, version = struct.unpack('<ii', f.read(8))
+        if magique != MAGIQUE or version != VERSION:
+            raise ValueError(f"{filepath} n'est pas une trace des croyances")
+
+        while True:
+            octets = f.read(TRAME.size)
+            if len(octets) < TRAME.size:
+                break
+
+            trame = TRAME.unpack(octets)
+            if premiere_donne:
+                if donne is None:
+                    donne = trame[:3]   # Numéro et graine de la partie, numéro de la donne
+                elif trame[:3] != donne:
+                    break
+
+            probas = trame[9:]
+            snapshot = {}
+            for joueur in range(4):
+                suits = snapshot.setdefault(joueur, {})
+                for id_carte in range(32):
+                    proba = probas[joueur * 32 + id_carte]
+                    if proba > 0:
+                        suits.setdefault(COULEURS[id_carte // 8], {})[nom_carte(id_carte)] = proba
             snapshots.append(snapshot)
-        except Exception as e:
-            print(f"Erreur lors du traitement de la ligne : {line}\nErreur : {e}")
     return snapshots
 
 def plot_evolution(probaEvo):
@@ -87,8 +99,8 @@ def plot_evolution(probaEvo):
         plt.show()
 
 if __name__ == '__main__':
-    filepath = "probaEvo"  # Nom du fichier contenant les données
-    probaEvo = load_proba_evo(filepath)
+    filepath = "probaEvo.bin"  # Trace écrite par TraceDesCroyances (java src.Tests.Tests <niveau1> <niveau2> probaEvo.bin)
+    probaEvo = load_proba_evo(filepath, premiere_donne=True)
     
     if not probaEvo:
         print("Aucun snapshot n'a été chargé. Vérifiez le contenu du fichier.")
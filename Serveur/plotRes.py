@@ -1,38 +1,29 @@
-import re
+import csv
 import matplotlib.pyplot as plt
 
 
 
-# Nom du fichier contenant les données
+# Nom du fichier contenant les données (journal écrit par le serveur, voir JournalDesResultats)
 def main():
-    nom_fichier = 'nullVsFort.txt'
-
-    # Expressions régulières pour extraire les informations
-    gagne_pattern = re.compile(r"Équipe gagnante\s*:\s*(Équipe\s*\d+)")
-    scores_pattern = re.compile(r"Scores\s*-\s*Équipe\s*0\s*:\s*(\d+),\s*Équipe\s*1\s*:\s*(\d+)")
+    nom_fichier = 'resultats.csv'
 
     scores = []
     wins = { 'Équipe 0': 0, 'Équipe 1': 0 }
 
-    # Lecture et parsing du fichier
-    with open(nom_fichier, 'r', encoding='utf-8') as fichier:
-        # Ne garder que les lignes non vides
-        lines = [ligne.strip() for ligne in fichier if ligne.strip()]
-
-    # Parcours des paires de lignes (gagnant + scores)
-    for i in range(0, len(lines), 2):
-        match_gagnant = gagne_pattern.search(lines[i])
-        match_scores = scores_pattern.search(lines[i + 1])
-
-        if match_gagnant and match_scores:
-            gagnant = match_gagnant.group(1)
-            s0 = int(match_scores.group(1))
-            s1 = int(match_scores.group(2))
+    # Lecture du journal : une ligne par partie, précédée de l'entête
+    with open(nom_fichier, 'r', encoding='utf-8', newline='') as fichier:
+        for ligne in csv.DictReader(fichier):
+            try:
+                gagnante = int(ligne['gagnante'])
+                s0 = int(ligne['score0'])
+                s1 = int(ligne['score1'])
+            except (TypeError, ValueError):
+                # Dernière ligne tronquée si le serveur a été arrêté pendant une écriture
+                print(f"Ligne non analysée : {ligne}")
+                continue
 
             scores.append((s0, s1))
-            wins[gagnant] += 1
-        else:
-            print(f"Ligne non analysée : '{lines[i]}' / '{lines[i + 1]}'")
+            wins[f'Équipe {gagnante}'] += 1
 
     # Vérifier qu'il y a des matchs
     total_matchs = len(scores)
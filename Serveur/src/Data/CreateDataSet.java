@@ -1,41 +1,168 @@
 package src.Data;
 
-import java.io.FileWriter;
+import src.main.*;
+
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
+
+/**
+ * Génère un jeu de données d'entraînement en faisant jouer des bots entre eux.
+ *
+ * Chaque thread joue ses parties les unes après les autres et écrit les positions extraites
+ * (voir ExtracteurDePositions) dans son propre fichier, positions-NN.bin du dossier de sortie :
+ * les threads ne partagent ni tampon ni fichier. Les fichiers se relisent avec LecteurDePositions.
+ *
+ * Les bots réfléchissent avec un effort fixe (voir Bot.setReproductible) et les paquets sont mélangés
+ * à chaque donne (voir Paquet.Mode) : chaque partie est déterminée par sa graine, tirée de celle du jeu de données.
+ *
+ * Usage : java src.Data.CreateDataSet [-n parties] [-t threads] [-o dossier] [-g graine] [niveauA:niveauB]
+ *
+ * Exemple : java src.Data.CreateDataSet -n 10000 -o data débutant:intermédiaire
+ */
 public class CreateDataSet {
+    public static final int NB_PARTIES_PAR_DEFAUT = 100;
+    public static final String DOSSIER_PAR_DEFAUT = "data";
 
-    // Déclaration du FileWriter et du chemin de fichier
-    private static FileWriter fileWriter;
-    private static String filepath = "Data.csv";
+    private final int nbParties;
+    private final int nbThreads;
+    private final long graine;
+    private final String niveauA;
+    private final String niveauB;
 
-    // Bloc static pour initialiser le FileWriter
-    static {
-        try {
-            fileWriter = new FileWriter(filepath, true); // true pour ajouter à la fin du fichier
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+
+
+    public CreateDataSet(int nbParties, int nbThreads, long graine, String niveauA, String niveauB) {
+        this.nbParties = nbParties;
+        this.nbThreads = nbThreads;
+        this.graine = graine;
+        this.niveauA = niveauA;
+        this.niveauB = niveauB;
     }
 
-    // Méthode pour écrire les données dans le fichier
-    public static void writeData(String data) {
-        try {
-            fileWriter.write(data + "\n"); // Ajoute les données et une nouvelle ligne
-            fileWriter.flush();  // Force l'écriture sur le disque
-        } catch (IOException e) {
-            e.printStackTrace();
+
+    /**
+     * Point d'entrée, voir la documentation de la classe pour les arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int nbParties = NB_PARTIES_PAR_DEFAUT;
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        Path dossier = Paths.get(DOSSIER_PAR_DEFAUT);
+        long graine = new SplittableRandom().nextLong();
+        String[] niveaux = { "débutant", "débutant" };
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": nbParties = Integer.parseInt(args[++i]); break;
+                case "-t": nbThreads = Integer.parseInt(args[++i]); break;
+                case "-o": dossier = Paths.get(args[++i]); break;
+                case "-g": graine = Long.parseLong(args[++i]); break;
+                default:
+                    niveaux = args[i].split(":");
+                    if (niveaux.length != 2) throw new IllegalArgumentException("Appariement invalide : " + args[i]);
+            }
         }
+
+        // Vérifie les niveaux avant de lancer les parties
+        BotFactory.creeBot("Test", niveaux[0]);
+        BotFactory.creeBot("Test", niveaux[1]);
+
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        CreateDataSet generateur = new CreateDataSet(nbParties, nbThreads, graine, niveaux[0], niveaux[1]);
+        long debut = System.nanoTime();
+        long nbPositions = generateur.generer(dossier, System.out);
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+
+        System.out.println(nbPositions + " positions écrites dans " + dossier + " en " + duree + " ms (graine " + graine + ")");
     }
 
-    // Méthode pour fermer le FileWriter
-    public static void closeWriter() {
+
+    /**
+     * Joue les parties et écrit leurs positions dans le dossier (créé si besoin).
+     *
+     * @param console Flux où afficher la progression. Les messages des parties sont masqués.
+     * @return Le nombre de positions écrites.
+     */
+    public long generer(Path dossier, PrintStream console) throws IOException, InterruptedException {
+        Files.createDirectories(dossier);
+
+        SplittableRandom graines = new SplittableRandom(graine);
+        AtomicInteger terminees = new AtomicInteger();
+        int pas = Math.max(1, nbParties / 20);   // Progression affichée toutes les 5 % des parties
+        List<Callable<Long>> taches = new ArrayList<>();
+
+        // Les parties sont réparties à l'avance entre les threads, chacun avec son fichier et ses graines
+        for (int t = 0; t < nbThreads; t++) {
+            int nb = nbParties / nbThreads + (t < nbParties % nbThreads ? 1 : 0);
+            Path fichier = dossier.resolve(String.format("positions-%02d.bin", t));
+            SplittableRandom graineDuThread = graines.split();
+
+            taches.add(() -> {
+                try (EcrivainDePositions ecrivain = new EcrivainDePositions(fichier)) {
+                    for (int i = 0; i < nb; i++) {
+                        jouer(ecrivain, graineDuThread.nextLong());
+
+                        // Compte et affiche sous le même verrou pour que la progression s'affiche dans l'ordre
+                        synchronized (console) {
+                            int n = terminees.incrementAndGet();
+                            if (n % pas == 0 || n == nbParties) console.println(n + " / " + nbParties + " parties jouées");
+                        }
+                    }
+                    return ecrivain.getNbPositions();
+                }
+            });
+        }
+
+        PrintStream sortie = System.out;
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        long total = 0;
+
         try {
-            if (fileWriter != null) {
-                fileWriter.close(); // Ferme le fichier
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (Future<Long> resultat : pool.invokeAll(taches)) total += resultat.get();
         }
+        catch (ExecutionException e) {
+            throw new IOException("Échec de la génération", e.getCause());
+        }
+        finally {
+            System.setOut(sortie);
+            pool.shutdown();
+        }
+        return total;
+    }
+
+
+    // Joue une partie et écrit ses positions, la parité de la graine décide des places des niveaux
+    private void jouer(EcrivainDePositions ecrivain, long graine) {
+        boolean aEnPremier = (graine & 1) == 0;
+        String niveau0 = aEnPremier ? niveauA : niveauB;
+        String niveau1 = aEnPremier ? niveauB : niveauA;
+
+        Joueur[] bots = {
+            BotFactory.creeBot("Bot1", niveau0), BotFactory.creeBot("Bot2", niveau0),
+            BotFactory.creeBot("Bot3", niveau1), BotFactory.creeBot("Bot4", niveau1)
+        };
+        for (Joueur bot : bots) ((Bot) bot).setReproductible(true);
+
+        Game game = new Game("Data#" + graine, new Equipe(bots[0], bots[1]), new Equipe(bots[2], bots[3]), graine);
+        game.setModeDonne(Paquet.Mode.ALEATOIRE);
+        game.setObservateur(new ExtracteurDePositions(game, ecrivain));
+        game.jouerPartie();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package src.Data;
+
+import src.main.Game;
+import src.main.Paquet.Carte;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+
+/**
+ * Écrit des positions de jeu (un coup d'un joueur et ce qu'il savait en le jouant) dans un fichier binaire
+ * organisé en colonnes, pour l'entraînement de fonctions d'évaluation.
+ *
+ * Les positions sont accumulées dans des tableaux, une colonne par caractéristique, et écrites par blocs
+ * de LIGNES_PAR_BLOC positions. Un écrivain n'est utilisé que par un seul thread et possède son fichier :
+ * plusieurs threads produisent en parallèle en écrivant chacun dans son fichier (sa partition du jeu de données).
+ *
+ * Format du fichier (entiers en little-endian) : MAGIQUE et VERSION (int), puis une suite de blocs.
+ * Chaque bloc commence par son nombre de lignes n (int) suivi des colonnes, chacune sur n valeurs contiguës :
+ *   joueur    byte   place du joueur qui décide
+ *   atout     byte   couleur de l'atout (ordinal)
+ *   preneur   byte   place du joueur qui a pris
+ *   pli       int    cartes déjà posées dans le pli, un octet par carte (identifiant + 1, 0 si aucune), l'entame en premier
+ *   main      int    main du joueur avant son coup (CardSet)
+ *   jouees    int    cartes jouées dans la donne avant son coup, pli en cours compris (CardSet)
+ *   coup      byte   identifiant de la carte jouée
+ *   points    short  points marqués dans la donne par l'équipe du joueur
+ *   croyances byte   n x 128 : probabilité de chaque joueur (ligne) de posséder chaque carte (colonne) au moment
+ *                    du coup, quantifiée de 0 à 255
+ * Voir LecteurDePositions pour la relecture.
+ */
+public final class EcrivainDePositions implements AutoCloseable {
+    public static final int MAGIQUE = 0x534F5042;    // "BPOS" en little-endian
+    public static final int VERSION = 1;
+    public static final int LIGNES_PAR_BLOC = 1 << 14;
+    public static final int TAILLE_CROYANCES = Game.NB_PLAYERS * Carte.NB_CARTES;
+    static final int TAILLE_LIGNE = 3 + 3 * Integer.BYTES + 1 + Short.BYTES + TAILLE_CROYANCES;
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(Integer.BYTES + LIGNES_PAR_BLOC * TAILLE_LIGNE)
+                                                .order(ByteOrder.LITTLE_ENDIAN);
+
+    // Colonnes du bloc en cours
+    private final byte[] joueur = new byte[LIGNES_PAR_BLOC];
+    private final byte[] atout = new byte[LIGNES_PAR_BLOC];
+    private final byte[] preneur = new byte[LIGNES_PAR_BLOC];
+    private final int[] pli = new int[LIGNES_PAR_BLOC];
+    private final int[] main = new int[LIGNES_PAR_BLOC];
+    private final int[] jouees = new int[LIGNES_PAR_BLOC];
+    private final byte[] coup = new byte[LIGNES_PAR_BLOC];
+    private final short[] points = new short[LIGNES_PAR_BLOC];
+    private final byte[] croyances = new byte[LIGNES_PAR_BLOC * TAILLE_CROYANCES];
+    private int nbLignes = 0;
+    private long nbPositions = 0;
+
+
+
+    /**
+     * Crée (ou remplace) un fichier de positions.
+     */
+    public EcrivainDePositions(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        tampon.putInt(MAGIQUE).putInt(VERSION).flip();
+        while (tampon.hasRemaining()) canal.write(tampon);
+    }
+
+
+    /**
+     * Ajoute une position, le bloc est écrit dès qu'il est plein.
+     *
+     * @param croyances Tableau contenant les croyances quantifiées de la position à partir de offset (TAILLE_CROYANCES octets).
+     */
+    public void ajouter(int joueur, int atout, int preneur, int pli, int main, int jouees, int coup, int points,
+                        byte[] croyances, int offset) throws IOException {
+        int i = nbLignes++;
+        this.joueur[i] = (byte) joueur;
+        this.atout[i] = (byte) atout;
+        this.preneur[i] = (byte) preneur;
+        this.pli[i] = pli;
+        this.main[i] = main;
+        this.jouees[i] = jouees;
+        this.coup[i] = (byte) coup;
+        this.points[i] = (short) points;
+        System.arraycopy(croyances, offset, this.croyances, i * TAILLE_CROYANCES, TAILLE_CROYANCES);
+
+        nbPositions++;
+        if (nbLignes == LIGNES_PAR_BLOC) ecrireBloc();
+    }
+
+
+    /**
+     * Retourne le nombre de positions ajoutées, écrites ou non.
+     */
+    public long getNbPositions() {
+        return nbPositions;
+    }
+
+
+    /**
+     * Écrit le dernier bloc, même incomplet, et ferme le fichier.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (nbLignes > 0) ecrireBloc();
+        }
+        finally {
+            canal.close();
+        }
+    }
+
+
+    private void ecrireBloc() throws IOException {
+        int n = nbLignes;
+
+        tampon.clear();
+        tampon.putInt(n);
+        tampon.put(joueur, 0, n).put(atout, 0, n).put(preneur, 0, n);
+        tampon.asIntBuffer().put(pli, 0, n).put(main, 0, n).put(jouees, 0, n);
+        tampon.position(tampon.position() + 3 * n * Integer.BYTES);
+        tampon.put(coup, 0, n);
+        tampon.asShortBuffer().put(points, 0, n);
+        tampon.position(tampon.position() + n * Short.BYTES);
+        tampon.put(croyances, 0, n * TAILLE_CROYANCES);
+
+        tampon.flip();
+        while (tampon.hasRemaining()) canal.write(tampon);
+        nbLignes = 0;
+    }
+}
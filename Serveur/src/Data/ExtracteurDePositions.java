@@ -0,0 +1,102 @@
+package src.Data;
+
+import src.main.*;
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+
+
+/**
+ * Observe une partie et extrait une position à chaque carte jouée : la main du joueur, le pli, les cartes jouées
+ * et les croyances au moment où il décide, puis la carte choisie.
+ *
+ * Les positions d'une donne sont gardées jusqu'à sa fin, où l'on connaît les points marqués par chaque équipe,
+ * puis transmises à l'écrivain. Une donne interrompue n'est donc pas écrite.
+ */
+public final class ExtracteurDePositions implements ObservateurPartie {
+    private static final int MAX_COUPS = Carte.NB_CARTES;   // Coups d'une donne
+
+    private final GameContext context;
+    private final EcrivainDePositions ecrivain;
+
+    // Positions de la donne en cours
+    private final int[] joueur = new int[MAX_COUPS];
+    private final int[] pli = new int[MAX_COUPS];
+    private final int[] main = new int[MAX_COUPS];
+    private final int[] jouees = new int[MAX_COUPS];
+    private final int[] coup = new int[MAX_COUPS];
+    private final byte[] croyances = new byte[MAX_COUPS * EcrivainDePositions.TAILLE_CROYANCES];
+    private int nbCoups = 0;
+    private int preneur = -1;
+    private Couleur atout = null;
+    private final int[] scores = new int[2];   // Scores des équipes avant la donne
+
+
+
+    /**
+     * @param game     La partie observée (voir Game.setObservateur).
+     * @param ecrivain L'écrivain qui reçoit les positions, utilisé par le thread de la partie.
+     */
+    public ExtracteurDePositions(Game game, EcrivainDePositions ecrivain) {
+        this.context = game.context;
+        this.ecrivain = ecrivain;
+    }
+
+
+    @Override
+    public void aParle(int joueur, int tour, Couleur atout) {
+        if (atout == null) return;
+
+        this.preneur = joueur;
+        this.atout = atout;
+    }
+
+
+    @Override
+    public void vaJouer(int joueur, Plis plis) {
+        int i = nbCoups;
+
+        int cartesDuPli = 0;
+        for (int k = 0; k < plis.getIndex(); k++) cartesDuPli |= (plis.getPlis()[k].getId() + 1) << (8 * k);
+
+        this.joueur[i] = joueur;
+        this.pli[i] = cartesDuPli;
+        this.main[i] = context.getJoueur(joueur).getMain();
+        this.jouees[i] = context.getCartePlay();
+
+        Croyances c = context.getCroyances();
+        int offset = i * EcrivainDePositions.TAILLE_CROYANCES;
+        for (int p = 0; p < Game.NB_PLAYERS; p++)
+            for (int id = 0; id < Carte.NB_CARTES; id++)
+                croyances[offset++] = (byte) Math.round(Math.min(1f, Math.max(0f, c.get(p, id))) * 255);
+    }
+
+
+    @Override
+    public void aJoue(int joueur, Carte carte) {
+        coup[nbCoups++] = carte.getId();
+    }
+
+
+    @Override
+    public void finDeDonne(int score0, int score1) {
+        int[] points = { score0 - scores[0], score1 - scores[1] };
+        scores[0] = score0;
+        scores[1] = score1;
+
+        try {
+            for (int i = 0; i < nbCoups; i++)
+                ecrivain.ajouter(joueur[i], atout.ordinal(), preneur, pli[i], main[i], jouees[i], coup[i],
+                                 points[joueur[i] % 2], croyances, i * EcrivainDePositions.TAILLE_CROYANCES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        nbCoups = 0;
+        preneur = -1;
+        atout = null;
+    }
+}
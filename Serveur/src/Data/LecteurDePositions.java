@@ -0,0 +1,154 @@
+package src.Data;
+
+import src.main.Paquet.Carte;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+
+/**
+ * Relit un fichier écrit par EcrivainDePositions, bloc par bloc : chaque appel à {@link #blocSuivant}
+ * charge les colonnes du bloc suivant, lues ensuite ligne par ligne avec les accesseurs.
+ */
+public final class LecteurDePositions implements AutoCloseable {
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(EcrivainDePositions.LIGNES_PAR_BLOC * EcrivainDePositions.TAILLE_LIGNE)
+                                                .order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer entete = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] joueur = new byte[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final byte[] atout = new byte[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final byte[] preneur = new byte[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final int[] pli = new int[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final int[] main = new int[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final int[] jouees = new int[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final byte[] coup = new byte[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final short[] points = new short[EcrivainDePositions.LIGNES_PAR_BLOC];
+    private final byte[] croyances = new byte[EcrivainDePositions.LIGNES_PAR_BLOC * EcrivainDePositions.TAILLE_CROYANCES];
+    private int nbLignes = 0;
+
+
+
+    /**
+     * Ouvre un fichier de positions.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu ou n'est pas un fichier de positions.
+     */
+    public LecteurDePositions(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.READ);
+
+        lire(entete, 2 * Integer.BYTES);
+        if (entete.getInt() != EcrivainDePositions.MAGIQUE || entete.getInt() != EcrivainDePositions.VERSION) {
+            canal.close();
+            throw new IOException("Fichier de positions invalide : " + fichier);
+        }
+    }
+
+
+    /**
+     * Charge le bloc suivant.
+     *
+     * @return false s'il n'y a plus de bloc.
+     * @throws EOFException Si le dernier bloc est incomplet.
+     */
+    public boolean blocSuivant() throws IOException {
+        entete.clear().limit(Integer.BYTES);
+        if (canal.read(entete) <= 0) return false;
+        while (entete.hasRemaining()) if (canal.read(entete) < 0) throw new EOFException("Bloc de positions incomplet");
+
+        int n = entete.getInt(0);
+        if (n <= 0 || n > EcrivainDePositions.LIGNES_PAR_BLOC) throw new IOException("Taille de bloc invalide : " + n);
+
+        lire(tampon, n * EcrivainDePositions.TAILLE_LIGNE);
+        tampon.get(joueur, 0, n).get(atout, 0, n).get(preneur, 0, n);
+        tampon.asIntBuffer().get(pli, 0, n).get(main, 0, n).get(jouees, 0, n);
+        tampon.position(tampon.position() + 3 * n * Integer.BYTES);
+        tampon.get(coup, 0, n);
+        tampon.asShortBuffer().get(points, 0, n);
+        tampon.position(tampon.position() + n * Short.BYTES);
+        tampon.get(croyances, 0, n * EcrivainDePositions.TAILLE_CROYANCES);
+
+        nbLignes = n;
+        return true;
+    }
+
+
+    /**
+     * Retourne le nombre de lignes du bloc chargé.
+     */
+    public int getNbLignes() {
+        return nbLignes;
+    }
+
+
+    public int getJoueur(int ligne) {
+        return joueur[ligne];
+    }
+
+
+    public int getAtout(int ligne) {
+        return atout[ligne];
+    }
+
+
+    public int getPreneur(int ligne) {
+        return preneur[ligne];
+    }
+
+
+    /**
+     * Retourne les cartes posées dans le pli avant le coup, un octet par carte (identifiant + 1, 0 si aucune).
+     */
+    public int getPli(int ligne) {
+        return pli[ligne];
+    }
+
+
+    public int getMain(int ligne) {
+        return main[ligne];
+    }
+
+
+    public int getJouees(int ligne) {
+        return jouees[ligne];
+    }
+
+
+    public int getCoup(int ligne) {
+        return coup[ligne];
+    }
+
+
+    public int getPoints(int ligne) {
+        return points[ligne];
+    }
+
+
+    /**
+     * Retourne la probabilité, au moment du coup, qu'un joueur possède une carte (précision 1/255).
+     */
+    public float getCroyance(int ligne, int joueur, int id) {
+        return (croyances[ligne * EcrivainDePositions.TAILLE_CROYANCES + joueur * Carte.NB_CARTES + id] & 0xFF) / 255f;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+
+    // Remplit le tampon avec n octets du fichier, prêts à être lus
+    private void lire(ByteBuffer tampon, int n) throws IOException {
+        tampon.clear().limit(n);
+        while (tampon.hasRemaining())
+            if (canal.read(tampon) < 0) throw new EOFException("Fichier de positions tronqué");
+        tampon.flip();
+    }
+}
@@ -0,0 +1,92 @@
+package src.Network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+
+/**
+ * Boucle d'événements réseau : un thread et un Selector servent toutes les connexions qui lui sont confiées.
+ *
+ * La boucle lit les octets reçus dans un tampon unique, réutilisé pour toutes ses connexions, que chaque
+ * connexion découpe en lignes (voir PlayerConnection), et écrit les messages qui n'ont pas pu partir d'un coup.
+ * Une connexion inactive ne coûte donc ni thread ni tampon, seulement sa socket et sa clé de sélection.
+ *
+ * Le serveur répartit les connexions acceptées entre quelques boucles (voir Server).
+ */
+public final class BoucleReseau implements Runnable {
+    public static final int TAILLE_LECTURE = 1 << 16;
+
+    private final Selector selecteur;
+    private final ByteBuffer lecture = ByteBuffer.allocate(TAILLE_LECTURE);
+    private final Queue<PlayerConnection> arrivees = new ConcurrentLinkedQueue<>();   // Connexions à enregistrer
+
+
+
+    public BoucleReseau() throws IOException {
+        selecteur = Selector.open();
+    }
+
+
+    /**
+     * Crée une boucle et la lance dans son propre thread (démon).
+     */
+    public static BoucleReseau demarrer(String nom) throws IOException {
+        BoucleReseau boucle = new BoucleReseau();
+        Thread thread = new Thread(boucle, nom);
+        thread.setDaemon(true);
+        thread.start();
+        return boucle;
+    }
+
+
+    /**
+     * Confie une connexion à la boucle, qui l'enregistre auprès de son Selector depuis son propre thread.
+     */
+    public void ajouter(PlayerConnection connexion) {
+        arrivees.add(connexion);
+        selecteur.wakeup();
+    }
+
+
+    /**
+     * Réveille la boucle pour qu'elle prenne en compte un changement des opérations surveillées.
+     */
+    void reveiller() {
+        selecteur.wakeup();
+    }
+
+
+    @Override
+    public void run() {
+        while (selecteur.isOpen()) {
+            try {
+                selecteur.select(this::traiter);
+
+                PlayerConnection connexion;
+                while ((connexion = arrivees.poll()) != null) connexion.enregistrer(selecteur);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    // Traite une clé prête : envoie ce qui attend puis lit ce qui est arrivé
+    private void traiter(SelectionKey cle) {
+        PlayerConnection connexion = (PlayerConnection) cle.attachment();
+
+        try {
+            if (cle.isValid() && cle.isWritable()) connexion.ecrireEnAttente();
+            if (cle.isValid() && cle.isReadable()) connexion.lire(lecture);
+        } catch (IOException | CancelledKeyException e) {
+            // Connexion coupée par le client, ou fermée par la partie
+            connexion.fermerMaintenant();
+        }
+    }
+}
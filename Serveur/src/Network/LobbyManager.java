@@ -2,13 +2,19 @@ package src.Network;
 
 import src.main.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 
 /**
  * Gère la file d'attente des joueurs et démarre une partie dès qu'un groupe est complet.
+ * Les commandes arrivent sur le thread d'une boucle réseau (voir Server.ClientHandler) : la création des bots
+ * et de la partie est confiée à un autre thread pour ne pas retenir les autres connexions de la boucle.
  */
 public class LobbyManager {
+    private static final ExecutorService demarrages = Executors.newCachedThreadPool();   // Démarre les parties
+
     private final int gameId;   // Id unique de la game
     private final String composition;
     private final int nbHumains;    // Nombre d'humains attendu
@@ -44,15 +50,21 @@ public class LobbyManager {
 
 
     /**
-     * Met à jour l'état "prêt" d'un joueur et démarre la partie si tous les joueurs sont prêts.
+     * Met à jour l'état "prêt" d'un joueur et, si tous les joueurs sont prêts, fait démarrer la partie
+     * par un autre thread. Ne bloque pas.
      */
-    public synchronized boolean setPlayerReady(PlayerConnection pc) {
-        if (!playerReadyStatus.containsKey(pc)) return false;
+    public boolean setPlayerReady(PlayerConnection pc) {
+        synchronized (this) {
+            if (!playerReadyStatus.containsKey(pc)) return false;
 
-        playerReadyStatus.put(pc, true);
+            playerReadyStatus.put(pc, true);
 
-        if (allPlayersReady()) startGame();
+            if (gameStarted || !allPlayersReady()) return true;
+            gameStarted = true;   // Plus personne ne peut rejoindre, la liste des joueurs est figée
+        }
 
+        // Hors du verrou : startGame prend celui du registre des lobbies, pris avant le nôtre par Server
+        demarrages.execute(this::startGame);
         return true;
     }
 
@@ -68,17 +80,17 @@ public class LobbyManager {
     
 
     /**
-     * Démarre la partie dès que tous les joueurs sont connectés et prêts.
+     * Démarre la partie une fois que tous les joueurs sont connectés et prêts.
      */
     private void startGame() {
         System.out.println("tout le monde est pret... Créer la game !");
-        gameStarted = true;
 
         // Création des équipes
         Paire<Equipe, Equipe> equipes = parseEquipe();
 
         // Création du jeu et lancement dans un nouveau thread
         Game game = new Game("game_" + gameId, equipes.getFirst(), equipes.getSecond());
+        game.setJournalDonnes(Server.getJournalDonnes());
         new Thread(game).start();
 
         // Suppression du LobbyManager après démarrage de la partie pour économiser la mémoire
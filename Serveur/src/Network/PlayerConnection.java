@@ -2,58 +2,151 @@ package src.Network;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 
 
 /**
  * Classe représentant une connexion réseau avec un joueur.
- * Elle encapsule les flux d'entrée et de sortie associés à un socket client,
- * permettant ainsi une communication simplifiée entre le serveur et le joueur.
+ * Elle encapsule un canal non bloquant servi par une BoucleReseau et garde le protocole ligne par ligne :
+ * chaque message envoyé ou reçu est une ligne de texte.
+ *
+ * Tant que le joueur est dans le lobby, ses lignes sont traitées par le ClientHandler directement sur le thread
+ * de la boucle. Une fois le joueur prêt, elles sont mises en file et lues de façon bloquante par la partie
+ * ({@link #readMessage}). Les messages envoyés partent directement quand la socket le permet, sinon la boucle
+ * les écrit dès qu'elle est disponible. Un client qui laisse s'accumuler plus de MAX_OCTETS_EN_ATTENTE octets
+ * de messages non lus est déconnecté.
  */
 public class PlayerConnection {
-    // Socket réseau connecté au joueur
-    private Socket socket;
+    public static final int TAILLE_MAX_LIGNE = 1 << 16;    // Au-delà le client est déconnecté
+    public static final int MAX_LIGNES_EN_ATTENTE = 1024;  // Au-delà la lecture est suspendue
+    public static final int MAX_OCTETS_EN_ATTENTE = 1 << 20;   // Au-delà le client, qui ne lit plus, est déconnecté
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final String FIN_LIGNE = System.lineSeparator();
 
-    // Flux d'entrée permettant de lire les messages envoyés par le joueur
-    private BufferedReader in;
+    // Canal connecté au joueur et la boucle qui le sert
+    private final SocketChannel canal;
+    private final BoucleReseau boucle;
+    private volatile SelectionKey cle = null;   // Attribuée à l'enregistrement par la boucle
 
-    // Flux de sortie permettant d'envoyer des messages au joueur
-    private PrintWriter out;
+    // Gestionnaire des commandes du lobby
+    private Server.ClientHandler lobby = null;
+
+    // Découpage en lignes, utilisé seulement par le thread de la boucle
+    private byte[] debutLigne = null;   // Début d'une ligne dont la fin n'est pas encore arrivée
+    private int tailleDebut = 0;
+    private boolean sauterLF = false;   // Ligne terminée par '\r', un '\n' qui suit n'est pas une ligne vide
+
+    // Lignes reçues en attente de readMessage, gardées par this
+    private ArrayDeque<String> recues = null;
+    private boolean finDeFlux = false;
+    private boolean lectureSuspendue = false;
+
+    // Messages qui n'ont pas pu être écrits d'un coup, gardés par verrouEcriture
+    private final Object verrouEcriture = new Object();
+    private ArrayDeque<ByteBuffer> enAttente = null;
+    private long octetsEnAttente = 0;
+    private boolean fermetureDemandee = false;
 
 
 
     /**
      * Constructeur de la connexion d'un joueur.
-     * Initialise les flux d'entrée et de sortie à partir du socket fourni.
+     * Passe le canal en mode non bloquant, la connexion est ensuite confiée à la boucle (voir BoucleReseau.ajouter).
      *
-     * @param socket Le socket connecté au joueur.
-     * @throws IOException Si une erreur survient lors de l'ouverture des flux.
+     * @param canal  Le canal connecté au joueur.
+     * @param boucle La boucle qui servira la connexion.
+     * @throws IOException Si le canal ne peut pas être configuré.
+     */
+    public PlayerConnection(SocketChannel canal, BoucleReseau boucle) throws IOException {
+        this.canal = canal;
+        this.boucle = boucle;
+        canal.configureBlocking(false);
+    }
+
+
+    /**
+     * Définit le gestionnaire qui traite les lignes reçues tant qu'il est actif.
      */
-    public PlayerConnection(Socket socket) throws IOException {
-        this.socket = socket;
-        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        this.out = new PrintWriter(socket.getOutputStream(), true);
+    void setLobby(Server.ClientHandler lobby) {
+        this.lobby = lobby;
     }
 
 
     /**
-     * Envoie un message au joueur.
+     * Envoie un message au joueur, sans bloquer.
      *
      * @param message Le message à envoyer.
      */
     public void sendMessage(String message) {
-        out.println(message);
+        ByteBuffer donnees = ByteBuffer.wrap((message + FIN_LIGNE).getBytes(CHARSET));
+
+        synchronized (verrouEcriture) {
+            if (!canal.isOpen() || fermetureDemandee) return;
+
+            // Rien en attente : on tente d'écrire directement
+            if (enAttente == null || enAttente.isEmpty()) {
+                try {
+                    canal.write(donnees);
+                } catch (IOException e) {
+                    fermerMaintenant();
+                    return;
+                }
+                if (!donnees.hasRemaining()) return;
+            }
+
+            // Le client ne lit plus ses messages : on ne les garde pas indéfiniment
+            octetsEnAttente += donnees.remaining();
+            if (octetsEnAttente > MAX_OCTETS_EN_ATTENTE) {
+                System.err.println("Trop de messages en attente pour " + canal.socket().getRemoteSocketAddress());
+                fermerMaintenant();
+                return;
+            }
+
+            if (enAttente == null) enAttente = new ArrayDeque<>();
+            enAttente.add(donnees);
+
+            // Sinon la boucle l'écrira dès l'enregistrement de la connexion
+            if (cle != null) {
+                try {
+                    cle.interestOpsOr(SelectionKey.OP_WRITE);
+                    boucle.reveiller();
+                } catch (CancelledKeyException e) {
+                    // Connexion fermée entre temps
+                }
+            }
+        }
     }
 
 
     /**
-     * Lit un message envoyé par le joueur.
+     * Lit un message envoyé par le joueur, en attendant qu'il arrive.
      *
      * @return Le message reçu, ou null si la connexion est coupée.
-     * @throws IOException En cas d'erreur de lecture.
+     * @throws IOException Si le thread est interrompu pendant l'attente.
      */
-    public String readMessage() throws IOException {
-        return in.readLine();
+    public synchronized String readMessage() throws IOException {
+        try {
+            while ((recues == null || recues.isEmpty()) && !finDeFlux) wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Attente d'un message interrompue");
+        }
+
+        if (recues == null || recues.isEmpty()) return null;
+
+        String message = recues.poll();
+
+        // La partie a rattrapé son retard : on recommence à lire
+        if (lectureSuspendue && recues.size() <= MAX_LIGNES_EN_ATTENTE / 2) {
+            lectureSuspendue = false;
+            changerLecture(true);
+        }
+        return message;
     }
 
 
@@ -63,49 +156,189 @@ public class PlayerConnection {
      * @return true si la connexion est ouverte, false sinon.
      */
     public boolean isConnected() {
-        return socket != null && !socket.isClosed();
+        return canal.isOpen();
     }
 
 
     /**
-     * Retourne le flux d'entrée pour lire les messages du joueur.
+     * Retourne le socket associé à la connexion du joueur.
      *
-     * @return BufferedReader permettant la lecture des données entrantes.
+     * @return Le socket de communication.
      */
-    public BufferedReader getInput() {
-        return in;
+    public Socket getSocket() {
+        return canal.socket();
     }
 
 
     /**
-     * Retourne le flux de sortie pour envoyer des messages au joueur.
+     * Ferme proprement la connexion avec le joueur, après l'envoi des messages encore en attente.
      *
-     * @return PrintWriter permettant l'écriture des données sortantes.
+     * @throws IOException Si une erreur survient lors de la fermeture.
      */
-    public PrintWriter getOutput() {
-        return out;
+    public void close() throws IOException {
+        synchronized (verrouEcriture) {
+            if (enAttente == null || enAttente.isEmpty()) fermerMaintenant();
+            else fermetureDemandee = true;
+        }
     }
 
 
     /**
-     * Retourne le socket associé à la connexion du joueur.
-     *
-     * @return Le socket de communication.
+     * Enregistre la connexion auprès du Selector de sa boucle, depuis le thread de la boucle.
      */
-    public Socket getSocket() {
-        return socket;
+    void enregistrer(Selector selecteur) {
+        synchronized (verrouEcriture) {
+            try {
+                int operations = SelectionKey.OP_READ;
+                if (enAttente != null && !enAttente.isEmpty()) operations |= SelectionKey.OP_WRITE;
+                cle = canal.register(selecteur, operations, this);
+            } catch (ClosedChannelException e) {
+                // Fermée avant d'être enregistrée
+            }
+        }
     }
 
 
     /**
-     * Ferme proprement la connexion avec le joueur,
-     * y compris les flux d'entrée, de sortie et le socket lui-même.
-     *
-     * @throws IOException Si une erreur survient lors de la fermeture.
+     * Écrit les messages en attente, depuis le thread de la boucle quand la socket accepte des données.
      */
-    public void close() throws IOException {
-        in.close();
-        out.close();
-        socket.close();
+    void ecrireEnAttente() throws IOException {
+        synchronized (verrouEcriture) {
+            while (enAttente != null && !enAttente.isEmpty()) {
+                ByteBuffer donnees = enAttente.peek();
+                octetsEnAttente -= canal.write(donnees);
+                if (donnees.hasRemaining()) return;
+                enAttente.poll();
+            }
+
+            cle.interestOpsAnd(~SelectionKey.OP_WRITE);
+            if (fermetureDemandee) fermerMaintenant();
+        }
+    }
+
+
+    /**
+     * Lit les octets disponibles dans le tampon de la boucle et transmet les lignes complètes,
+     * depuis le thread de la boucle.
+     */
+    void lire(ByteBuffer tampon) throws IOException {
+        tampon.clear();
+        int n = canal.read(tampon);
+
+        if (n < 0) {
+            // Comme readLine, une dernière ligne sans fin de ligne est transmise
+            if (tailleDebut > 0) livrer(new String(debutLigne, 0, tailleDebut, CHARSET));
+            tailleDebut = 0;
+            fermerMaintenant();
+            return;
+        }
+
+        byte[] octets = tampon.array();
+        int debut = 0;
+
+        for (int i = 0; i < n; i++) {
+            byte b = octets[i];
+            if (b != '\n' && b != '\r') continue;
+
+            if (b == '\n' && sauterLF && i == debut && tailleDebut == 0) {
+                sauterLF = false;
+                debut = i + 1;
+                continue;
+            }
+            sauterLF = b == '\r';
+
+            livrer(ligne(octets, debut, i));
+            if (!canal.isOpen()) return;
+            debut = i + 1;
+        }
+
+        // Garde le début de la ligne suivante
+        if (debut < n) {
+            int taille = tailleDebut + n - debut;
+            if (taille > TAILLE_MAX_LIGNE) {
+                System.err.println("Ligne trop longue reçue de " + canal.socket().getRemoteSocketAddress());
+                fermerMaintenant();
+                return;
+            }
+            if (debutLigne == null) debutLigne = new byte[Math.max(taille, 256)];
+            else if (debutLigne.length < taille) debutLigne = Arrays.copyOf(debutLigne, Math.max(taille, 2 * debutLigne.length));
+
+            System.arraycopy(octets, debut, debutLigne, tailleDebut, n - debut);
+            tailleDebut = taille;
+        }
+    }
+
+
+    /**
+     * Ferme la connexion sans attendre l'envoi des messages en attente, et débloque les lecteurs.
+     */
+    void fermerMaintenant() {
+        synchronized (verrouEcriture) {
+            if (cle != null) cle.cancel();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            enAttente = null;
+            octetsEnAttente = 0;
+        }
+
+        synchronized (this) {
+            finDeFlux = true;
+            notifyAll();
+        }
+    }
+
+
+    // Construit la ligne octets[debut, fin[ précédée du début gardé, qui est ensuite vidé
+    private String ligne(byte[] octets, int debut, int fin) {
+        if (tailleDebut == 0) return new String(octets, debut, fin - debut, CHARSET);
+
+        byte[] complete = Arrays.copyOf(debutLigne, tailleDebut + fin - debut);
+        System.arraycopy(octets, debut, complete, tailleDebut, fin - debut);
+        tailleDebut = 0;
+        debutLigne = null;   // Une connexion inactive ne garde pas de tampon
+        return new String(complete, CHARSET);
+    }
+
+
+    // Transmet une ligne au lobby tant qu'il est actif, sinon à la file lue par la partie
+    private void livrer(String ligne) {
+        if (lobby != null && lobby.isRunning()) {
+            try {
+                lobby.traiter(ligne);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (recues == null) recues = new ArrayDeque<>();
+            recues.add(ligne);
+            notifyAll();
+
+            // La partie ne suit pas : on arrête de lire jusqu'à ce qu'elle rattrape son retard
+            if (!lectureSuspendue && recues.size() >= MAX_LIGNES_EN_ATTENTE) {
+                lectureSuspendue = true;
+                changerLecture(false);
+            }
+        }
+    }
+
+
+    // Active ou suspend la lecture, sans prendre verrouEcriture qui peut être tenu par un thread attendant this
+    private void changerLecture(boolean active) {
+        SelectionKey c = cle;
+        if (c == null) return;
+
+        try {
+            if (active) c.interestOpsOr(SelectionKey.OP_READ);
+            else c.interestOpsAnd(~SelectionKey.OP_READ);
+            boucle.reveiller();
+        } catch (CancelledKeyException e) {
+            // Connexion fermée entre temps
+        }
     }
-}
\ No newline at end of file
+}
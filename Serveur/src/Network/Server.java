@@ -1,25 +1,51 @@
 package src.Network;
 
+import src.main.JournalDesDonnes;
+import src.main.TableDesEncheres;
+
 import java.io.*;
 import java.net.*;
+import java.nio.channels.*;
 import java.util.*;
 
 
 
+/**
+ * Serveur de jeu : accepte les connexions des clients et les répartit entre quelques boucles d'événements
+ * (voir BoucleReseau). Les commandes du lobby sont traitées par un ClientHandler par connexion, sur le thread
+ * de sa boucle, et une fois la partie lancée les messages sont lus par le thread de la partie.
+ */
 public class Server {
     private static final int PORT = 12345;
+    private static final int NB_BOUCLES = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int FILE_CONNEXIONS = 1024;   // Connexions en attente d'acceptation
     private static final HashMap<Integer, LobbyManager> lobbyManagers = new HashMap<>();
     private static int gameCounter = 0;
+    private static JournalDesDonnes journalDonnes = null;   // Journal où les parties enregistrent leurs donnes
 
 
 
     public static void main(String[] args) throws IOException {
-        ServerSocket serverSocket = new ServerSocket(PORT);
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        // Ouvre le journal des donnes une fois pour toutes, avant la première partie
+        journalDonnes = JournalDesDonnes.getGlobal();
+
+        BoucleReseau[] boucles = new BoucleReseau[NB_BOUCLES];
+        for (int i = 0; i < boucles.length; i++) boucles[i] = BoucleReseau.demarrer("reseau-" + i);
+
+        ServerSocketChannel serveur = ServerSocketChannel.open();
+        serveur.bind(new InetSocketAddress(PORT), FILE_CONNEXIONS);
         System.out.println("Serveur lancé sur le port " + PORT);
 
-        while (true) {
-            Socket clientSocket = serverSocket.accept();
-            new Thread(new ClientHandler(new PlayerConnection(clientSocket))).start();
+        for (int n = 0; ; n++) {
+            SocketChannel canal = serveur.accept();
+            BoucleReseau boucle = boucles[n % boucles.length];
+
+            PlayerConnection playerCo = new PlayerConnection(canal, boucle);
+            playerCo.setLobby(new ClientHandler(playerCo));
+            boucle.ajouter(playerCo);
         }
     }
 
@@ -29,8 +55,20 @@ public class Server {
     }
 
 
+    /**
+     * Retourne le journal où les parties du serveur enregistrent leurs donnes, null s'il n'a pas pu être ouvert.
+     */
+    public static JournalDesDonnes getJournalDonnes() {
+        return journalDonnes;
+    }
+
 
-    public static class ClientHandler implements Runnable {
+
+    /**
+     * Traite les commandes d'un client dans le lobby (create_game, join_game, RESUME), ligne par ligne,
+     * sur le thread de la boucle qui sert sa connexion : il ne doit jamais bloquer.
+     */
+    public static class ClientHandler {
         PlayerConnection playerCo;
         private boolean isRunning = true;
         private int currentGameId = -1;   // Id unique de la game
@@ -42,48 +80,50 @@ public class Server {
         }
 
 
-        @Override
-        public void run() {
-            try {
-                String input;
+        /**
+         * Retourne faux une fois le joueur prêt : ses messages sont alors destinés à la partie.
+         */
+        public boolean isRunning() {
+            return isRunning;
+        }
 
-                while (isRunning && (input = playerCo.readMessage()) != null) {
-                    System.out.println("recu = " + input);
 
-                    if (input.startsWith("create_game")) {
-                        String[] parts = input.split("\\s+");
+        /**
+         * Traite une ligne reçue du client.
+         */
+        public void traiter(String input) {
+            System.out.println("recu = " + input);
 
-                        if (parts.length == 3) {
-                            String composition = parts[1];
-                            int numberOfHumans = Integer.parseInt(parts[2]);
-                            handleGameCreation(composition, numberOfHumans);
-                        }
-                        else playerCo.sendMessage("Erreur: Mauvais format de commande.");
-                    }
-                    else if (input.startsWith("join_game")) {
-                        String[] parts = input.split("\\s+");
-
-                        if (parts.length == 2) {
-                            String str = parts[1]; // Exemple : "1234"
-                            char dernierChar = str.charAt(str.length() - 1); // Récupère le dernier caractère, ici '4'
-                            
-                            int gameId = -1;
-                            try {
-                                gameId = Integer.parseInt(String.valueOf(dernierChar)); // Convertit le caractère en entier
-                                currentGameId = gameId;
-                            } catch (NumberFormatException e) {
-                                System.out.println("Le dernier caractère n'est pas un chiffre.");
-                            }
-                            handleJoinGame(gameId);
-                        }
-                        else playerCo.sendMessage("Erreur: Mauvais format de commande.");
+            if (input.startsWith("create_game")) {
+                String[] parts = input.split("\\s+");
+
+                if (parts.length == 3) {
+                    String composition = parts[1];
+                    int numberOfHumans = Integer.parseInt(parts[2]);
+                    handleGameCreation(composition, numberOfHumans);
+                }
+                else playerCo.sendMessage("Erreur: Mauvais format de commande.");
+            }
+            else if (input.startsWith("join_game")) {
+                String[] parts = input.split("\\s+");
+
+                if (parts.length == 2) {
+                    String str = parts[1]; // Exemple : "1234"
+                    char dernierChar = str.charAt(str.length() - 1); // Récupère le dernier caractère, ici '4'
+                    
+                    int gameId = -1;
+                    try {
+                        gameId = Integer.parseInt(String.valueOf(dernierChar)); // Convertit le caractère en entier
+                        currentGameId = gameId;
+                    } catch (NumberFormatException e) {
+                        System.out.println("Le dernier caractère n'est pas un chiffre.");
                     }
-                    else if (input.startsWith("RESUME")) handlePlayerReady();
-                    else playerCo.sendMessage("Commande inconnue.");
+                    handleJoinGame(gameId);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
+                else playerCo.sendMessage("Erreur: Mauvais format de commande.");
             }
+            else if (input.startsWith("RESUME")) handlePlayerReady();
+            else playerCo.sendMessage("Commande inconnue.");
         }
 
 
@@ -137,8 +177,7 @@ public class Server {
 
 
         private void stopClientHandler() {
-            isRunning = false;
-            Thread.currentThread().interrupt();  // Interrompt le thread pour le stopper proprement
+            isRunning = false;   // Les lignes suivantes iront à la partie
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package src.Tests;
+
+import src.main.TraceDesCroyances;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+
+
+/**
+ * Affiche le bilan d'une trace des croyances (voir TraceDesCroyances) : entropie, score de Brier et calibration.
+ *
+ * Usage : java src.Tests.BilanCroyances <fichier> [fichier ...]
+ */
+public class BilanCroyances {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage : java src.Tests.BilanCroyances <fichier> [fichier ...]");
+            return;
+        }
+
+        for (String fichier : args) {
+            System.out.println(fichier + " :");
+            System.out.println(TraceDesCroyances.Bilan.calculer(Paths.get(fichier)));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package src.Tests;
+
+import src.main.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+
+
+/**
+ * Mesure l'effet de chaque heuristique d'ordonnancement des coups (voir OrdreDesCoups) sur le nombre
+ * de noeuds explorés par l'alpha-beta.
+ *
+ * Les mêmes parties sont rejouées pour chaque configuration, les heuristiques étant activées une à une :
+ * aucune, puis le coup de la table, les cartes gagnantes, les killers et enfin l'historique.
+ * La configuration est donnée aux bots des parties mesurées (voir Bot.setHeuristiques), elle ne change rien ailleurs.
+ * Les bots réfléchissent avec un effort fixe (voir Bot.setReproductible) et les paquets sont mélangés
+ * à chaque donne : les donnes ne dépendent que de la graine. À valeur égale, deux ordres différents peuvent
+ * choisir des coups différents, les parties peuvent donc diverger d'une configuration à l'autre.
+ *
+ * Usage : java src.Tests.MesureOrdreDesCoups [-n parties] [-g graine] [niveau]
+ *
+ * Exemple : java src.Tests.MesureOrdreDesCoups -n 4 -g 7 expert
+ */
+public class MesureOrdreDesCoups {
+    public static final int NB_PARTIES_PAR_DEFAUT = 4;
+
+    private static final String[] NOMS = { "aucune", "+ table", "+ gagnantes", "+ killers", "+ historique" };
+    private static final OrdreDesCoups.Heuristiques[] CONFIGURATIONS = {
+        new OrdreDesCoups.Heuristiques(false, false, false, false),
+        new OrdreDesCoups.Heuristiques(true,  false, false, false),
+        new OrdreDesCoups.Heuristiques(true,  true,  false, false),
+        new OrdreDesCoups.Heuristiques(true,  true,  true,  false),
+        OrdreDesCoups.Heuristiques.TOUTES
+    };
+
+
+
+    /**
+     * Point d'entrée, voir la documentation de la classe pour les arguments.
+     */
+    public static void main(String[] args) {
+        int nbParties = NB_PARTIES_PAR_DEFAUT;
+        long graine = new SplittableRandom().nextLong();
+        String niveau = "expert";
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": nbParties = Integer.parseInt(args[++i]); break;
+                case "-g": graine = Long.parseLong(args[++i]); break;
+                default: niveau = args[i];
+            }
+        }
+
+        // Vérifie le niveau avant de lancer les parties
+        BotFactory.creeBot("Test", niveau);
+
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        System.out.println(nbParties + " parties " + niveau + " (graine " + graine + ")");
+        PrintStream sortie = System.out;
+
+        for (int c = 0; c < CONFIGURATIONS.length; c++) {
+            OrdreDesCoups.resetStatistiques();
+
+            SplittableRandom graines = new SplittableRandom(graine);
+            long debut = System.nanoTime();
+
+            try {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                for (int p = 0; p < nbParties; p++) jouer(niveau, CONFIGURATIONS[c], graines.nextLong());
+            }
+            finally {
+                System.setOut(sortie);
+            }
+
+            long duree = (System.nanoTime() - debut) / 1_000_000;
+            System.out.println(String.format("%-13s", NOMS[c]) + OrdreDesCoups.statistiques() + " (" + duree + " ms)");
+        }
+    }
+
+
+    private static void jouer(String niveau, OrdreDesCoups.Heuristiques heuristiques, long graine) {
+        Joueur[] bots = new Joueur[Game.NB_PLAYERS];
+        for (int i = 0; i < bots.length; i++) {
+            Bot bot = (Bot) BotFactory.creeBot("Bot" + (i + 1), niveau);
+            bot.setReproductible(true);
+            bot.setHeuristiques(heuristiques);
+            bots[i] = bot;
+        }
+
+        Game game = new Game("Mesure#" + graine, new Equipe(bots[0], bots[2]), new Equipe(bots[1], bots[3]), graine);
+        game.setModeDonne(Paquet.Mode.ALEATOIRE);
+        game.jouerPartie();
+    }
+}
@@ -0,0 +1,173 @@
+package src.Tests;
+
+import src.main.*;
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+
+/**
+ * Enregistre une partie de bots puis vérifie qu'elle se rejoue à l'identique à partir de sa graine.
+ *
+ * Les bots sont mis en mode reproductible (voir Bot.setReproductible) : leur effort de réflexion est fixe
+ * et tout leur hasard découle de la graine de la partie (voir Game). Une même graine doit donc redonner
+ * exactement les mêmes enchères et les mêmes cartes jouées, quels que soient la machine et sa charge.
+ *
+ * Le fichier d'enregistrement est un texte, une décision par ligne :
+ *   graine <graine>
+ *   niveaux <niveau1> <niveau2>
+ *   P <joueur> <tour> <atout ou -> pour une enchère
+ *   J <joueur> <identifiant> <carte> pour une carte jouée
+ *
+ * Usage : java src.Tests.Rejeu enregistrer <niveau1> <niveau2> <graine> <fichier>
+ *         java src.Tests.Rejeu verifier <fichier>
+ */
+public class Rejeu {
+    private final List<String> decisions = new ArrayList<>();   // Décisions attendues, ou enregistrées
+    private final boolean verification;
+    private int index = 0;                                      // Prochaine décision attendue
+    private long derniere = System.nanoTime();                  // Date de la dernière décision
+    private long plusLongue = 0;                                // Durée de la décision la plus longue (ns)
+    private String decisionPlusLongue = null;
+
+
+
+    private Rejeu(List<String> attendues) {
+        this.verification = attendues != null;
+        if (attendues != null) decisions.addAll(attendues);
+    }
+
+
+    /**
+     * Point d'entrée, voir la documentation de la classe pour les arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 5 && args[0].equals("enregistrer")) {
+            List<String> decisions = enregistrer(args[1], args[2], Long.parseLong(args[3]));
+
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[4]))) {
+                writer.write("graine " + args[3]);
+                writer.newLine();
+                writer.write("niveaux " + args[1] + " " + args[2]);
+                writer.newLine();
+                for (String decision : decisions) {
+                    writer.write(decision);
+                    writer.newLine();
+                }
+            }
+            System.out.println(decisions.size() + " décisions enregistrées dans " + args[4]);
+        }
+        else if (args.length == 2 && args[0].equals("verifier")) {
+            List<String> lignes = Files.readAllLines(Paths.get(args[1]));
+            if (lignes.size() < 2 || !lignes.get(0).startsWith("graine ") || !lignes.get(1).startsWith("niveaux "))
+                throw new IllegalArgumentException("Fichier d'enregistrement invalide : " + args[1]);
+
+            long graine = Long.parseLong(lignes.get(0).substring("graine ".length()));
+            String[] niveaux = lignes.get(1).split(" ");
+
+            try {
+                verifier(niveaux[1], niveaux[2], graine, lignes.subList(2, lignes.size()));
+                System.out.println(lignes.size() - 2 + " décisions rejouées à l'identique");
+            }
+            catch (IllegalStateException e) {
+                System.out.println(e.getMessage());
+                System.exit(1);
+            }
+        }
+        else {
+            System.out.println("Usage : java src.Tests.Rejeu enregistrer <niveau1> <niveau2> <graine> <fichier>");
+            System.out.println("        java src.Tests.Rejeu verifier <fichier>");
+        }
+    }
+
+
+    /**
+     * Joue une partie avec des bots reproductibles et retourne ses décisions.
+     */
+    public static List<String> enregistrer(String niveau1, String niveau2, long graine) {
+        Rejeu rejeu = new Rejeu(null);
+        rejeu.jouer(niveau1, niveau2, graine);
+        return rejeu.decisions;
+    }
+
+
+    /**
+     * Rejoue une partie et vérifie que ses décisions sont celles attendues.
+     *
+     * @throws IllegalStateException À la première décision qui diverge, ou si la partie se termine trop tôt.
+     */
+    public static void verifier(String niveau1, String niveau2, long graine, List<String> attendues) {
+        Rejeu rejeu = new Rejeu(attendues);
+        rejeu.jouer(niveau1, niveau2, graine);
+
+        if (rejeu.index != attendues.size())
+            throw new IllegalStateException("Partie terminée après " + rejeu.index + " décisions sur " + attendues.size());
+    }
+
+
+    private void jouer(String niveau1, String niveau2, long graine) {
+        Joueur[] bots = {
+            BotFactory.creeBot("Bot1", niveau1), BotFactory.creeBot("Bot2", niveau1),
+            BotFactory.creeBot("Bot3", niveau2), BotFactory.creeBot("Bot4", niveau2)
+        };
+        for (Joueur bot : bots) ((Bot) bot).setReproductible(true);
+
+        Game game = new Game("Rejeu", new Equipe(bots[0], bots[1]), new Equipe(bots[2], bots[3]), graine);
+        game.setObservateur(new ObservateurPartie() {
+            @Override
+            public void aParle(int joueur, int tour, Couleur atout) {
+                decision("P " + joueur + " " + tour + " " + (atout == null ? "-" : atout.name()));
+            }
+
+            @Override
+            public void aJoue(int joueur, Carte carte) {
+                decision("J " + joueur + " " + carte.getId() + " " + carte);
+            }
+        });
+
+        // Les messages de la partie sont masqués
+        PrintStream sortie = System.out;
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            game.jouerPartie();
+        }
+        finally {
+            System.setOut(sortie);
+        }
+
+        if (decisionPlusLongue != null)
+            System.out.println("Décision la plus longue : " + decisionPlusLongue + " en " + plusLongue / 1_000_000 + " ms");
+    }
+
+
+    // Enregistre une décision ou la compare à celle attendue
+    private void decision(String decision) {
+        long maintenant = System.nanoTime();
+        if (maintenant - derniere > plusLongue) {
+            plusLongue = maintenant - derniere;
+            decisionPlusLongue = decision;
+        }
+        derniere = maintenant;
+
+        if (!verification) {
+            decisions.add(decision);
+            index++;
+            return;
+        }
+
+        String attendue = index < decisions.size() ? decisions.get(index) : "fin de partie";
+        if (!attendue.equals(decision))
+            throw new IllegalStateException("Divergence à la décision " + index + " : attendu " + attendue + ", obtenu " + decision);
+        index++;
+    }
+}
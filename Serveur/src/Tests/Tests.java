@@ -2,15 +2,21 @@ package src.Tests;
 
 import src.main.*;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 
 
 /**
  * Classe de test permettant de lancer une partie entre deux équipes de bots
  * avec des niveaux spécifiés en ligne de commande.
  *
- * Usage : java Tests <niveauJoueur1> <niveauJoueur2>
+ * Usage : java Tests <niveauJoueur1> <niveauJoueur2> [traceCroyances]
  *
  * Exemple : java Tests débutant expert
+ *
+ * Avec un troisième argument, l'évolution des croyances des bots est tracée dans ce fichier
+ * (voir TraceDesCroyances, et BilanCroyances pour la résumer).
  */
 public class Tests {
 
@@ -18,12 +24,12 @@ public class Tests {
      * Point d'entrée du programme. Attend deux arguments représentant les niveaux
      * des joueurs de chaque équipe. Crée les bots, les équipes et démarre une partie.
      *
-     * @param args les niveaux des deux équipes (ex : "débutant", "expert")
+     * @param args les niveaux des deux équipes (ex : "débutant", "expert"), puis le fichier de trace des croyances
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // Vérifie qu'il y a bien deux arguments fournis
         if (args.length < 2) {
-            System.out.println("Usage : java Tests <niveauJoueur1> <niveauJoueur2>");
+            System.out.println("Usage : java Tests <niveauJoueur1> <niveauJoueur2> [traceCroyances]");
             return;
         }
 
@@ -31,6 +37,12 @@ public class Tests {
         String niveau1 = args[0];
         String niveau2 = args[1];
 
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        // Trace l'évolution des croyances si un fichier est donné
+        if (args.length > 2) TraceDesCroyances.activer(Paths.get(args[2]));
+
         // Création des joueurs de la première équipe avec le niveau 1
         Joueur j1 = BotFactory.creeBot("Bot1", niveau1);
         Joueur j2 = BotFactory.creeBot("Bot2", niveau1);
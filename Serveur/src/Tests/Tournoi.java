@@ -0,0 +1,364 @@
+package src.Tests;
+
+import src.main.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * Tournoi de bots joué dans un seul processus : les parties de chaque appariement sont réparties
+ * sur un pool de threads, et les victoires et scores sont agrégés par appariement.
+ *
+ * Chaque appariement "niveauA:niveauB" joue le nombre de parties demandé. Les places sont échangées
+ * d'une partie sur deux : le niveau A occupe les places 0 et 2 dans les parties paires et les places 1 et 3
+ * dans les parties impaires, pour que l'ordre de parole et d'entame ne favorise personne.
+ * Les deux parties d'une paire ont la même graine (voir Game) : chaque niveau reçoit à son tour les mains
+ * de l'autre sur la première donne, et sur les suivantes tant que les deux parties restent identiques.
+ * Avec -d les paquets sont mélangés à chaque donne au lieu d'être ramassés et coupés (voir Paquet.Mode) :
+ * ils ne dépendent plus du jeu, et les deux parties d'une paire ont alors toutes leurs donnes en commun.
+ * Les graines découlent de celle du tournoi (-g), affichée avec le bilan pour pouvoir rejouer le tournoi.
+ * Avec -r les bots réfléchissent avec un effort fixe (voir Bot.setReproductible) : le tournoi est alors
+ * entièrement déterminé par sa graine.
+ * Avec -j les donnes de toutes les parties sont enregistrées dans un JournalDesDonnes ouvert dans le dossier donné.
+ *
+ * Les messages des parties sont masqués pendant le tournoi, seule la progression est affichée.
+ * La réflexion des bots est limitée en temps et ils se partagent les processeurs : au delà d'une partie
+ * par processeur, ils explorent moins à chaque coup et le tournoi ne va pas plus vite.
+ *
+ * Usage : java src.Tests.Tournoi [-n parties] [-t threads] [-o fichier] [-g graine] [-r] [-d] [-j dossier] niveauA:niveauB [niveauA:niveauB ...]
+ *
+ * Exemple : java src.Tests.Tournoi -n 200 débutant:expert débutant:intermédiaire
+ */
+public class Tournoi {
+    public static final int NB_PARTIES_PAR_DEFAUT = 100;
+    public static final String FICHIER_PAR_DEFAUT = "tournoi.txt";
+
+    private final int nbParties;
+    private final int nbThreads;
+    private final long graine;
+    private boolean reproductible = false;
+    private Paquet.Mode modeDonne = Paquet.Mode.RAMASSAGE;
+    private JournalDesDonnes journalDonnes = null;
+    private final List<Appariement> appariements = new ArrayList<>();
+
+
+
+    public Tournoi(int nbParties, int nbThreads) {
+        this(nbParties, nbThreads, new SplittableRandom().nextLong());
+    }
+
+
+    public Tournoi(int nbParties, int nbThreads, long graine) {
+        this.nbParties = nbParties;
+        this.nbThreads = nbThreads;
+        this.graine = graine;
+    }
+
+
+    /**
+     * Point d'entrée du tournoi, voir la documentation de la classe pour les arguments.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int nbParties = NB_PARTIES_PAR_DEFAUT;
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        Path fichier = Paths.get(FICHIER_PAR_DEFAUT);
+        long graine = new SplittableRandom().nextLong();
+        boolean reproductible = false;
+        boolean aleatoire = false;
+        Path dossierDonnes = null;
+        List<String> paires = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": nbParties = Integer.parseInt(args[++i]); break;
+                case "-t": nbThreads = Integer.parseInt(args[++i]); break;
+                case "-o": fichier = Paths.get(args[++i]); break;
+                case "-g": graine = Long.parseLong(args[++i]); break;
+                case "-r": reproductible = true; break;
+                case "-d": aleatoire = true; break;
+                case "-j": dossierDonnes = Paths.get(args[++i]); break;
+                default: paires.add(args[i]);
+            }
+        }
+
+        if (paires.isEmpty()) {
+            System.out.println("Usage : java src.Tests.Tournoi [-n parties] [-t threads] [-o fichier] [-g graine] [-r] [-d] [-j dossier] niveauA:niveauB [niveauA:niveauB ...]");
+            return;
+        }
+
+        Tournoi tournoi = new Tournoi(nbParties, nbThreads, graine);
+        tournoi.setReproductible(reproductible);
+        if (aleatoire) tournoi.setModeDonne(Paquet.Mode.ALEATOIRE);
+        for (String paire : paires) {
+            String[] niveaux = paire.split(":");
+            if (niveaux.length != 2) throw new IllegalArgumentException("Appariement invalide : " + paire);
+            tournoi.ajouter(niveaux[0], niveaux[1]);
+        }
+
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        if (dossierDonnes == null) tournoi.lancer(System.out);
+        else {
+            try (JournalDesDonnes journal = new JournalDesDonnes(dossierDonnes)) {
+                tournoi.setJournalDonnes(journal);
+                tournoi.lancer(System.out);
+            }
+            System.out.println("Donnes enregistrées dans " + dossierDonnes);
+        }
+        tournoi.ecrire(fichier);
+        System.out.println("Résultats écrits dans " + fichier);
+    }
+
+
+    /**
+     * Si vrai, les bots des parties réfléchissent avec un effort fixe au lieu d'un budget de temps.
+     */
+    public void setReproductible(boolean reproductible) {
+        this.reproductible = reproductible;
+    }
+
+
+    /**
+     * Choisit la préparation des paquets entre deux donnes dans toutes les parties.
+     */
+    public void setModeDonne(Paquet.Mode modeDonne) {
+        this.modeDonne = modeDonne;
+    }
+
+
+    /**
+     * Définit le journal où sont enregistrées les donnes de toutes les parties (null pour ne pas les enregistrer).
+     */
+    public void setJournalDonnes(JournalDesDonnes journalDonnes) {
+        this.journalDonnes = journalDonnes;
+    }
+
+
+    public long getGraine() {
+        return graine;
+    }
+
+
+    /**
+     * Ajoute un appariement entre deux niveaux de bots (voir BotFactory).
+     */
+    public Appariement ajouter(String niveauA, String niveauB) {
+        // Vérifie les niveaux avant de lancer les parties
+        BotFactory.creeBot("Test", niveauA);
+        BotFactory.creeBot("Test", niveauB);
+
+        Appariement appariement = new Appariement(niveauA, niveauB);
+        appariements.add(appariement);
+        return appariement;
+    }
+
+
+    /**
+     * Joue toutes les parties de tous les appariements et attend leur fin.
+     *
+     * @param console Flux où afficher la progression et le bilan. Les messages des parties sont masqués.
+     */
+    public void lancer(PrintStream console) throws InterruptedException {
+        List<Callable<Void>> taches = new ArrayList<>();
+        int total = appariements.size() * nbParties;
+        AtomicInteger terminees = new AtomicInteger();
+        int pas = Math.max(1, total / 20);   // Progression affichée toutes les 5 % des parties
+
+        // Une graine par paire de parties, dérivée de celle du tournoi
+        SplittableRandom graines = new SplittableRandom(graine);
+
+        for (Appariement appariement : appariements) {
+            long graineDeLaPaire = 0;
+            for (int i = 0; i < nbParties; i++) {
+                final int noPartie = i;
+                if (i % 2 == 0) graineDeLaPaire = graines.nextLong();
+                final long graineDeLaPartie = graineDeLaPaire;
+                taches.add(() -> {
+                    appariement.jouer(noPartie, graineDeLaPartie, reproductible, modeDonne, journalDonnes);
+
+                    // Compte et affiche sous le même verrou pour que la progression s'affiche dans l'ordre
+                    synchronized (console) {
+                        int n = terminees.incrementAndGet();
+                        if (n % pas == 0 || n == total) console.println(n + " / " + total + " parties jouées");
+                    }
+                    return null;
+                });
+            }
+        }
+
+        PrintStream sortie = System.out;
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads);
+        long debut = System.nanoTime();
+
+        try {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            pool.invokeAll(taches);
+        }
+        finally {
+            System.setOut(sortie);
+            pool.shutdown();
+        }
+
+        console.println(total + " parties en " + (System.nanoTime() - debut) / 1_000_000 + " ms sur " + nbThreads + " threads, graine " + graine);
+        for (Appariement appariement : appariements) console.println(appariement.bilan());
+    }
+
+
+    /**
+     * Écrit le bilan de chaque appariement dans un fichier (remplacé).
+     */
+    public void ecrire(Path fichier) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(fichier)) {
+            for (Appariement appariement : appariements) {
+                writer.write(appariement.bilan());
+                writer.newLine();
+            }
+        }
+    }
+
+
+    public List<Appariement> getAppariements() {
+        return appariements;
+    }
+
+
+    /**
+     * Résultats cumulés des parties d'un appariement, mis à jour par les threads du tournoi.
+     */
+    public static class Appariement {
+        public final String niveauA;
+        public final String niveauB;
+
+        private int parties = 0;
+        private int victoiresA = 0;
+        private int erreurs = 0;
+        private String derniereErreur = null;
+        private long scoreA = 0;
+        private long scoreB = 0;
+        private double sommeEcarts = 0;         // Somme des écarts de score (A - B)
+        private double sommeEcartsCarres = 0;
+        private long dureeNs = 0;
+
+
+
+        Appariement(String niveauA, String niveauB) {
+            this.niveauA = niveauA;
+            this.niveauB = niveauB;
+        }
+
+
+        // Joue une partie de l'appariement, le niveau A change de places d'une partie sur deux
+        void jouer(int noPartie, long graine, boolean reproductible, Paquet.Mode modeDonne, JournalDesDonnes journalDonnes) {
+            boolean aEnPremier = noPartie % 2 == 0;
+            String niveau0 = aEnPremier ? niveauA : niveauB;
+            String niveau1 = aEnPremier ? niveauB : niveauA;
+
+            Joueur[] bots = {
+                BotFactory.creeBot("Bot1", niveau0), BotFactory.creeBot("Bot2", niveau0),
+                BotFactory.creeBot("Bot3", niveau1), BotFactory.creeBot("Bot4", niveau1)
+            };
+            for (Joueur bot : bots) ((Bot) bot).setReproductible(reproductible);
+
+            Equipe equipe0 = new Equipe(bots[0], bots[1]);
+            Equipe equipe1 = new Equipe(bots[2], bots[3]);
+            Game game = new Game(niveauA + ":" + niveauB + "#" + noPartie, equipe0, equipe1, graine);
+            game.setModeDonne(modeDonne);
+            game.setJournalDonnes(journalDonnes);
+
+            long debut = System.nanoTime();
+            try {
+                int gagnante = game.jouerPartie();
+                boolean aGagne = (gagnante == 0) == aEnPremier;
+                int a = (aEnPremier ? equipe0 : equipe1).getScore();
+                int b = (aEnPremier ? equipe1 : equipe0).getScore();
+
+                ajouter(aGagne, a, b, System.nanoTime() - debut);
+            }
+            catch (RuntimeException e) {
+                erreur(game.gameId + " : " + e);
+            }
+        }
+
+
+        private synchronized void ajouter(boolean aGagne, int a, int b, long duree) {
+            parties++;
+            if (aGagne) victoiresA++;
+            scoreA += a;
+            scoreB += b;
+            sommeEcarts += a - b;
+            sommeEcartsCarres += (double) (a - b) * (a - b);
+            dureeNs += duree;
+        }
+
+
+        private synchronized void erreur(String message) {
+            erreurs++;
+            derniereErreur = message;
+        }
+
+
+        public synchronized int getParties() {
+            return parties;
+        }
+
+
+        public synchronized int getVictoiresA() {
+            return victoiresA;
+        }
+
+
+        /**
+         * Retourne le taux de victoire du niveau A, entre 0 et 1.
+         */
+        public synchronized double tauxVictoireA() {
+            return parties == 0 ? 0 : (double) victoiresA / parties;
+        }
+
+
+        /**
+         * Retourne la demi-largeur de l'intervalle de confiance à 95 % du taux de victoire du niveau A.
+         */
+        public synchronized double margeVictoireA() {
+            if (parties == 0) return 0;
+            double p = tauxVictoireA();
+            return 1.96 * Math.sqrt(p * (1 - p) / parties);
+        }
+
+
+        /**
+         * Retourne le bilan de l'appariement sur une ligne.
+         */
+        public synchronized String bilan() {
+            if (parties == 0) return niveauA + " vs " + niveauB + " : aucune partie terminée, " + erreurs + " erreurs"
+                                     + (derniereErreur != null ? " (" + derniereErreur + ")" : "");
+
+            double ecartMoyen = sommeEcarts / parties;
+            double variance = Math.max(0, sommeEcartsCarres / parties - ecartMoyen * ecartMoyen);
+
+            String res = String.format(Locale.ROOT,
+                "%s vs %s : %d parties, victoires %s %.1f %% ± %.1f, score moyen %.0f - %.0f, écart moyen %.0f (écart-type %.0f), %.0f ms par partie",
+                niveauA, niveauB, parties, niveauA, 100 * tauxVictoireA(), 100 * margeVictoireA(),
+                (double) scoreA / parties, (double) scoreB / parties, ecartMoyen, Math.sqrt(variance),
+                dureeNs / 1e6 / parties);
+
+            if (erreurs > 0) res += ", " + erreurs + " erreurs (" + derniereErreur + ")";
+            return res;
+        }
+    }
+}
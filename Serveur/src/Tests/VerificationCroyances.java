@@ -0,0 +1,157 @@
+package src.Tests;
+
+import src.main.*;
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+
+
+/**
+ * Vérifie que les croyances ne se trompent jamais avec certitude : avant chaque carte jouée, toute carte
+ * réellement en main d'un joueur doit avoir une probabilité non nulle pour ce joueur.
+ *
+ * L'échantillonneur de donnes (voir EchantillonneurDonnes) et la réserve de donnes (voir ReserveDeDonnes) traitent
+ * une probabilité nulle comme une contrainte stricte : une seule erreur de l'inférence les empêche de tirer la donne réelle.
+ *
+ * Les parties sont déterminées par leur graine, tirée de celle de la vérification : une contradiction
+ * se rejoue avec la graine affichée.
+ *
+ * Usage : java src.Tests.VerificationCroyances [-n parties] [-g graine] [niveauA:niveauB]
+ * Le programme se termine avec le code 1 s'il trouve au moins une contradiction.
+ *
+ * Exemple : java src.Tests.VerificationCroyances -n 200 -g 1 débutant:débutant
+ */
+public class VerificationCroyances {
+    public static final int NB_PARTIES_PAR_DEFAUT = 100;
+    private static final int MAX_AFFICHEES = 10;   // Contradictions détaillées
+
+
+
+    /**
+     * Point d'entrée, voir la documentation de la classe pour les arguments.
+     */
+    public static void main(String[] args) {
+        int nbParties = NB_PARTIES_PAR_DEFAUT;
+        long graine = new SplittableRandom().nextLong();
+        String[] niveaux = { "débutant", "débutant" };
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n": nbParties = Integer.parseInt(args[++i]); break;
+                case "-g": graine = Long.parseLong(args[++i]); break;
+                default:
+                    niveaux = args[i].split(":");
+                    if (niveaux.length != 2) throw new IllegalArgumentException("Appariement invalide : " + args[i]);
+            }
+        }
+
+        // Vérifie les niveaux avant de lancer les parties
+        BotFactory.creeBot("Test", niveaux[0]);
+        BotFactory.creeBot("Test", niveaux[1]);
+
+        // Projette en mémoire la table des scores d'enchère des bots
+        TableDesEncheres.initialiser();
+
+        SplittableRandom graines = new SplittableRandom(graine);
+        PrintStream sortie = System.out;
+        long nbCoups = 0;
+        long nbContradictions = 0;
+
+        for (int p = 0; p < nbParties; p++) {
+            long graineDeLaPartie = graines.nextLong();
+            Verificateur verificateur;
+
+            try {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                verificateur = jouer(niveaux[p % 2], niveaux[1 - p % 2], graineDeLaPartie);
+            }
+            finally {
+                System.setOut(sortie);
+            }
+
+            if (verificateur.premiere != null && nbContradictions < MAX_AFFICHEES)
+                System.out.println("Partie " + graineDeLaPartie + " : " + verificateur.premiere);
+
+            nbCoups += verificateur.nbCoups;
+            nbContradictions += verificateur.nbContradictions;
+        }
+
+        System.out.println(nbParties + " parties, " + nbCoups + " coups vérifiés, " + nbContradictions
+                           + " cartes en main avec une probabilité nulle (graine " + graine + ")");
+        if (nbContradictions > 0) System.exit(1);
+    }
+
+
+    private static Verificateur jouer(String niveau0, String niveau1, long graine) {
+        Joueur[] bots = {
+            BotFactory.creeBot("Bot1", niveau0), BotFactory.creeBot("Bot2", niveau0),
+            BotFactory.creeBot("Bot3", niveau1), BotFactory.creeBot("Bot4", niveau1)
+        };
+        for (Joueur bot : bots) ((Bot) bot).setReproductible(true);
+
+        Game game = new Game("Verification#" + graine, new Equipe(bots[0], bots[1]), new Equipe(bots[2], bots[3]), graine);
+        game.setModeDonne(Paquet.Mode.ALEATOIRE);
+
+        Verificateur verificateur = new Verificateur(game.context);
+        game.setObservateur(verificateur);
+        game.jouerPartie();
+        return verificateur;
+    }
+
+
+    /**
+     * Compare les croyances aux mains réelles avant chaque carte jouée.
+     */
+    private static final class Verificateur implements ObservateurPartie {
+        private final GameContext context;
+        private long nbCoups = 0;
+        private long nbContradictions = 0;
+        private String premiere = null;   // Description de la première contradiction
+        private Carte dernierCoup = null;
+
+
+
+        Verificateur(GameContext context) {
+            this.context = context;
+        }
+
+
+        @Override
+        public void aParle(int joueur, int tour, Couleur atout) {}
+
+
+        @Override
+        public void vaJouer(int joueur, Plis plis) {
+            nbCoups++;
+            Croyances croyances = context.getCroyances();
+
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                for (int reste = context.getJoueur(p).getMain(); reste != 0; reste = CardSet.next(reste)) {
+                    int id = CardSet.first(reste);
+                    if (croyances.get(p, id) > 0) continue;
+
+                    nbContradictions++;
+                    if (premiere == null)
+                        premiere = "le joueur " + p + " possède " + Carte.fromId(id) + " avec une probabilité nulle, "
+                                 + "après " + dernierCoup + " (atout " + context.getColorAtout() + ")";
+                }
+            }
+        }
+
+
+        @Override
+        public void aJoue(int joueur, Carte carte) {
+            dernierCoup = carte;
+        }
+
+
+        @Override
+        public void finDeDonne(int score0, int score1) {
+            dernierCoup = null;
+        }
+    }
+}
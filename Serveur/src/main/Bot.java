@@ -5,43 +5,125 @@ import src.main.Paquet.Carte.*;
 
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 
 
 public abstract class Bot extends Joueur {
     // Map qui associe à chaque couleur un score dans le cadre de la prise à l'atout
-    protected Map<Paquet.Carte.Couleur, Integer> atoutRate = new HashMap<>();
+    protected Map<Paquet.Carte.Couleur, Integer> atoutRate = new EnumMap<>(Couleur.class);
+    // Nombre de seaux de la table de transposition de chaque thread de calcul
+    private static final int TAILLE_TABLE_PAR_THREAD = 1 << 14;
+    // État de recherche de chaque thread de calcul, partagé par tous les bots qui y font chercher (voir etatDuThread)
+    private static final ThreadLocal<EtatRecherche> etats = ThreadLocal.withInitial(EtatRecherche::new);
+    private int noDecision = 0;   // Numéro de la décision en cours, pour vieillir les tables de transposition
+    // Nombre de distributions du premier lot évalué par l'approfondissement itératif
+    private static final int NB_DONNES_INITIAL = 10;
+    // Échéance (System.nanoTime) des recherches faites sur le thread de jeu, et compteur de noeuds associé
+    private long echeanceRecherche = Long.MAX_VALUE;
+    private int noeudsRecherche = 0;
+    // Tirage des distributions sur le thread de jeu, dans un tampon réutilisé d'une décision à l'autre
+    private final EchantillonneurDonnes echantillonneur = new EchantillonneurDonnes();
+    private int[] lotDonnes = new int[0];
+    // Distributions conservées d'une décision à l'autre pendant la donne
+    private final ReserveDeDonnes reserve = new ReserveDeDonnes();
+
+
+
+    protected long budgetMs;   // Temps de réflexion accordé pour jouer une carte, en millisecondes
+    // Nombre de cartes restant en main (tous joueurs confondus) en dessous duquel la fin de donne est résolue exactement
+    public static final int SEUIL_SOLVEUR = 16;
+    protected int seuilSolveur = SEUIL_SOLVEUR;
+    // Si vrai, le bot parle en simulant des donnes (EnchereMonteCarlo) au lieu d'utiliser le score heuristique
+    protected boolean enchereMonteCarlo = false;
+    protected long budgetEnchereMs = EnchereMonteCarlo.BUDGET_MS;
+    // Générateur du bot, dérivé de la graine de la partie (voir Game)
+    protected SplittableRandom aleatoire = new SplittableRandom();
+    // Si vrai, le bot réfléchit avec un effort fixe sur le thread de jeu au lieu d'un budget de temps :
+    // ses décisions ne dépendent plus que de la graine de la partie
+    protected boolean reproductible = false;
+    public static final int PROFONDEUR_REPRODUCTIBLE = 3;   // Profondeur de recherche en mode reproductible
+    public static final int NB_DONNES_REPRODUCTIBLE = 20;   // Distributions évaluées en mode reproductible
+    // Heuristiques d'ordonnancement des coups des recherches du bot (voir OrdreDesCoups)
+    protected OrdreDesCoups.Heuristiques heuristiques = OrdreDesCoups.Heuristiques.TOUTES;
+
+
+
+    Bot (String name, long budgetMs) {
+        super(name);
+        this.budgetMs = budgetMs;
+        hasSayBeloteAndRe = true;
+    }
 
-    // Liste de Map qui associe à chaque cartes sa proba pour tous les joueurs
-    public static Map<Integer, Map<Couleur, Map<Carte, Float>>> cardsProbaPerPlayer;
 
+    public long getBudgetMs() {
+        return budgetMs;
+    }
 
 
-    Bot (String name) {
-        super(name);
-        hasSayBeloteAndRe = true;
+    public void setBudgetMs(long budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
 
-        cardsProbaPerPlayer = new HashMap<>();
+    public int getSeuilSolveur() {
+        return seuilSolveur;
     }
 
 
-    public static void endDistrib() {
-        // Remplit les maps en attribuant une probabilité initiale de 1/4
-        // à chaque joueur pour posséder chaque carte, en préservant l'ordre d'insertion
-        for (int i = 0; i < Game.NB_PLAYERS; i++) {
-            cardsProbaPerPlayer.put(i, new LinkedHashMap<>());
-            for (Couleur c : Couleur.values()) {
-                cardsProbaPerPlayer.get(i).put(c, new LinkedHashMap<>());
-                // L'ordre ordinal de l'énumération est conservé par Type.values()
-                for (Type t : Type.values()) {
-                    Carte carte = new Carte(c, t);
-                    cardsProbaPerPlayer.get(i).get(c).put(carte, 0.25f);
-                }
-            }
-        }
+    public void setSeuilSolveur(int seuilSolveur) {
+        this.seuilSolveur = seuilSolveur;
+    }
+
+
+    public boolean isEnchereMonteCarlo() {
+        return enchereMonteCarlo;
+    }
+
+
+    public void setEnchereMonteCarlo(boolean enchereMonteCarlo) {
+        this.enchereMonteCarlo = enchereMonteCarlo;
+    }
+
+
+    public void setBudgetEnchereMs(long budgetEnchereMs) {
+        this.budgetEnchereMs = budgetEnchereMs;
+    }
+
+
+    public void setAleatoire(SplittableRandom aleatoire) {
+        this.aleatoire = aleatoire;
+    }
+
+
+    public boolean isReproductible() {
+        return reproductible;
+    }
+
+
+    public void setReproductible(boolean reproductible) {
+        this.reproductible = reproductible;
+    }
+
+
+    /**
+     * Choisit les heuristiques d'ordonnancement des coups des recherches du bot, toutes par défaut.
+     * Elles ne concernent que ce bot.
+     */
+    public void setHeuristiques(OrdreDesCoups.Heuristiques heuristiques) {
+        this.heuristiques = heuristiques;
+    }
+
+
+    public static void endDistrib(GameContext context) {
+        // Attribue une probabilité initiale de 1/4 à chaque joueur pour posséder chaque carte
+        context.getCroyances().initialiser(0.25f);
     }
-    
+
 
 
     /**************************************************************************************************
@@ -53,24 +135,22 @@ public abstract class Bot extends Joueur {
     @Override
     public Couleur parler(int tour) {
         // Si la main est vide, on passe
-        if (main == null || main.isEmpty()) return null;
+        if (main == CardSet.EMPTY) return null;
 
         final int seuil = 85;     // Défini à partir de quelle score on peut prendre
         final int seuilHaut = 115; // Défini à partir de quelle score on peut prendre en fin de partie
         Couleur color = null;   // Défini la couleur de l'atout choisit ou null si on passe
+        Couleur proposee = getColorAtout();   // Couleur de la carte du milieu
 
         if (atoutRate.isEmpty()) {
             // On évalue la main pour chaque couleur
-            for (Paquet.Carte.Couleur couleur : main.keySet()) {
-                System.out.println("score de "+couleur+" = "+evaluerScore(couleur));
-                atoutRate.put(couleur, evaluerScore(couleur));
-            }
+            evaluerMain();
 
-            if (getEquipe().getScore() > 800 && atoutRate.get(colorAtout) > seuilHaut) color = colorAtout;
-            else if (atoutRate.get(colorAtout) >= seuil) color = colorAtout;
+            if (getEquipe().getScore() > 800 && atoutRate.get(proposee) > seuilHaut) color = proposee;
+            else if (atoutRate.get(proposee) >= seuil) color = proposee;
         }
         else {
-            Couleur verif = betterRate();
+            Couleur verif = betterRate(proposee);
 
             if ((getEquipe().getScore() > 800 && atoutRate.get(verif) > seuilHaut)
                         ||
@@ -82,36 +162,50 @@ public abstract class Bot extends Joueur {
     }
 
 
-    private int evaluerScore(Paquet.Carte.Couleur couleur) {
-        // On simule que la couleur passée en paramètre est l'atout
-        couleur.setIsAtout(true);
+    /**
+     * Remplit atoutRate avec le score de la main pour chaque couleur d'atout :
+     * - en mode Monte Carlo, les points que l'équipe marquerait en prenant, estimés par simulation de donnes ;
+     * - sinon le score heuristique, lu dans la table précalculée si elle est chargée.
+     * Les deux se comparent aux mêmes seuils de prise.
+     */
+    private void evaluerMain() {
+        if (enchereMonteCarlo) {
+            long echeance = reproductible ? Long.MAX_VALUE : System.nanoTime() + budgetEnchereMs * 1_000_000L;
+            double[] esperances = EnchereMonteCarlo.esperances(context, main, noPlayer, context.getPremierJoueur(), echeance, aleatoire.split());
 
-        int score = calculerScoreAtout(main) +
-                    calculerScoreMaitresses(main) +
-                    calculerBonusBelote(main) +
-                    calculerBonusLongueEtCoupe(main);
-        
-        // Rétablir l'état initial de la couleur atout
-        couleur.setIsAtout(false);
-        return score;
+            for (Couleur couleur : Couleur.values()) atoutRate.put(couleur, (int) Math.round(esperances[couleur.ordinal()]));
+            return;
+        }
+
+        for (Couleur couleur : Couleur.values()) {
+            int score = TableDesEncheres.score(main, couleur);
+            atoutRate.put(couleur, score >= 0 ? score : evaluerScore(main, couleur));
+        }
     }
 
 
-    private int calculerScoreAtout(Map<Couleur, List<Carte>> main) {
+    // Evalue la main en simulant que la couleur passée en paramètre est l'atout (voir aussi TableDesEncheres)
+    static int evaluerScore(int main, Paquet.Carte.Couleur couleur) {
+        return calculerScoreAtout(main, couleur) +
+               calculerScoreMaitresses(main, couleur) +
+               calculerBonusBelote(main, couleur) +
+               calculerBonusLongueEtCoupe(main);
+    }
+
+
+    private static int calculerScoreAtout(int main, Couleur atout) {
         final int POIDS_NB_ATOUT = 5;
         final float POIDS_TOTAL_POWER_ATOUT = 1.66f;
 
-        int nbAtouts = main.get(colorAtout).size();
-        int totalPowerAtout = main.get(colorAtout)
-                                  .stream()
-                                  .mapToInt(Paquet.Carte::getNbPoint)
-                                  .sum();
+        int atouts = CardSet.ofSuit(main, atout);
+        int nbAtouts = CardSet.size(atouts);
+        int totalPowerAtout = CardSet.points(atouts, atout);
         
         return POIDS_NB_ATOUT * nbAtouts + (int) (POIDS_TOTAL_POWER_ATOUT * totalPowerAtout);
     }
 
 
-    private int calculerScoreMaitresses(Map<Couleur, List<Carte>> main) {
+    private static int calculerScoreMaitresses(int main, Couleur atout) {
         final int POIDS_NB_MAITRESSE = 3;
         final int POIDS_TOTAL_POWER_MAITRESSE = 1;
 
@@ -119,18 +213,16 @@ public abstract class Bot extends Joueur {
         int totalPowerMaitresses = 0;
 
         // Parcours de toutes les couleurs sauf l'atout
-        for (Map.Entry<Paquet.Carte.Couleur, List<Paquet.Carte>> entry : main.entrySet()) {
-            Paquet.Carte.Couleur couleur = entry.getKey();
-            if (!couleur.equals(colorAtout)) {
-                List<Paquet.Carte> cartes = entry.getValue();
-                int ordinalGradient = Carte.Type.AS.ordinal();
-                int i = cartes.size() - 1;
-
-                while (i >= 0 && ordinalGradient == cartes.get(i).getType().ordinal()) {
-                    ordinalGradient--;
+        for (Couleur couleur : Couleur.values()) {
+            if (couleur != atout) {
+                // Les identifiants d'une couleur sont contigus : on descend depuis l'as
+                int id = Carte.idOf(couleur, Type.AS);
+                int plusFaible = Carte.idOf(couleur, Type.SEPT);
+
+                while (id >= plusFaible && CardSet.containsId(main, id)) {
                     nbMaitresses++;
-                    totalPowerMaitresses += cartes.get(i).getNbPoint();
-                    i--;
+                    totalPowerMaitresses += Carte.fromId(id).getNbPoint(atout);
+                    id--;
                 }
             }
         }
@@ -138,14 +230,11 @@ public abstract class Bot extends Joueur {
     }
 
 
-    private int calculerBonusBelote(Map<Couleur, List<Carte>> main) {
+    private static int calculerBonusBelote(int main, Couleur atout) {
         final int BONUS_BELOTE = 20;
-        boolean roi = false, dame = false;
- 
-        for (Paquet.Carte carte : main.get(colorAtout)) {
-            if (carte.getType() == Carte.Type.ROI) roi = true;
-            else if (carte.getType() == Carte.Type.DAME) dame = true;
-        }
+        boolean roi = CardSet.containsId(main, Carte.idOf(atout, Type.ROI));
+        boolean dame = CardSet.containsId(main, Carte.idOf(atout, Type.DAME));
+
         return (roi && dame) ? BONUS_BELOTE : 0;
     }
     
@@ -155,7 +244,7 @@ public abstract class Bot extends Joueur {
      * - BONUS_LONGUE si la couleur contient au moins SEUIL_LONGUE cartes maîtresses,
      *   avec un bonus de base et un bonus incrémental par carte supplémentaire.
      */
-    private int calculerBonusLongueEtCoupe(Map<Couleur, List<Carte>> main) {
+    private static int calculerBonusLongueEtCoupe(int main) {
         final int BONUS_COUPE = 10;
         final int BONUS_LONGUE_DE_BASE = 20;
         final int BONUS_LONGUE_INCREMENT = 10;
@@ -164,18 +253,17 @@ public abstract class Bot extends Joueur {
         int bonusTotal = 0;
         
         // Parcours unique de toutes les couleurs de la main
-        for (List<Paquet.Carte> cartes : main.values()) {
-            if (cartes.isEmpty()) bonusTotal += BONUS_COUPE;
+        for (Couleur couleur : Couleur.values()) {
+            if (CardSet.ofSuit(main, couleur) == CardSet.EMPTY) bonusTotal += BONUS_COUPE;
 
             else {
-                int ordinalGradient = Carte.Type.AS.ordinal();
-                int i = cartes.size() - 1;
+                int id = Carte.idOf(couleur, Type.AS);
+                int plusFaible = Carte.idOf(couleur, Type.SEPT);
                 int cptLongue = 0;
 
-                while (i >= 0 && ordinalGradient == cartes.get(i).getType().ordinal()) {
-                    ordinalGradient--;
+                while (id >= plusFaible && CardSet.containsId(main, id)) {
                     cptLongue++;
-                    i--;
+                    id--;
                 }
                 if (cptLongue >= SEUIL_LONGUE)
                     bonusTotal += BONUS_LONGUE_DE_BASE + (cptLongue - SEUIL_LONGUE) * BONUS_LONGUE_INCREMENT;
@@ -186,12 +274,12 @@ public abstract class Bot extends Joueur {
 
 
     // Retourne la couleur pour laquelle on a le plus de chance de réussir
-    private Couleur betterRate() {
+    private Couleur betterRate(Couleur proposee) {
         int max = 0;
         Couleur res = null;
 
         for (Couleur couleur : atoutRate.keySet()) {
-            if (couleur != colorAtout && atoutRate.get(couleur) > max) {
+            if (couleur != proposee && atoutRate.get(couleur) > max) {
                 max = atoutRate.get(couleur);
                 res = couleur;
             }
@@ -207,38 +295,75 @@ public abstract class Bot extends Joueur {
      */
 
 
+    /**
+     * Retourne la meilleure carte à jouer en un temps limité, par approfondissement itératif de exceptedMiniMax.
+     * La recherche à la profondeur suivante n'est lancée que si la moitié du budget n'est pas consommée,
+     * et une recherche coupée par l'échéance est ignorée : le résultat de la dernière profondeur terminée est retourné.
+     *
+     * @param budgetMs Le temps de réflexion en millisecondes.
+     */
+    protected Carte exceptedMiniMaxIteratif(Plis plis, Couleur atout, long budgetMs) {
+        long debut = System.nanoTime();
+        int playable = Rules.playable(plis, noPlayer, main, atout);
+
+        // Coup par défaut, et seul coup possible s'il n'y a pas le choix
+        Carte meilleureCarte = Carte.fromId(CardSet.first(playable));
+        if (CardSet.size(playable) == 1) return meilleureCarte;
+
+        // Peu de cartes restantes ou donne connue : résolution exacte
+        if (finDeDonneExacte(context.getCartePlay()))
+            return resoudreFinDeDonne(plis, atout, idCoups(playable), reproductible ? Long.MAX_VALUE : debut + budgetMs * 1_000_000L);
+
+        // Nombre de cartes restant à jouer dans la donne après ce coup
+        int profondeurMax = Carte.NB_CARTES - CardSet.size(context.getCartePlay()) - 1;
+
+        // Effort fixe : une seule recherche, sans échéance
+        if (reproductible) return exceptedMiniMax(plis, atout, Math.max(1, Math.min(profondeurMax, PROFONDEUR_REPRODUCTIBLE)));
+        echeanceRecherche = debut + budgetMs * 1_000_000L;
+
+        try {
+            for (int d = 1; d <= Math.max(1, profondeurMax); d++) {
+                meilleureCarte = exceptedMiniMax(plis, atout, d);
+
+                // La profondeur suivante coûte au moins autant que toutes les précédentes
+                if (2 * (System.nanoTime() - debut) > echeanceRecherche - debut) break;
+            }
+        }
+        catch (RechercheInterrompue e) {
+            // On garde la carte de la dernière profondeur terminée
+        }
+        finally {
+            echeanceRecherche = Long.MAX_VALUE;
+        }
+        return meilleureCarte;
+    }
+
+
     // Implémentation de l'algorithme MiniMax pondéré par les probabilités
-    protected Carte exceptedMiniMax(Plis plis, int maxDeepth) {
-        // Récupère les cartes jouable par le joueur dans ce plis
-        List<Carte> playable = Rules.playable(plis, noPlayer, main);
+    protected Carte exceptedMiniMax(Plis plis, Couleur atout, int maxDeepth) {
+        // Cartes déjà jouées
+        int cartesJouees = context.getCartePlay();
+
+        // Récupère les cartes jouable par le joueur dans ce plis, au plus deux par groupe de cartes équivalentes (voir Rules.reduire)
+        int playable = Rules.playableReduit(plis, noPlayer, main, cartesJouees, atout);
         Carte meilleureCarte = null;    // la carte qu'il faut jouer
         float meilleureValeur = Float.NEGATIVE_INFINITY; // Valeur du coup la meilleur carte
 
-        // Set des cartes déjà jouées
-        HashSet<Carte> newCartesJouees = new HashSet<>();
-
-        // On ajoute les cartes déjà jouées
-        newCartesJouees.addAll(Game.cartePlay.values()
-            .stream()
-            .flatMap(List::stream)
-            .collect(Collectors.toSet()));
-
-        Map<Couleur, List<Carte>> innerMain = copyMain();
+        // Pile de plis réutilisée pendant toute la recherche : les coups sont joués puis annulés sur place
+        PileDePlis pile = new PileDePlis(context);
+        pile.init(plis);
 
         // Parcourt chaque carte jouable
-        for (Carte carte : playable) {
-            // Clone le pli donné et simule le coup joué
-            Plis p = new Plis(plis);
-            p.addCard(this, carte);
+        for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+            Carte carte = Carte.fromId(CardSet.first(reste));
 
-            newCartesJouees.add(carte);
-            innerMain.get(carte.getCouleur()).remove(carte);
+            // Simule le coup joué
+            pile.jouer(this, carte, atout);
 
             // Calcul de la valeur de ce coup via le minValue pondéré
-            float valeur = minValue(p, (noPlayer + 1) % Game.NB_PLAYERS, 0, maxDeepth, 0, newCartesJouees, innerMain);
+            float valeur = minValue(pile, (noPlayer + 1) % Game.NB_PLAYERS, 0, maxDeepth, 0, CardSet.add(cartesJouees, carte), CardSet.remove(main, carte), atout);
 
-            newCartesJouees.remove(carte);
-            innerMain.get(carte.getCouleur()).add(carte);
+            pile.annuler();
 
             if (valeur > meilleureValeur) {
                 meilleureValeur = valeur;
@@ -250,83 +375,83 @@ public abstract class Bot extends Joueur {
 
 
     // Simule l'équipe adverse ici
-    private float minValue(Plis plis, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, Set<Carte> cartesJouees, Map<Couleur, List<Carte>> main) {
-        Plis modele;
-        float localSum = globalSum;
+    private float minValue(PileDePlis pile, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, int cartesJouees, int main, Couleur atout) {
+        // Consulte l'horloge tous les 1024 noeuds et abandonne si l'échéance est dépassée
+        if ((++noeudsRecherche & 0x3FF) == 0 && System.nanoTime() > echeanceRecherche) throw INTERRUPTION;
+
+        Plis plis = pile.courant();
 
-        // Si le pli est fini, on réinitialise le modèle et on ajoute la valeur du pli si l'équipe du bot gagne
+        // Si le pli est fini, on ajoute la valeur du pli si l'équipe du bot gagne et on continue sur un nouveau pli
         if (plis.getIndex() == Game.NB_PLAYERS) {
-            modele = new Plis(); // Nouveau pli
+            float localSum = globalSum + (plis.getEquipe().equals(equipe) ? plis.getValue() : -plis.getValue());
 
-            if (plis.getEquipe().equals(equipe)) localSum += plis.getValue();
-            else localSum -= plis.getValue();
+            pile.ouvrirPli();
+            float res = minValue(pile, noCurrentPlayeur, deepth, maxDeepth, localSum, cartesJouees, main, atout);
+            pile.fermerPli();
+            return res;
         }
-        else modele = new Plis(plis);
 
         // Test terminal
-        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(localSum, main);
-
-        // Liste de toutes les cartes possibles dans le plis
-        List<Carte> playable;
+        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(globalSum, main, atout);
 
         // Sinon on regarde toutes les possibilitées
-        playable = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees);
+        // Cartes équivalentes regroupées : au plus deux sont explorées par groupe (voir Rules.reduire)
+        int possibles = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees, atout);
+        int vivantes = Rules.vivantes(plis, cartesJouees);
+        int playable = Rules.reduire(possibles, vivantes, atout);
+        Joueur joueur = context.getJoueur(noCurrentPlayeur);
 
         float expectedValue = 0f;  // Calcule l'espérance
         float totalProba = 0f;  // Pour normaliser au cas où les probas ne font pas 1
 
         // Parcour toutes les cartes possibles
-        for (Carte carte : playable) {
-            Plis tmp = new Plis(modele);
-            tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
-
-            cartesJouees.add(carte);
+        for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+            Carte carte = Carte.fromId(CardSet.first(reste));
 
-            float proba = getProbability(noCurrentPlayeur, carte);
+            // La carte porte la probabilité de toutes les cartes équivalentes qu'elle représente
+            float proba = probabiliteGroupe(noCurrentPlayeur, carte, possibles, playable, vivantes, atout);
             totalProba += proba;
-            expectedValue += proba * maxValue(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, localSum, cartesJouees, main);
 
-            cartesJouees.remove(carte);
+            pile.jouer(joueur, carte, atout);
+            expectedValue += proba * maxValue(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), main, atout);
+            pile.annuler();
         }
         return totalProba > 0 ? expectedValue / totalProba : 0f; // Normalisation
     }
 
 
     // Simule le jeu de l'équipe du joueur en cours
-    private float maxValue(Plis plis, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, Set<Carte> cartesJouees, Map<Couleur, List<Carte>> main) {
-        Plis modele;
-        float localSum = globalSum;
-    
+    private float maxValue(PileDePlis pile, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, int cartesJouees, int main, Couleur atout) {
+        // Consulte l'horloge tous les 1024 noeuds et abandonne si l'échéance est dépassée
+        if ((++noeudsRecherche & 0x3FF) == 0 && System.nanoTime() > echeanceRecherche) throw INTERRUPTION;
+
+        Plis plis = pile.courant();
+
         // Si le pli est fini
         if (plis.getIndex() == Game.NB_PLAYERS) {
-            modele = new Plis(); // Nouveau pli
+            float localSum = globalSum + (plis.getEquipe().equals(equipe) ? plis.getValue() : -plis.getValue());
 
-            if (plis.getEquipe().equals(equipe)) localSum += plis.getValue();
-            else localSum -= plis.getValue();
+            pile.ouvrirPli();
+            float res = maxValue(pile, noCurrentPlayeur, deepth, maxDeepth, localSum, cartesJouees, main, atout);
+            pile.fermerPli();
+            return res;
         }
-        else modele = new Plis(plis);
 
-        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(localSum, main);
+        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(globalSum, main, atout);
 
-        // Liste de toutes les cartes possibles dans le plis
-        List<Carte> playable;
+        Joueur joueur = context.getJoueur(noCurrentPlayeur);
 
         // Si c'est le tour du joueur, on joue normalement
         if (noCurrentPlayeur == noPlayer) {
-            playable = Rules.playable(plis, noPlayer, main);
+            int playable = Rules.playableReduit(plis, noPlayer, main, cartesJouees, atout);
             float bestValeur = Float.NEGATIVE_INFINITY;
 
-            for (Carte carte : playable) {
-                Plis tmp = new Plis(modele);
-                tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
-
-                cartesJouees.add(carte);
-                main.get(carte.getCouleur()).remove(carte);
-
-                float brancheValue = minValue(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, localSum, cartesJouees, main);
+            for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+                Carte carte = Carte.fromId(CardSet.first(reste));
 
-                cartesJouees.remove(carte);
-                main.get(carte.getCouleur()).add(carte);
+                pile.jouer(joueur, carte, atout);
+                float brancheValue = minValue(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), CardSet.remove(main, carte), atout);
+                pile.annuler();
 
                 bestValeur = Math.max(bestValeur, brancheValue);
             }
@@ -334,21 +459,22 @@ public abstract class Bot extends Joueur {
         }
         // Sinon, on prend en compte les probabilités car c'est un joueur dont les cartes ne sont pas connues
         else {
-            playable = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees);
+            int possibles = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees, atout);
+            int vivantes = Rules.vivantes(plis, cartesJouees);
+            int playable = Rules.reduire(possibles, vivantes, atout);
 
             float expectedValue = 0f;
             float totalProba = 0f;
 
-            for (Carte carte : playable) {
-                Plis tmp = new Plis(modele);
-                tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
-                cartesJouees.add(carte);
+            for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+                Carte carte = Carte.fromId(CardSet.first(reste));
 
-                float proba = getProbability(noCurrentPlayeur, carte);
+                float proba = probabiliteGroupe(noCurrentPlayeur, carte, possibles, playable, vivantes, atout);
                 totalProba += proba;
-                expectedValue += proba * minValue(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, localSum, cartesJouees, main);
 
-                cartesJouees.remove(carte);
+                pile.jouer(joueur, carte, atout);
+                expectedValue += proba * minValue(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth + 1, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), main, atout);
+                pile.annuler();
             }
             // Normalisation pour éviter un retour à 0 si totalProba == 0
             return totalProba > 0 ? expectedValue / totalProba : 0f;
@@ -356,7 +482,6 @@ public abstract class Bot extends Joueur {
     }
 
 
-
     /**************************************************************************************************
      * Implémentation de exceptedMiniMaxAlphaBeta
      * ************************************************************************************************
@@ -364,40 +489,30 @@ public abstract class Bot extends Joueur {
 
 
     // Implémentation de l'algorithme MiniMax pondéré par les probabilités
-    protected Carte exceptedMiniMaxAlphaBeta(Plis plis, int maxDeepth) {
+    protected Carte exceptedMiniMaxAlphaBeta(Plis plis, Couleur atout, int maxDeepth) {
         // Récupère les cartes jouable par le joueur dans ce plis
-        List<Carte> playable = Rules.playable(plis, noPlayer, main);
+        int playable = Rules.playable(plis, noPlayer, main, atout);
         Carte meilleureCarte = null;    // la carte qu'il faut jouer
         float meilleureValeur = Float.NEGATIVE_INFINITY; // Valeur initiale très basse
 
-        // Le set est initialisé avec la main du joueur
-        Set<Carte> newCartesJouees = new HashSet<>();
-
-        // On ajoute aussi les cartes déjà jouées
-        newCartesJouees.addAll(Game.cartePlay.values()
-            .stream()
-            .flatMap(List::stream)
-            .collect(Collectors.toSet()));
+        // Cartes déjà jouées
+        int cartesJouees = context.getCartePlay();
 
-        Map<Couleur, List<Carte>> innerMain = copyMain();
+        // Pile de plis réutilisée pendant toute la recherche
+        PileDePlis pile = new PileDePlis(context);
+        pile.init(plis);
 
         // Parcourt chaque carte jouable
-        for (Carte carte : playable) {
-
-            // Clone le pli donné et simule le coup joué
-            Plis p = new Plis(plis);
-            p.addCard(this, carte);
+        for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+            Carte carte = Carte.fromId(CardSet.first(reste));
 
-            // Ajoute la carte que l'on vient de jouer
-            newCartesJouees.add(carte);
-            innerMain.get(carte.getCouleur()).remove(carte);
+            // Simule le coup joué
+            pile.jouer(this, carte, atout);
 
             // Calcul de la valeur de ce coup via le minValue pondéré
-            float valeur = minValueAlphaBeta(p, (noPlayer + 1) % Game.NB_PLAYERS, 0, maxDeepth, 0, newCartesJouees, innerMain, meilleureValeur, Float.MAX_VALUE);
+            float valeur = minValueAlphaBeta(pile, (noPlayer + 1) % Game.NB_PLAYERS, 0, maxDeepth, 0, CardSet.add(cartesJouees, carte), CardSet.remove(main, carte), meilleureValeur, Float.MAX_VALUE, atout);
 
-            // Ajoute la carte que l'on vient de jouer
-            newCartesJouees.remove(carte);
-            innerMain.get(carte.getCouleur()).add(carte);
+            pile.annuler();
 
             if (valeur > meilleureValeur) {
                 meilleureValeur = valeur;
@@ -408,53 +523,57 @@ public abstract class Bot extends Joueur {
     }
 
 
-    // Simule l'équipe adverse ici
-    private float minValueAlphaBeta(Plis plis, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, Set<Carte> cartesJouees, Map<Couleur, List<Carte>> main, float alpha, float beta) {
-        Plis modele;
-        float localSum = globalSum;
+    // Si le pli courant est fini, ouvre un nouveau pli et poursuit la recherche depuis le gagnant
+    private float finDePliAlphaBeta(PileDePlis pile, int deepth, int maxDeepth, float globalSum, int cartesJouees, int main, float alpha, float beta, Couleur atout) {
+        Plis plis = pile.courant();
+        int winner = plis.getWinner();
+        float res;
 
-        // Si le pli est fini, on réinitialise le modèle et on ajoute la valeur du pli si l'équipe du bot gagne
-        if (plis.getIndex() == Game.NB_PLAYERS) {
-            modele = new Plis(); // Nouveau pli
+        pile.ouvrirPli();
+        // Si on gagne le plis
+        if (plis.getEquipe().equals(equipe))
+            res = maxValueAlphaBeta(pile, winner, deepth + 1, maxDeepth, globalSum + plis.getValue(), cartesJouees, main, alpha, beta, atout);
+        // Si non on le perds
+        else
+            res = minValueAlphaBeta(pile, winner, deepth + 1, maxDeepth, globalSum - plis.getValue(), cartesJouees, main, alpha, beta, atout);
+        pile.fermerPli();
 
-            // Si on gagne le plis
-            if (plis.getEquipe().equals(equipe))
-            {
-                localSum += plis.getValue();
-                return maxValueAlphaBeta(modele, plis.getWinner(), deepth+1, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-            }
-            // Si non on le perds
-            else {
-                localSum -= plis.getValue();
-                return minValueAlphaBeta(modele, plis.getWinner(), deepth+1, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-            }
-        }
-        else modele = new Plis(plis);
+        return res;
+    }
 
-        // Test terminal
-        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(localSum, main);
 
-        // Liste de toutes les cartes possibles dans le plis
-        List<Carte> playable;
+    // Simule l'équipe adverse ici
+    private float minValueAlphaBeta(PileDePlis pile, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, int cartesJouees, int main, float alpha, float beta, Couleur atout) {
+        Plis plis = pile.courant();
+
+        // Si le pli est fini, on ajoute la valeur du pli si l'équipe du bot gagne et on continue depuis le gagnant
+        if (plis.getIndex() == Game.NB_PLAYERS)
+            return finDePliAlphaBeta(pile, deepth, maxDeepth, globalSum, cartesJouees, main, alpha, beta, atout);
+
+        // Test terminal
+        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(globalSum, main, atout);
 
         // Sinon on regarde toutes les possibilitées
-        playable = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees);
+        // Cartes équivalentes regroupées : au plus deux sont explorées par groupe (voir Rules.reduire)
+        int possibles = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees, atout);
+        int vivantes = Rules.vivantes(plis, cartesJouees);
+        int playable = Rules.reduire(possibles, vivantes, atout);
+        Joueur joueur = context.getJoueur(noCurrentPlayeur);
 
         float expectedValue = 0f;  // Calcule l'espérance
         float totalProba = 0f;  // Pour normaliser au cas où les probas ne font pas 1, à cause des arrondis notament
 
         // Parcour toutes les cartes possibles
-        for (Carte carte : playable) {
-            Plis tmp = new Plis(modele);
-            tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
-
-            float proba = getProbability(noCurrentPlayeur, carte);
-            cartesJouees.add(carte);
+        for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+            Carte carte = Carte.fromId(CardSet.first(reste));
 
+            // La carte porte la probabilité de toutes les cartes équivalentes qu'elle représente
+            float proba = probabiliteGroupe(noCurrentPlayeur, carte, possibles, playable, vivantes, atout);
             totalProba += proba;
-            expectedValue += proba * maxValueAlphaBeta(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-                
-            cartesJouees.remove(carte);
+
+            pile.jouer(joueur, carte, atout);
+            expectedValue += proba * maxValueAlphaBeta(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), main, alpha, beta, atout);
+            pile.annuler();
 
             // Calcul le cout réel
             //if ((expectedValue*totalProba) <= alpha) break;
@@ -466,49 +585,28 @@ public abstract class Bot extends Joueur {
 
 
     // Simule le jeu de l'équipe du joueur en cours
-    private float maxValueAlphaBeta(Plis plis, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, Set<Carte> cartesJouees, Map<Couleur, List<Carte>> main, float alpha, float beta) {
-        Plis modele;
-        float localSum = globalSum;
+    private float maxValueAlphaBeta(PileDePlis pile, int noCurrentPlayeur, int deepth, int maxDeepth, float globalSum, int cartesJouees, int main, float alpha, float beta, Couleur atout) {
+        Plis plis = pile.courant();
 
         // Si le pli est fini
-        if (plis.getIndex() == Game.NB_PLAYERS) {
-            modele = new Plis(); // Nouveau pli
-
-            // Si on gagne le plis
-            if (plis.getEquipe().equals(equipe))
-            {
-                localSum += plis.getValue();
-                return maxValueAlphaBeta(modele, plis.getWinner(), deepth+1, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-            }
-            // Si non on le perds
-            else {
-                localSum -= plis.getValue();
-                return minValueAlphaBeta(modele, plis.getWinner(), deepth+1, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-            }
-        }
-        else modele = new Plis(plis);
+        if (plis.getIndex() == Game.NB_PLAYERS)
+            return finDePliAlphaBeta(pile, deepth, maxDeepth, globalSum, cartesJouees, main, alpha, beta, atout);
 
-        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(localSum, main);
+        if (terminalTest(cartesJouees) || deepth == maxDeepth) return utility(globalSum, main, atout);
 
-        // Liste de toutes les cartes possibles dans le plis
-        List<Carte> playable;
+        Joueur joueur = context.getJoueur(noCurrentPlayeur);
 
         // Si c'est le tour du joueur, on joue normalement
         if (noCurrentPlayeur == noPlayer) {
-            playable = Rules.playable(plis, noPlayer, main);
+            int playable = Rules.playableReduit(plis, noPlayer, main, cartesJouees, atout);
             float bestValeur = Float.NEGATIVE_INFINITY;
 
-            for (Carte carte : playable) {
-                Plis tmp = new Plis(modele);
-                tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
+            for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+                Carte carte = Carte.fromId(CardSet.first(reste));
 
-                cartesJouees.add(carte);
-                main.get(carte.getCouleur()).remove(carte);
-
-                float brancheValue = minValueAlphaBeta(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, localSum, cartesJouees, main, alpha, beta);
-  
-                cartesJouees.remove(carte);
-                main.get(carte.getCouleur()).add(carte);
+                pile.jouer(joueur, carte, atout);
+                float brancheValue = minValueAlphaBeta(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), CardSet.remove(main, carte), alpha, beta, atout);
+                pile.annuler();
 
                 bestValeur = Math.max(bestValeur, brancheValue);
 
@@ -520,22 +618,22 @@ public abstract class Bot extends Joueur {
         }
         // Sinon, on prend en compte les probabilités car c'est un joueur dont les cartes ne sont pas connues
         else {
-            playable = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees);
+            int possibles = Rules.successeur(plis, main, noCurrentPlayeur, cartesJouees, atout);
+            int vivantes = Rules.vivantes(plis, cartesJouees);
+            int playable = Rules.reduire(possibles, vivantes, atout);
 
             float expectedValue = 0f;
             float totalProba = 0f;
 
-            for (Carte carte : playable) {
-                Plis tmp = new Plis(modele);
-                tmp.addCard(Game.joueurs[noCurrentPlayeur], carte);
-
-                float proba = getProbability(noCurrentPlayeur, carte);
-                cartesJouees.add(carte);
+            for (int reste = playable; reste != 0; reste = CardSet.next(reste)) {
+                Carte carte = Carte.fromId(CardSet.first(reste));
 
+                float proba = probabiliteGroupe(noCurrentPlayeur, carte, possibles, playable, vivantes, atout);
                 totalProba += proba;
-                expectedValue += proba * minValueAlphaBeta(tmp, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, localSum, cartesJouees, main, alpha, beta);
 
-                cartesJouees.remove(carte);
+                pile.jouer(joueur, carte, atout);
+                expectedValue += proba * minValueAlphaBeta(pile, (noCurrentPlayeur + 1) % Game.NB_PLAYERS, deepth, maxDeepth, globalSum, CardSet.add(cartesJouees, carte), main, alpha, beta, atout);
+                pile.annuler();
 
                 // Calcul le cout réel la valeur pour
                 if ((expectedValue * proba) >= beta) break;
@@ -556,168 +654,472 @@ public abstract class Bot extends Joueur {
 
 
     /**
-     * Retourne la meilleure carte à jouer en faisant K simulations sampling + α–β.
+     * Retourne la meilleure carte à jouer en faisant K simulations sampling + α–β à profondeur fixe.
+     * Les K × M évaluations (simulation, coup de départ) sont réparties sur les threads du ForkJoinPool commun,
+     * chaque thread utilisant son propre état de recherche. Les scores sont ensuite réduits par coup sur le thread de jeu.
      */
-    protected Carte samplingMiniMaxAlphaBeta(Plis plis, int maxDepth, int K) {
-        // 1) L’ensemble des coups possibles pour ce joueur
-        List<Carte> coups = Rules.playable(plis, noPlayer, main);
-        int M = coups.size();
+    protected Carte samplingMiniMaxAlphaBeta(Plis plis, Couleur atout, int maxDepth, int K) {
+        // 1) L’ensemble des coups possibles pour ce joueur, au plus deux cartes par groupe de cartes équivalentes
+        int[] idCoups = idCoups(Rules.playableReduit(plis, noPlayer, main, context.getCartePlay(), atout));
+        int M = idCoups.length;
+
+        // 2) K distributions complètes de mains, reprises de la réserve ou tirées sur le thread de jeu
+        ouvrirReserve(context.getCartePlay());
+        int[] donnes = sampleCompleteDeals(K);
 
-        // 2) cumuler les scores sur toutes les simulations
+        // 3) évaluation de chaque coup sur chaque distribution, sans échéance
         double[] cumul = new double[M];
+        int[] nbDonnes = new int[M];
+        evaluerDonnes(plis, atout, idCoups, donnes, K, maxDepth, false, ++noDecision, Long.MAX_VALUE, cumul, nbDonnes);
+
+        // 4) on choisit le coup de meilleure moyenne
+        return meilleurCoup(idCoups, cumul, nbDonnes);
+    }
+
+
+    /**
+     * Retourne la meilleure carte à jouer en un temps limité, par sampling + α–β.
+     *
+     * 1) Approfondissement itératif : un premier lot de distributions est évalué à la profondeur 1, 2, ...
+     *    tant que la moitié du budget n'est pas consommée ; seule la dernière profondeur terminée est retenue.
+     * 2) Le temps restant sert à ajouter des distributions à cette profondeur jusqu'à l'échéance.
+     * Le meilleur coup trouvé jusque là est toujours retourné, même si l'échéance coupe une évaluation.
+     *
+     * @param budgetMs Le temps de réflexion en millisecondes.
+     */
+    protected Carte samplingMiniMaxAlphaBetaIteratif(Plis plis, Couleur atout, long budgetMs) {
+        long debut = System.nanoTime();
+        long echeance = debut + budgetMs * 1_000_000L;
 
-        // copie initiale des cartes déjà jouées
-        Set<Carte> cartesJoueesBase = Game.cartePlay.values().stream()
-            .flatMap(List::stream).collect(Collectors.toSet());
+        int cartesJoueesBase = context.getCartePlay();
 
-        for (int sim = 0; sim < K; sim++) {
-            // 3) tirage d’une distribution complète de mains
-            // Pour chaque joueur on lui tire une main
-            Map<Integer,Map<Couleur,List<Carte>>> mainsSim = sampleCompleteDeal(cartesJoueesBase);
+        // Au plus deux cartes par groupe de cartes équivalentes
+        int[] idCoups = idCoups(Rules.playableReduit(plis, noPlayer, main, cartesJoueesBase, atout));
+        int M = idCoups.length;
 
-            // 4) pour chaque coup de départ, on l’évalue
+        // Un seul coup possible : inutile de chercher
+        if (M == 1) return Carte.fromId(idCoups[0]);
+
+        // Peu de cartes restantes ou donne connue : résolution exacte
+        if (finDeDonneExacte(cartesJoueesBase)) return resoudreFinDeDonne(plis, atout, idCoups, reproductible ? Long.MAX_VALUE : echeance);
+        int profondeurMax = CardSet.size(main);   // Nombre de plis restant dans la donne
+
+        // Effort fixe : un seul lot de distributions à profondeur fixe, sans échéance
+        if (reproductible) return samplingMiniMaxAlphaBeta(plis, atout, Math.min(profondeurMax, PROFONDEUR_REPRODUCTIBLE), NB_DONNES_REPRODUCTIBLE);
+        int decision = ++noDecision;
+
+        // 1) approfondissement itératif sur un premier lot de distributions
+        ouvrirReserve(cartesJoueesBase);
+        int[] donnes = sampleCompleteDeals(NB_DONNES_INITIAL);
+        double[] cumul = new double[M];
+        int[] nbDonnes = new int[M];
+        int profondeur = 0;   // Dernière profondeur entièrement évaluée
+        Carte meilleur = Carte.fromId(idCoups[0]);   // Coup joué si aucune profondeur n'a pu être terminée
+
+        for (int d = 1; d <= profondeurMax; d++) {
+            double[] cumulD = new double[M];
+            int[] nbDonnesD = new int[M];
+
+            if (!evaluerDonnes(plis, atout, idCoups, donnes, NB_DONNES_INITIAL, d, false, decision, echeance, cumulD, nbDonnesD)) break;
+
+            cumul = cumulD;
+            nbDonnes = nbDonnesD;
+            profondeur = d;
+            meilleur = meilleurCoup(idCoups, cumul, nbDonnes);
+
+            // La profondeur suivante coûte au moins autant que toutes les précédentes
+            if (2 * (System.nanoTime() - debut) > echeance - debut) break;
+        }
+
+        // 2) on ajoute des distributions à la profondeur atteinte tant qu'il reste du temps
+        int taille = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        while (profondeur > 0 && System.nanoTime() < echeance) {
+            evaluerDonnes(plis, atout, idCoups, sampleCompleteDeals(taille), taille, profondeur, false, decision, echeance, cumul, nbDonnes);
+            meilleur = meilleurCoup(idCoups, cumul, nbDonnes);
+        }
+        return meilleur;
+    }
+
+
+    /**
+     * Évalue chaque coup de départ sur chaque distribution et cumule les scores par coup.
+     * Une tâche est créée par couple (distribution, coup) et exécutée sur le ForkJoinPool commun,
+     * ou sur le thread de jeu en mode reproductible : les tables de transposition de chaque thread
+     * rendraient sinon le résultat dépendant de l'ordonnancement.
+     * Une distribution n'est comptée que si tous ses coups ont été évalués avant l'échéance.
+     *
+     * @param donnes   Les distributions à la suite : la distribution i occupe donnes[i * NB_PLAYERS .. (i + 1) * NB_PLAYERS[.
+     * @param nbDonnes Le nombre de distributions.
+     * @param exact    Si vrai, chaque coup est évalué par le solveur exact et maxDepth est ignoré.
+     * @param decision Numéro de la décision en cours, pour vieillir les tables de transposition.
+     * @param echeance Date limite (System.nanoTime) au delà de laquelle les recherches sont abandonnées.
+     * @param cumul    Somme des scores de chaque coup, complétée par la méthode.
+     * @param compte   Nombre de distributions comptées dans cumul pour chaque coup, complété par la méthode.
+     * @return true si toutes les distributions ont été évaluées avant l'échéance.
+     */
+    private boolean evaluerDonnes(Plis plis, Couleur atout, int[] idCoups, int[] donnes, int nbDonnes, int maxDepth, boolean exact, int decision, long echeance, double[] cumul, int[] compte) {
+        int M = idCoups.length;
+        final int cartesJoueesBase = context.getCartePlay();
+        List<Callable<Float>> taches = new ArrayList<>(nbDonnes * M);
+
+        for (int sim = 0; sim < nbDonnes; sim++) {
+            final int offset = sim * Game.NB_PLAYERS;
             for (int i = 0; i < M; i++) {
-                Carte coup0 = coups.get(i);
-
-                // clone du pli et du set de cartes jouées
-                Plis p0 = new Plis(plis);
-                p0.addCard(Game.joueurs[noPlayer], coup0);
-                cartesJoueesBase.add(coup0);
-
-                // retire la carte de la main simulée du bot
-                Map<Couleur,List<Carte>> mainBotSim = mainsSim.get(noPlayer);
-                mainBotSim.get(coup0.getCouleur()).remove(coup0);
-   
-                // 5) on lance l’alpha‑beta pur à partir du joueur suivant
-                float v = pureAlphaBeta(
-                    p0,
-                    (noPlayer + 1) % Game.NB_PLAYERS,
-                    0,              // depth
-                    maxDepth,
-                    0f,             // somme cumulée
-                    cartesJoueesBase,
-                    mainsSim,
-                    Float.NEGATIVE_INFINITY,
-                    Float.POSITIVE_INFINITY
-                );
-                cumul[i] += v;
-
-                cartesJoueesBase.remove(coup0);
-                // remettre la carte dans la main simulée
-                mainBotSim.get(coup0.getCouleur()).add(coup0);
+                final Carte coup0 = Carte.fromId(idCoups[i]);
+                taches.add(() -> evaluerCoup(plis, donnes, offset, coup0, cartesJoueesBase, maxDepth, exact, atout, decision, echeance));
             }
         }
 
-        // 6) on calcule la moyenne et on choisit le meilleur coup
-        double bestAvg = Double.NEGATIVE_INFINITY;
-        Carte meilleur = null;
+        boolean complet = true;
+        float[] scores = new float[M];
 
-        for (int i = 0; i < M; i++) {
-            double avg = cumul[i] / K;
+        try {
+            List<Future<Float>> resultats = reproductible ? executerSurCeThread(taches) : ForkJoinPool.commonPool().invokeAll(taches);
 
-            if (avg > bestAvg) {
-                bestAvg = avg;
-                meilleur = coups.get(i);
+            // Réduction sur le thread de jeu, dans l'ordre des tâches
+            for (int sim = 0; sim < nbDonnes; sim++) {
+                boolean donneComplete = true;
+
+                for (int i = 0; i < M; i++) {
+                    scores[i] = resultats.get(sim * M + i).get();
+                    if (Float.isNaN(scores[i])) donneComplete = false;
+                }
+                if (!donneComplete) { complet = false; continue; }
+
+                for (int i = 0; i < M; i++) {
+                    cumul[i] += scores[i];
+                    compte[i]++;
+                }
             }
         }
-        return meilleur;
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recherche interrompue", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant une simulation", e.getCause());
+        }
+        return complet;
     }
 
 
     /**
-     * Échantillonne une main complètes cohérentes avec les cartes déjà jouées et les proba.
-     * @return map playerIndex -> main simulée (Map<Couleur,List<Carte>>)
+     * Évalue un coup de départ sur une distribution simulée par l’alpha‑beta pur.
+     * Exécutée sur un thread de calcul : seul l’état de recherche du thread est modifié.
+     *
+     * @return La valeur du coup, ou NaN si l'échéance a été atteinte avant la fin de la recherche.
      */
-    private Map<Integer,Map<Couleur,List<Carte>>> sampleCompleteDeal(
-        Set<Carte> cartesJouees
-    ) {
+    private float evaluerCoup(Plis plis, int[] donnes, int offset, Carte coup0, int cartesJoueesBase, int maxDepth, boolean exact, Couleur atout, int decision, long echeance) {
+        EtatRecherche etat = etatDuThread(decision);
+        etat.echeance = echeance;
+
+        // Échéance déjà atteinte : la tâche n'est pas commencée
+        if (System.nanoTime() > echeance) return Float.NaN;
+
+        // copie de la distribution, la carte jouée est retirée de la main simulée du bot
+        int[] mains = etat.mains;
+        System.arraycopy(donnes, offset, mains, 0, Game.NB_PLAYERS);
+        mains[noPlayer] = CardSet.remove(mains[noPlayer], coup0);
 
-        // 1) initialise pour chaque joueur une copie vide
-        Map<Integer,Map<Couleur,List<Carte>>> res = new HashMap<>();
+        // joue le coup dans le pli
+        etat.pile.init(plis);
+        etat.pile.jouer(this, coup0, atout);
 
-        for (int p = 0; p < Game.NB_PLAYERS; p++) {
-            // Crée une nouvelle map vide avec une liste vide pour chaque couleur
-            Map<Couleur, List<Carte>> emptyHand = new HashMap<>();
+        int suivant = (noPlayer + 1) % Game.NB_PLAYERS;
 
-            for (Couleur couleur : main.keySet())
-                emptyHand.put(couleur, new ArrayList<>());
+        // fin de donne : points exacts de l'équipe donnés par le solveur à cartes ouvertes
+        if (exact) {
+            if (etat.solveur == null) etat.solveur = new SolveurCartesOuvertes(context);
+            etat.solveur.setHeuristiques(heuristiques);
 
-            res.put(p, emptyHand);
+            int points = etat.solveur.resoudre(etat.pile.courant(), suivant, mains, atout, noPlayer, echeance);
+            return points == SolveurCartesOuvertes.INTERROMPU ? Float.NaN : points;
         }
 
-        // 2) le bot reçoit sa main réelle
-        res.get(noPlayer).clear();
-        res.get(noPlayer).putAll(copyMain());
+        // sinon on lance l’alpha‑beta pur à partir du joueur suivant
+        try {
+            return pureAlphaBeta(
+                etat.pile,
+                suivant,
+                0,              // depth
+                maxDepth,
+                0f,             // somme cumulée
+                CardSet.add(cartesJoueesBase, coup0),
+                mains,
+                Float.NEGATIVE_INFINITY,
+                Float.POSITIVE_INFINITY,
+                atout,
+                etat,
+                TableDeTransposition.cle(mains, etat.pile.courant(), suivant, atout)
+            );
+        }
+        catch (RechercheInterrompue e) {
+            return Float.NaN;
+        }
+        finally {
+            etat.ordre.publier();
+        }
+    }
+
+
+    /**
+     * Indique si la fin de donne doit être résolue exactement :
+     * il reste peu de cartes en main, ou l'inférence a localisé toutes les cartes restantes.
+     */
+    private boolean finDeDonneExacte(int cartesJouees) {
+        return Carte.NB_CARTES - CardSet.size(cartesJouees) <= seuilSolveur || donneConnue(cartesJouees) != null;
+    }
 
-        // 3) collecte de toutes les cartes non encore jouées ni en main du bot
-        List<Carte> nonjouee = new ArrayList<>();
 
-        // Construit toutes les cartes encore jouable
-        for (Couleur coul : Couleur.values()) {
-            for (Type type : Type.values()) {
-                Carte carte = new Carte(coul, type);
+    /**
+     * Choisit la carte à jouer par résolution exacte de la fin de donne.
+     * Si la donne est connue elle est résolue une fois, sinon des distributions sont tirées
+     * et résolues jusqu'à l'échéance, et le coup de meilleure moyenne est retenu.
+     */
+    private Carte resoudreFinDeDonne(Plis plis, Couleur atout, int[] idCoups, long echeance) {
+        int M = idCoups.length;
+        int cartesJouees = context.getCartePlay();
+        int decision = ++noDecision;
 
-                if (!Game.cartePlay.get(carte.getCouleur()).contains(carte) && !main.get(carte.getCouleur()).contains(carte))
-                    nonjouee.add(carte);
+        double[] cumul = new double[M];
+        int[] nbDonnes = new int[M];
+
+        int[] connue = donneConnue(cartesJouees);
+        if (connue != null)
+            evaluerDonnes(plis, atout, idCoups, connue, 1, 0, true, decision, echeance, cumul, nbDonnes);
+        else {
+            int taille = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+            int n = reproductible ? NB_DONNES_REPRODUCTIBLE : NB_DONNES_INITIAL;
+            ouvrirReserve(cartesJouees);
+            int[] donnes = sampleCompleteDeals(n);
+
+            // En mode reproductible un seul lot est évalué
+            while (evaluerDonnes(plis, atout, idCoups, donnes, n, 0, true, decision, echeance, cumul, nbDonnes) && !reproductible && System.nanoTime() < echeance) {
+                n = taille;
+                donnes = sampleCompleteDeals(n);
             }
         }
+        return meilleurCoup(idCoups, cumul, nbDonnes);
+    }
 
-        // 4) tirage aléatoire pondéré pour affecter chaque carte aux joueurs adverses
-        //    en respectant Bot.cardsProbaPerPlayer.get(player).get(carte) comme poids
 
-        // Map du nombre de carte requis par joueur
-        Map<Integer, Integer> nbCardsRequired = new HashMap<>();
+    /**
+     * Retourne la donne complète si l'inférence a localisé chaque carte restante chez un seul adversaire,
+     * null sinon. Une seule donne est alors résolue : on ne s'y fie que si le jeu n'a jamais contredit
+     * les croyances de la donne (voir Croyances.estContredite et src.Tests.VerificationCroyances).
+     * @return tableau playerIndex -> main (CardSet), ou null
+     */
+    private int[] donneConnue(int cartesJouees) {
+        if (context.getCroyances().estContredite()) return null;
 
-        for (int i  = 0; i < Game.NB_PLAYERS; i++)
-            nbCardsRequired.put(i, Game.joueurs[i].main.values().stream().mapToInt(List::size).sum());
+        int[] res = new int[Game.NB_PLAYERS];
+        res[noPlayer] = main;
 
-        // Mélange des cartes à distribuer
-        Collections.shuffle(nonjouee);
+        for (int reste = CardSet.FULL & ~cartesJouees & ~main; reste != 0; reste = CardSet.next(reste)) {
+            Carte carte = Carte.fromId(CardSet.first(reste));
+            int detenteur = -1;
 
-        // Liste des joueurs éligibles (pas encore remplis)
-        List<Integer> eligibles = new ArrayList<>();
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                if (p == noPlayer || getProbability(p, carte) <= 0f) continue;
+                if (detenteur != -1) return null;   // Au moins deux détenteurs possibles
+                detenteur = p;
+            }
+            if (detenteur == -1) return null;
+            res[detenteur] = CardSet.add(res[detenteur], carte);
+        }
 
-        // Pour tout joueur différent de bot et pas full
-        for (int i = 0; i < Game.NB_PLAYERS; i++)
-            if ((i != noPlayer) && (nbCardsRequired.get(i) > 0)) eligibles.add(i);
+        // La répartition doit correspondre au nombre de cartes de chaque joueur
+        for (int p = 0; p < Game.NB_PLAYERS; p++)
+            if (CardSet.size(res[p]) != CardSet.size(context.getJoueur(p).getMain())) return null;
+
+        return res;
+    }
 
-        for (Carte c : nonjouee) {
-            // Tirage pondéré restreint aux joueurs éligibles
-            int tirage = weightedRandomAmong(eligibles, c);
 
-            // Ajout de la carte
-            res.get(tirage).get(c.getCouleur()).add(c);
-            nbCardsRequired.put(tirage, nbCardsRequired.get(tirage) - 1);
+    // Exécute les tâches une à une sur le thread courant, dans l'ordre
+    private static <T> List<Future<T>> executerSurCeThread(List<Callable<T>> taches) {
+        List<Future<T>> res = new ArrayList<>(taches.size());
 
-            if (nbCardsRequired.get(tirage) <= 0)
-                eligibles.remove(Integer.valueOf(tirage));
+        for (Callable<T> tache : taches) {
+            FutureTask<T> future = new FutureTask<>(tache);
+            future.run();
+            res.add(future);
         }
         return res;
     }
 
 
+    // Retourne les identifiants des cartes d'un CardSet, dans l'ordre croissant
+    private static int[] idCoups(int coups) {
+        int[] res = new int[CardSet.size(coups)];
+        int i = 0;
+
+        for (int reste = coups; reste != 0; reste = CardSet.next(reste)) res[i++] = CardSet.first(reste);
+
+        return res;
+    }
+
+
+    // Retourne le coup de meilleure moyenne, le premier coup si aucune distribution n'a été comptée
+    private static Carte meilleurCoup(int[] idCoups, double[] cumul, int[] nbDonnes) {
+        double bestAvg = Double.NEGATIVE_INFINITY;
+        Carte meilleur = Carte.fromId(idCoups[0]);
+
+        for (int i = 0; i < idCoups.length; i++) {
+            if (nbDonnes[i] == 0) continue;
+            double avg = cumul[i] / nbDonnes[i];
+
+            if (avg > bestAvg) {
+                bestAvg = avg;
+                meilleur = Carte.fromId(idCoups[i]);
+            }
+        }
+        return meilleur;
+    }
+
+
+    /**
+     * Retourne l'état de recherche du thread courant, attribué à ce bot.
+     * Un seul état par thread : la mémoire ne dépend pas du nombre de bots qui font chercher le thread,
+     * mais la table de transposition est vidée quand il passe d'un bot à l'autre, ses valeurs étant comptées
+     * du point de vue de l'équipe du bot.
+     */
+    private EtatRecherche etatDuThread(int decision) {
+        EtatRecherche etat = etats.get();
+
+        if (etat.proprietaire != this) etat.attribuer(this);
+
+        // Nouvelle décision : les entrées des décisions précédentes deviennent remplaçables
+        if (etat.decision != decision) {
+            etat.decision = decision;
+            etat.table.nouvelleRecherche();
+            etat.ordre.nouvelleRecherche();
+            etat.ordre.setHeuristiques(heuristiques);
+        }
+        return etat;
+    }
+
+
+    /**
+     * État de recherche propre à un thread de calcul : pile de plis, table de transposition et mains simulées.
+     * Il reste attaché au dernier bot qui l'a utilisé jusqu'à ce qu'un autre le reprenne.
+     */
+    private static class EtatRecherche {
+        Bot proprietaire = null;   // Bot dont la recherche utilise l'état
+        GameContext context = null;
+        PileDePlis pile = null;
+        final TableDeTransposition table = new TableDeTransposition(TAILLE_TABLE_PAR_THREAD);
+        final OrdreDesCoups ordre = new OrdreDesCoups();
+        final int[] mains = new int[Game.NB_PLAYERS];
+        SolveurCartesOuvertes solveur;   // Créé à la première résolution exacte
+        int decision = 0;   // Numéro de la dernière décision traitée par ce thread
+        long echeance = Long.MAX_VALUE;   // Date limite de la recherche en cours (System.nanoTime)
+        int noeuds = 0;     // Compteur de noeuds, pour ne consulter l'horloge que de temps en temps
+
+        // Passe l'état à un autre bot : rien de ce qui a été mémorisé pour le précédent n'est réutilisé
+        void attribuer(Bot bot) {
+            if (bot.context != context) {
+                context = bot.context;
+                pile = new PileDePlis(context);
+                if (solveur != null) solveur.changerContexte(context);
+            }
+            proprietaire = bot;
+            decision = 0;
+            table.vider();
+            ordre.vider();
+        }
+    }
+
+
+    /**
+     * Levée pour abandonner une recherche dont l'échéance est dépassée.
+     * Une seule instance, sans trace d'appel, est utilisée pour que l'abandon ne coûte rien.
+     */
+    private static final class RechercheInterrompue extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RechercheInterrompue() {
+            super("Échéance de la recherche dépassée", null, false, false);
+        }
+    }
+
+    private static final RechercheInterrompue INTERRUPTION = new RechercheInterrompue();
+
+
+    /**
+     * Prépare le tirage des distributions d'une nouvelle décision : l'échantillonneur est mis à jour,
+     * les distributions de la réserve qui contredisent les cartes jouées ou l'inférence sont écartées
+     * et les autres sont repondérées selon les nouvelles croyances.
+     */
+    private void ouvrirReserve(int cartesJouees) {
+        preparerEchantillonneur(echantillonneur, cartesJouees);
+        reserve.filtrer(echantillonneur, aleatoire);
+    }
+
+
+    /**
+     * Retourne n distributions complètes de mains, cohérentes avec les cartes déjà jouées et l'inférence,
+     * et pas encore utilisées pour la décision en cours (voir ouvrirReserve) : celles de la réserve d'abord,
+     * puis des distributions tirées par l'échantillonneur.
+     * Les distributions sont écrites à la suite dans un tampon du bot, réutilisé au tirage suivant.
+     * @return tampon : la distribution i occupe [i * NB_PLAYERS .. (i + 1) * NB_PLAYERS[ (playerIndex -> main simulée)
+     */
+    private int[] sampleCompleteDeals(int n) {
+        if (lotDonnes.length < n * Game.NB_PLAYERS) lotDonnes = new int[n * Game.NB_PLAYERS];
+
+        reserve.prendre(lotDonnes, n, echantillonneur, aleatoire);
+
+        return lotDonnes;
+    }
+
+
+    /**
+     * Prépare un échantillonneur à tirer les mains cachées pour ce bot, d'après les croyances du contexte.
+     */
+    protected void preparerEchantillonneur(EchantillonneurDonnes e, int cartesJouees) {
+        int[] nbCartes = new int[Game.NB_PLAYERS];
+
+        for (int i = 0; i < Game.NB_PLAYERS; i++)
+            nbCartes[i] = CardSet.size(context.getJoueur(i).getMain());
+
+        e.preparer(context.getCroyances(), noPlayer, main, cartesJouees, nbCartes);
+    }
+
+
     /**
      * Minimax + alpha‑beta pur sur jeu complet.
+     * Les coups sont joués et annulés sur la pile de plis, les mains sont modifiées puis restaurées sur place.
+     * Les positions déjà rencontrées sont retrouvées dans la table de transposition grâce à leur clé de Zobrist.
      */
     private float pureAlphaBeta(
-        Plis plis,
+        PileDePlis pile,
         int currentPlayer,
         int depth,
         int maxDepth,
         float sumSoFar,
-        Set<Carte> cartesJouees,
-        Map<Integer,Map<Couleur,List<Carte>>> mains,
+        int cartesJouees,
+        int[] mains,
         float alpha,
-        float beta
+        float beta,
+        Couleur atout,
+        EtatRecherche etat,
+        long cle
     ) {
+        // Consulte l'horloge tous les 1024 noeuds et abandonne si l'échéance est dépassée
+        if ((++etat.noeuds & 0x3FF) == 0 && System.nanoTime() > etat.echeance) throw INTERRUPTION;
+
+        Plis plis = pile.courant();
 
         // 1) fin de pli
         if (plis.getIndex() == Game.NB_PLAYERS) {
             int winner = plis.getWinner();
             float delta = (plis.getEquipe().equals(equipe) ? +plis.getValue() : -plis.getValue());
+            // le joueur dont c'est le tour est celui qui a ouvert le pli
+            long cleSuivante = TableDeTransposition.finDePli(cle, plis, currentPlayer, winner);
 
-            return pureAlphaBeta(
-                new Plis(),
+            pile.ouvrirPli();
+            float res = pureAlphaBeta(
+                pile,
                 winner,
                 depth+1,
                 maxDepth,
@@ -725,83 +1127,106 @@ public abstract class Bot extends Joueur {
                 cartesJouees,
                 mains,
                 alpha,
-                beta
+                beta,
+                atout,
+                etat,
+                cleSuivante
             );
+            pile.fermerPli();
+            return res;
         }
 
         // 2) terminal / profondeur max
         if (depth == maxDepth || terminalTest(cartesJouees))
-            return utility(sumSoFar, mains.get(noPlayer));
-
-        boolean isMaxNode = (currentPlayer == noPlayer || currentPlayer == (noPlayer+2) % Game.NB_PLAYERS);
-        List<Carte> coups = Rules.playable(plis, currentPlayer, mains.get(currentPlayer));
+            return utility(sumSoFar, mains[noPlayer], atout);
 
-        if (isMaxNode) {
-            float best = Float.NEGATIVE_INFINITY;
+        // 3) table de transposition : les valeurs y sont stockées sans les points déjà accumulés
+        int profondeurRestante = maxDepth - depth;
+        int coupTable = TableDeTransposition.AUCUN_COUP;
+        TableDeTransposition table = etat.table;
+        int entree = table.chercher(cle);
 
-            for (Carte c : coups) {
-                Plis next = new Plis(plis);
-                next.addCard(Game.joueurs[currentPlayer], c);
+        if (entree >= 0) {
+            coupTable = table.coup(entree);
 
-                cartesJouees.add(c);
+            if (table.profondeur(entree) >= profondeurRestante) {
+                float v = table.valeur(entree) + sumSoFar;
 
-                // retire de la main
-                Map<Couleur,List<Carte>> mainP = mains.get(currentPlayer);
-                mainP.get(c.getCouleur()).remove(c);
+                switch (table.borne(entree)) {
+                    case TableDeTransposition.EXACTE: return v;
+                    case TableDeTransposition.INFERIEURE: alpha = Math.max(alpha, v); break;
+                    default: beta = Math.min(beta, v); break;
+                }
+                if (alpha >= beta) return v;
+            }
+        }
 
-                best = Math.max(best, pureAlphaBeta(
-                    next,
-                    (currentPlayer + 1) % Game.NB_PLAYERS,
-                    depth,
-                    maxDepth,
-                    sumSoFar,
-                    cartesJouees,
-                    mains,
-                    alpha,
-                    beta
-                ));
+        boolean isMaxNode = (currentPlayer == noPlayer || currentPlayer == (noPlayer+2) % Game.NB_PLAYERS);
+        int mainP = mains[currentPlayer];
+        int coups = Rules.playableReduit(plis, currentPlayer, mainP, cartesJouees, atout);
+        Joueur joueur = context.getJoueur(currentPlayer);
+        int suivant = (currentPlayer + 1) % Game.NB_PLAYERS;
+
+        float best = isMaxNode ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        int meilleurCoup = TableDeTransposition.AUCUN_COUP;
+        float alphaRecherche = alpha, betaRecherche = beta;
+
+        // ordre des coups : coup de la table, cartes qui prennent la main, killers puis historique
+        int niveau = CardSet.size(cartesJouees);
+        int nbCoups = CardSet.size(coups);
+        int[] ordre = etat.ordre.trier(coups, plis, coupTable, niveau, atout);
+
+        for (int k = 0; k < nbCoups; k++) {
+            int id = ordre[k];
+            Carte c = Carte.fromId(id);
+
+            // joue la carte et la retire de la main
+            pile.jouer(joueur, c, atout);
+            mains[currentPlayer] = CardSet.remove(mainP, c);
+
+            float v = pureAlphaBeta(
+                pile,
+                suivant,
+                depth,
+                maxDepth,
+                sumSoFar,
+                CardSet.add(cartesJouees, c),
+                mains,
+                alpha,
+                beta,
+                atout,
+                etat,
+                TableDeTransposition.jouer(cle, currentPlayer, c)
+            );
 
-                // restore
-                mainP.get(c.getCouleur()).add(c);
-                cartesJouees.remove(c);
+            // restore
+            mains[currentPlayer] = mainP;
+            pile.annuler();
 
+            if (isMaxNode) {
+                if (v > best || meilleurCoup == TableDeTransposition.AUCUN_COUP) { best = v; meilleurCoup = id; }
                 alpha = Math.max(alpha, best);
-
-                if (alpha >= beta) break;
             }
-            return best;
-        }
-        else {
-            float best = Float.POSITIVE_INFINITY;
-
-            for (Carte c : coups) {
-                Plis next = new Plis(plis);
-                next.addCard(Game.joueurs[currentPlayer], c);
-
-                cartesJouees.add(c);
-
-                Map<Couleur,List<Carte>> mainP = mains.get(currentPlayer);
-                mainP.get(c.getCouleur()).remove(c);
-
-                best = Math.min(best, pureAlphaBeta(
-                    next,
-                    (currentPlayer + 1) % Game.NB_PLAYERS,
-                    depth,
-                    maxDepth,
-                    sumSoFar,
-                    cartesJouees,
-                    mains,
-                    alpha,
-                    beta
-                ));
-                mainP.get(c.getCouleur()).add(c);
-                cartesJouees.remove(c);
-
+            else {
+                if (v < best || meilleurCoup == TableDeTransposition.AUCUN_COUP) { best = v; meilleurCoup = id; }
                 beta = Math.min(beta, best);
-                if (beta <= alpha) break;
             }
-            return best;
+            if (alpha >= beta) {
+                etat.ordre.coupure(niveau, k, profondeurRestante);
+                break;
+            }
         }
+
+        // 4) enregistrement du résultat avec le type de borne obtenu
+        if (meilleurCoup != TableDeTransposition.AUCUN_COUP) {
+            int borne;
+            if (best <= alphaRecherche) borne = TableDeTransposition.SUPERIEURE;
+            else if (best >= betaRecherche) borne = TableDeTransposition.INFERIEURE;
+            else borne = TableDeTransposition.EXACTE;
+
+            table.enregistrer(cle, profondeurRestante, borne, best - sumSoFar, meilleurCoup);
+        }
+        return best;
     }
 
     
@@ -812,18 +1237,17 @@ public abstract class Bot extends Joueur {
      */
 
     // Test terminal : si toutes les cartes ont été jouées (par exemple, dans un jeu à 32 cartes)
-    private boolean terminalTest(Set<Carte> cartesJouees) {
-        //System.out.println("terminal test: "+cartesJouees.size());
-        return cartesJouees.size() == 32;
+    private boolean terminalTest(int cartesJouees) {
+        return CardSet.size(cartesJouees) == Carte.NB_CARTES;
     }
 
 
     // Notation des états
     // la valeur du jeu + le nombre de pts accumulé, la valeur du jeu est null si on est dans le cas terminal
-    protected float utility(float globalSum, Map<Couleur, List<Carte>> mainTmp) {
+    protected float utility(float globalSum, int mainTmp, Couleur atout) {
         // Calcul le score de la main
-        float mainScore = calculerScoreAtout(mainTmp) +
-        calculerScoreMaitresses(mainTmp) +
+        float mainScore = calculerScoreAtout(mainTmp, atout) +
+        calculerScoreMaitresses(mainTmp, atout) +
         calculerBonusLongueEtCoupe(mainTmp);
 
         //System.out.println("le score de la main est de: "+mainScore);
@@ -833,62 +1257,21 @@ public abstract class Bot extends Joueur {
     }
 
 
-    private HashMap<Couleur, List<Carte>> copyMain()
-    {
-        // Copie complète de main avant les modifications
-        HashMap<Couleur, List<Carte>> mainTmp = new HashMap<>(main.entrySet().stream()
-        .collect(Collectors.toMap(
-            Map.Entry::getKey,
-            e -> new ArrayList<>(e.getValue()) // Copie indépendante de chaque liste
-        )));
-
-        return mainTmp;
+    private float getProbability(int player, Carte carte) {
+        return context.getCroyances().get(player, carte.getId());
     }
 
 
-    /**
-     * Choisit aléatoirement un joueur (!= noPlayer) selon la proba que chaque
-     * adversaire détienne la carte `carte`, d’après
-     * cardsProbaPerPlayer : Map<playerIndex, Map<Couleur, Map<Carte,Float>>>
-     */
-    private int weightedRandomAmong(List<Integer> among, Carte carte) {
-        final Random RNG = new Random();
-    
-        // 1) Calcule un poids pour chaque joueur de la liste among
-        Map<Integer, Float> poids = new HashMap<>();
-        float somme = 0f;
-    
-        for (int p : among) {
-            float w = getProbability(p, carte); // ta fonction existante
-            poids.put(p, w);
-            somme += w;
-        }
-    
-        // 2) Tirage pondéré parmi les "among"
-        float r = RNG.nextFloat() * somme;
-        float cumul = 0f;
-    
-        for (int p : among) {
-            cumul += poids.get(p);
-            if (r <= cumul) return p;
-        }
-    
-        // 3) Sécurité : retourne un joueur valide au hasard dans "among"
-        return among.get(RNG.nextInt(among.size()));
-    }
-    
-
+    // Probabilité qu'un joueur joue la carte ou l'une des cartes équivalentes qu'elle représente (voir Rules.reduire)
+    private float probabiliteGroupe(int player, Carte carte, int possibles, int reduits, int vivantes, Couleur atout) {
+        float proba = 0f;
 
-    private float getProbability(int player, Carte carte) {
-        Map<Couleur, Map<Carte, Float>> probaParCouleur = cardsProbaPerPlayer.get(player);
+        for (int reste = Rules.representees(carte.getId(), possibles, reduits, vivantes, atout); reste != 0; reste = CardSet.next(reste))
+            proba += getProbability(player, Carte.fromId(CardSet.first(reste)));
 
-        if (probaParCouleur != null) {
-            Map<Carte, Float> probaCarte = probaParCouleur.getOrDefault(carte.getCouleur(), Collections.emptyMap());
-            return probaCarte.getOrDefault(carte, 0f);
-        }
-        return 0f;
+        return proba;
     }
-    
+
 
 
     /**************************************************************************************************
@@ -901,129 +1284,72 @@ public abstract class Bot extends Joueur {
     // argument 1 le plis avant que le joueur ne joue
     // argument 2 la carte joué par le joueur
     public static void inference(Plis before, Carte carte, Joueur j) {
+        GameContext context = j.getContext();
+        Couleur atout = context.getColorAtout();
         Carte asked = before.getPlis()[0];
 
+        // Le joueur n'aurait pas dû pouvoir posséder cette carte : les certitudes de la matrice sont fausses
+        if (!context.getCroyances().estPossible(j.noPlayer, carte.getId())) context.getCroyances().signalerContradiction();
+
         // Si le joueur est le 1er a jouer on ne déduis rien des règles
         if (asked != null) {
+            Carte maitresse = before.getPowerfullCard();
+            boolean sousMaitresse = Classement.compare(maitresse, carte, atout) > 0;   // La carte ne prend pas la main
+
             // Si le joueur ne joue pas la couleur demandé c'est qu'il n'en a pas
-            if (! asked.getCouleur().equals(carte.getCouleur())) {
-                removeAllCardsOfColor(asked.getCouleur(), j.noPlayer);
+            if (asked.getCouleur() != carte.getCouleur()) {
+                removeAllCardsOfColor(context, asked.getCouleur(), j.noPlayer);
 
-                // Si le joueur coupe
-                if (carte.getCouleur().getIsAtout())
-                    // Si il sous coupe -> il a pas mieux que l'atout demandé
-                    if (before.getPowerfullCard().compareTo(carte) > 0)
-                        cuteHigherCards(asked, j.noPlayer);
+                // Si son partenaire a le pli il pouvait jouer n'importe quelle carte, sinon il devait couper
+                if (asked.getCouleur() != atout && !before.isForPlayer(j)) {
+                    // Si le joueur ne coupe pas -> pas d'atout
+                    if (carte.getCouleur() != atout) removeAllCardsOfColor(context, atout, j.noPlayer);
 
-                // Si le joueur ne coupe pas et n'a pas le pli -> pas d'atout en plus
-                else if (!before.isForPlayer(j)) removeAllCardsOfColor(colorAtout, j.noPlayer);
+                    // Si il sous coupe -> il a pas mieux que l'atout maître
+                    else if (sousMaitresse) cuteHigherCards(context, maitresse, j.noPlayer, atout);
+                }
             }
+            // Si l'atout est demandé et qu'il ne monte pas -> il a pas mieux que l'atout maître
+            else if (carte.getCouleur() == atout && sousMaitresse) cuteHigherCards(context, maitresse, j.noPlayer, atout);
         }
         // On enlève la proba de jouer la carte qui vient d'etre joué de tout les joueurs
-        for (int i = 0; i < Game.NB_PLAYERS; i++) {
-            Map<Couleur, Map<Carte, Float>> proba = cardsProbaPerPlayer.get(i);
-            if (proba != null)
-                proba.getOrDefault(carte.getCouleur(), Collections.emptyMap()).remove(carte);
-        }
+        context.getCroyances().retirerCarte(carte.getId());
     }
 
 
     // Enlève toutes les cartes d'une couleur pour un jouer donné
-    private static void removeAllCardsOfColor(Couleur couleur, int noPlayer) {
-        Map<Couleur, Map<Carte, Float>> proba = cardsProbaPerPlayer.get(noPlayer);
-
-        if (proba != null) {
-            Map<Carte, Float> cartes = proba.get(couleur);
-            if (cartes != null) {
-                // Crée une copie de l'ensemble des clés
-                List<Carte> copieCartes = new ArrayList<>(cartes.keySet());
-                for (Carte c : copieCartes) distributeProba(c, noPlayer);
-            }
-        }        
-        // On coupe la map de cette couleur pour le joueur noPlayer car il n'en a plus
-        cardsProbaPerPlayer.get(noPlayer).remove(couleur);
-    }
-
+    private static void removeAllCardsOfColor(GameContext context, Couleur couleur, int noPlayer) {
+        Croyances croyances = context.getCroyances();
 
-    // Pour une couleur et un joueur données:
-    // enlève les carte qui sont au dessus d'une certaine carte
-    // Dans le proba d'un joueur donné
-    private static void cuteHigherCards(Carte asked, int noPlayer) {
-        Map<Carte, Float> cards = cardsProbaPerPlayer.get(noPlayer).get(asked.getCouleur());
-
-        if (cards == null) return;
-
-        for (Type t : Type.values()) {
-            Carte c = new Carte(asked.getCouleur(), t);
-            if (asked.compareTo(c) <= 0) distributeProba(c, noPlayer);
-        }
+        // Chaque carte encore possible de la couleur est répartie entre les autres joueurs
+        for (int reste = CardSet.ofSuit(croyances.getPossibles(noPlayer), couleur); reste != 0; reste = CardSet.next(reste))
+            croyances.redistribuer(noPlayer, CardSet.first(reste));
     }
 
 
-    // On enlève une carte du jeu d'un joueur et on distribut cette proba équitablement
-    // Avec les joueurs qui ont encore des chances d'avoir cette carte
-    private static void distributeProba(Carte carte, int noPlayer) {
-        // On doit répartir les proba avec les autres joueurs !
-        // 1. Récupère la proba de la carte à enlever
-        Float cardProba = cardsProbaPerPlayer.get(noPlayer).get(carte.getCouleur()).get(carte);
-
-        // 2. Calcul la proba a add à chaque joueur qui possède cette carte
-        Float additionalProba = cardProba / nbPossibleCardHowner(carte, noPlayer);
-
-        // 3. On l'ajoute a chaque carte joueur
-        for (int i = 0; i < Game.NB_PLAYERS; i++) {
-            if (i != noPlayer) {
-                Map<Couleur, Map<Carte, Float>> proba = cardsProbaPerPlayer.get(i);
-
-                if (proba != null) {
-                    Map<Carte, Float> probaColor = proba.get(carte.getCouleur());
-
-                    if (probaColor != null) {
-                        Float initialProba = probaColor.get(carte);
-                        if (initialProba != null)
-                            probaColor.put(carte, initialProba+additionalProba);
-                    }
-                }
-            }
-        }
-        // Enlève la carte dans les proba du joueur qui vient de la jouer
-        cardsProbaPerPlayer.get(noPlayer).get(carte.getCouleur()).remove(carte);
-    }
-
-
-    // Donne le nombre de joueur qui on encore une proba d'avoir la carte
-       private static int nbPossibleCardHowner(Carte carte, int noPlayer) {
-        int cpt = 0;
+    // Pour un joueur donné:
+    // enlève les cartes de la couleur d'une carte qui sont au dessus de celle-ci
+    // Dans le proba d'un joueur donné
+    private static void cuteHigherCards(GameContext context, Carte limite, int noPlayer, Couleur atout) {
+        Croyances croyances = context.getCroyances();
 
-        for (int i = 0; i < Game.NB_PLAYERS; i++) {
-            if (i != noPlayer) {
-                Map<Couleur, Map<Carte, Float>> proba = cardsProbaPerPlayer.get(i);
-                if (proba != null) {
-                    Map<Carte, Float> probaColor = proba.get(carte.getCouleur());
-                    if ((probaColor != null) && (probaColor.get(carte) != null)) cpt++;
-                }
-            }
+        for (int reste = CardSet.ofSuit(croyances.getPossibles(noPlayer), limite.getCouleur()); reste != 0; reste = CardSet.next(reste)) {
+            Carte c = Carte.fromId(CardSet.first(reste));
+            if (Classement.compare(limite, c, atout) <= 0) croyances.redistribuer(noPlayer, c.getId());
         }
-        return cpt;
     }
 
 
     // Le joueur noPlayerAPris à pris à l'atout et possède donc la carte du milieu
     // Les autres joueurs ne peuvent plus la posséder
-    public static void onAtoutSet(Carte carte, int noPlayerAPris) {
+    public static void onAtoutSet(GameContext context, Carte carte, int noPlayerAPris) {
+        Croyances croyances = context.getCroyances();
+
         // On marque que ce joueur à forcement la carte du milieu
-        cardsProbaPerPlayer.get(noPlayerAPris).get(carte.getCouleur()).put(carte, 1f);
+        croyances.set(noPlayerAPris, carte.getId(), 1f);
 
         // Et on enlève la carte du milieu aux autres joueurs
-        for (int i = 0; i < Game.NB_PLAYERS; i++) {
-            if (i != noPlayerAPris) {
-                Map<Couleur, Map<Carte, Float>> proba = cardsProbaPerPlayer.get(i);
-                if (proba != null) {
-                    Map<Carte, Float> probaColor = proba.get(carte.getCouleur());
-                    if ((probaColor != null) && (probaColor.get(carte) != null))
-                        probaColor.remove(carte);
-                }
-            }
-        }
+        for (int i = 0; i < Game.NB_PLAYERS; i++)
+            if (i != noPlayerAPris) croyances.retirer(i, carte.getId());
     }
-}
\ No newline at end of file
+}
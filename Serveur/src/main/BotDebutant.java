@@ -2,6 +2,7 @@ package src.main;
 
 
 import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
 
 
 
@@ -9,22 +10,23 @@ import src.main.Paquet.Carte;
  * Classe représentant un bot débutant.
  */
 class BotDebutant extends Bot {
+    public static final long BUDGET_MS = 50;   // Temps de réflexion par carte, en millisecondes
 
 
     public BotDebutant(String nom) {
-        super(nom);
+        super(nom, BUDGET_MS);
     }
 
 
     @Override
     public Paquet.Carte jouer(Plis plis) {
-        final int DEEPTH = 1;   // Profondeur dans l'arbre de recherche en plis
+        Couleur atout = getColorAtout();  // Atout de la donne en cours
 
         // L'IA donne une carte
-        Carte carte = exceptedMiniMax(plis, DEEPTH);
+        Carte carte = exceptedMiniMaxIteratif(plis, atout, budgetMs);
 
         // L'ajoute dans le plis
-        plis.addCard(this, carte);
+        plis.addCard(this, carte, atout);
 
         // L'enlève de la main
         removeCarte(carte);
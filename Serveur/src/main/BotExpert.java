@@ -1,6 +1,7 @@
 package src.main;
 
 import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
 
 
 
@@ -8,22 +9,22 @@ import src.main.Paquet.Carte;
  * Classe représentant un bot expert.
  */
 class BotExpert extends Bot {
+    public static final long BUDGET_MS = 1000;   // Temps de réflexion par carte, en millisecondes
+
     public BotExpert(String nom) {
-        super(nom);
+        super(nom, BUDGET_MS);
+        enchereMonteCarlo = true;   // Parle en simulant des donnes
     }
 
     @Override
     public Paquet.Carte jouer(Plis plis) {
-        final int DEEPTH = 4;   // Profondeur dans l'arbre de recherche en plis
-
-        //System.out.println("\nJeu du bot Débutant: "+ main);
-        //System.out.println("\n"+getNom() + " (Débutant) joue, il a le choix avec "+ Rules.playable(plis, this));
+        Couleur atout = getColorAtout();  // Atout de la donne en cours
 
         // L'IA donne une carte
-        Carte carte = samplingMiniMaxAlphaBeta(plis, DEEPTH, 10);
+        Carte carte = samplingMiniMaxAlphaBetaIteratif(plis, atout, budgetMs);
 
         // L'ajoute dans le plis
-        plis.addCard(this, carte);
+        plis.addCard(this, carte, atout);
 
         // L'enlève de la main
         removeCarte(carte);
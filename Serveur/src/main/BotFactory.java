@@ -20,6 +20,7 @@ public class BotFactory {
         BOT_OF.put("débutant", BotDebutant::new);
         BOT_OF.put("intermédiaire", BotMoyen::new);
         BOT_OF.put("expert", BotExpert::new);
+        BOT_OF.put("ismcts", BotISMCTS::new);
     }
 
 
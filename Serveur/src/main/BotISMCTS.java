@@ -0,0 +1,289 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+
+/**
+ * Classe représentant un bot jouant par Information Set Monte Carlo Tree Search (SO-ISMCTS).
+ *
+ * À chaque itération, une distribution des cartes cachées est tirée selon les probabilités du contexte
+ * (déterminisation), l'arbre est descendu en ne considérant que les coups légaux dans cette distribution
+ * (Rules.playable), un noeud est ajouté, puis la donne est terminée au hasard et les points obtenus sont remontés.
+ *
+ * La recherche est parallélisée à la racine : chaque thread construit son propre arbre,
+ * et les visites des coups de la racine sont additionnées à la fin.
+ * En mode reproductible, un seul arbre est construit sur le thread de jeu avec exactement nbPlayouts itérations.
+ */
+class BotISMCTS extends Bot {
+    public static final long BUDGET_MS = 1000;        // Temps de réflexion par carte, en millisecondes
+    public static final int NB_PLAYOUTS = 200_000;    // Nombre maximal de parties simulées par carte, tous threads confondus
+    private static final double EXPLORATION = 0.7;    // Constante d'exploration de UCB
+
+    private int nbPlayouts = NB_PLAYOUTS;
+
+
+
+    public BotISMCTS(String nom) {
+        super(nom, BUDGET_MS);
+    }
+
+
+    @Override
+    public Paquet.Carte jouer(Plis plis) {
+        Couleur atout = getColorAtout();  // Atout de la donne en cours
+
+        // L'IA donne une carte
+        Carte carte = ismcts(plis, atout);
+
+        // L'ajoute dans le plis
+        plis.addCard(this, carte, atout);
+
+        // L'enlève de la main
+        removeCarte(carte);
+
+        return carte;
+    }
+
+
+    public int getNbPlayouts() {
+        return nbPlayouts;
+    }
+
+
+    public void setNbPlayouts(int nbPlayouts) {
+        this.nbPlayouts = nbPlayouts;
+    }
+
+
+    /**
+     * Choisit la carte la plus visitée après une recherche ISMCTS parallélisée à la racine.
+     */
+    private Carte ismcts(Plis plis, Couleur atout) {
+        int coups = Rules.playable(plis, noPlayer, main, atout);
+
+        // Un seul coup possible : inutile de chercher
+        if (CardSet.size(coups) == 1) return Carte.fromId(CardSet.first(coups));
+
+        int cartesJouees = context.getCartePlay();
+
+        // Effort fixe : un seul arbre, sans échéance
+        if (reproductible) return meilleurCoup(coups, new Recherche(plis, atout, aleatoire.split()).lancer(cartesJouees, nbPlayouts, Long.MAX_VALUE));
+
+        long echeance = System.nanoTime() + budgetMs * 1_000_000L;
+        int nbThreads = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int playoutsParThread = Math.max(1, nbPlayouts / nbThreads);
+
+        // Un arbre par thread, chacun avec un générateur dérivé de celui du bot
+        List<Callable<long[]>> taches = new ArrayList<>(nbThreads);
+        for (int t = 0; t < nbThreads; t++) {
+            SplittableRandom rng = aleatoire.split();
+            taches.add(() -> new Recherche(plis, atout, rng).lancer(cartesJouees, playoutsParThread, echeance));
+        }
+
+        // Somme des visites de chaque coup de la racine
+        long[] visites = new long[Carte.NB_CARTES];
+        try {
+            for (Future<long[]> resultat : ForkJoinPool.commonPool().invokeAll(taches)) {
+                long[] v = resultat.get();
+                for (int id = 0; id < Carte.NB_CARTES; id++) visites[id] += v[id];
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recherche interrompue", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant une simulation", e.getCause());
+        }
+        return meilleurCoup(coups, visites);
+    }
+
+
+    // Retourne le coup le plus visité
+    private static Carte meilleurCoup(int coups, long[] visites) {
+        int meilleur = CardSet.first(coups);
+        for (int reste = coups; reste != 0; reste = CardSet.next(reste)) {
+            int id = CardSet.first(reste);
+            if (visites[id] > visites[meilleur]) meilleur = id;
+        }
+        return Carte.fromId(meilleur);
+    }
+
+
+    /**
+     * Noeud de l'arbre : un coup joué par un joueur, avec ses statistiques.
+     */
+    private static final class Noeud {
+        final int carte;            // Identifiant de la carte jouée pour arriver à ce noeud (-1 pour la racine)
+        final int joueur;           // Joueur qui a joué la carte
+        final Noeud[] enfants = new Noeud[Carte.NB_CARTES];   // Enfants indexés par identifiant de carte
+        int masqueEnfants = CardSet.EMPTY;   // Cartes qui ont déjà un enfant
+        int visites = 0;
+        int disponibilite = 0;      // Nombre de fois où le coup était légal lors d'une sélection
+        double recompense = 0;      // Somme des récompenses du point de vue du joueur
+
+        Noeud(int carte, int joueur) {
+            this.carte = carte;
+            this.joueur = joueur;
+        }
+
+        double ucb() {
+            return recompense / visites + EXPLORATION * Math.sqrt(Math.log(disponibilite) / visites);
+        }
+    }
+
+
+    /**
+     * Recherche menée par un thread : son arbre, sa pile de plis, ses mains simulées et son générateur aléatoire.
+     */
+    private final class Recherche {
+        private final Plis plis;
+        private final Couleur atout;
+        private final PileDePlis pile = new PileDePlis(context);
+        private final int[] mains = new int[Game.NB_PLAYERS];
+        private final int[] points = new int[2];   // Points gagnés par chaque équipe (indice = joueur % 2)
+        private final Noeud[] chemin = new Noeud[Carte.NB_CARTES + 1];
+        private final SplittableRandom random;
+        private final EchantillonneurDonnes echantillonneur = new EchantillonneurDonnes();
+        private int joueur;   // Joueur qui doit jouer dans la simulation
+        private boolean termine;   // Vrai une fois le dernier pli ramassé par finDePli
+        private int pointsEnJeu;   // Points restant à gagner depuis la racine, dix de der compris
+
+
+
+        Recherche(Plis plis, Couleur atout, SplittableRandom random) {
+            this.plis = plis;
+            this.atout = atout;
+            this.random = random;
+        }
+
+
+        /**
+         * Lance les itérations jusqu'à l'échéance ou jusqu'au nombre de parties demandé.
+         * @return Nombre de visites de chaque coup de la racine, indexé par identifiant de carte.
+         */
+        long[] lancer(int cartesJouees, int nbIterations, long echeance) {
+            Noeud racine = new Noeud(-1, -1);
+            preparerEchantillonneur(echantillonneur, cartesJouees);
+
+            // Les cartes du pli en cours sont déjà jouées mais pas encore ramassées
+            int restantes = ~cartesJouees;
+            for (int i = 0; i < plis.getIndex(); i++) restantes |= CardSet.bit(plis.getPlis()[i].getId());
+            pointsEnJeu = CardSet.points(restantes, atout) + SolveurCartesOuvertes.DIX_DE_DER;
+
+            for (int it = 0; it < nbIterations && System.nanoTime() < echeance; it++)
+                iteration(racine);
+
+            long[] visites = new long[Carte.NB_CARTES];
+            for (int reste = racine.masqueEnfants; reste != 0; reste = CardSet.next(reste)) {
+                int id = CardSet.first(reste);
+                visites[id] = racine.enfants[id].visites;
+            }
+            return visites;
+        }
+
+
+        private void iteration(Noeud racine) {
+            // 1) déterminisation selon les probabilités du contexte
+            echantillonneur.tirer(mains, 0, random);
+            pile.init(plis);
+            points[0] = points[1] = 0;
+            joueur = noPlayer;
+            termine = false;
+
+            // 2) sélection et expansion
+            Noeud noeud = racine;
+            int profondeur = 0;
+            chemin[profondeur++] = racine;
+
+            while (!finDePli()) {
+                int legaux = Rules.playable(pile.courant(), joueur, mains[joueur], atout);
+
+                // Les enfants légaux dans cette déterminisation étaient disponibles
+                for (int reste = legaux & noeud.masqueEnfants; reste != 0; reste = CardSet.next(reste))
+                    noeud.enfants[CardSet.first(reste)].disponibilite++;
+
+                int nonExplores = legaux & ~noeud.masqueEnfants;
+                if (nonExplores != CardSet.EMPTY) {
+                    // Expansion d'un coup jamais essayé
+                    int id = CardSet.nth(nonExplores, random.nextInt(CardSet.size(nonExplores)));
+                    Noeud enfant = new Noeud(id, joueur);
+                    enfant.disponibilite = 1;
+                    noeud.enfants[id] = enfant;
+                    noeud.masqueEnfants |= CardSet.bit(id);
+
+                    jouer(id);
+                    chemin[profondeur++] = enfant;
+                    break;
+                }
+
+                // Sélection de l'enfant légal de meilleur UCB
+                Noeud meilleur = null;
+                for (int reste = legaux; reste != 0; reste = CardSet.next(reste)) {
+                    Noeud enfant = noeud.enfants[CardSet.first(reste)];
+                    if (meilleur == null || enfant.ucb() > meilleur.ucb()) meilleur = enfant;
+                }
+                jouer(meilleur.carte);
+                chemin[profondeur++] = meilleur;
+                noeud = meilleur;
+            }
+
+            // 3) fin de la donne au hasard, si la sélection ne l'a pas déjà atteinte : le dernier pli est ramassé une fois
+            while (!termine && !finDePli()) {
+                int legaux = Rules.playable(pile.courant(), joueur, mains[joueur], atout);
+                jouer(CardSet.nth(legaux, random.nextInt(CardSet.size(legaux))));
+            }
+
+            // 4) rétropropagation : part des points restants gagnée par l'équipe du joueur de chaque noeud
+            int total = points[0] + points[1];
+            if (total != pointsEnJeu)
+                throw new IllegalStateException("Simulation à " + total + " points au lieu de " + pointsEnJeu);
+            for (int i = 1; i < profondeur; i++) {
+                Noeud n = chemin[i];
+                n.visites++;
+                n.recompense += total > 0 ? (double) points[n.joueur % 2] / total : 0.5;
+            }
+        }
+
+
+        private void jouer(int id) {
+            Carte carte = Carte.fromId(id);
+            pile.jouer(context.getJoueur(joueur), carte, atout);
+            mains[joueur] = CardSet.remove(mains[joueur], carte);
+            joueur = (joueur + 1) % Game.NB_PLAYERS;
+        }
+
+
+        /**
+         * Ramasse le pli courant s'il est complet. Le dernier pli ne doit être ramassé qu'une fois (voir termine).
+         * @return true si la donne est terminée.
+         */
+        private boolean finDePli() {
+            Plis courant = pile.courant();
+            if (courant.getIndex() < Game.NB_PLAYERS) return false;
+
+            int gagnant = courant.getWinner();
+            boolean dernier = (mains[0] | mains[1] | mains[2] | mains[3]) == CardSet.EMPTY;
+
+            points[gagnant % 2] += courant.getValue() + (dernier ? SolveurCartesOuvertes.DIX_DE_DER : 0);
+            if (dernier) {
+                termine = true;
+                return true;
+            }
+
+            pile.ouvrirPli();
+            joueur = gagnant;
+            return false;
+        }
+    }
+}
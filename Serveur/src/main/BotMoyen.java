@@ -1,6 +1,7 @@
 package src.main;
 
 import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
 
 
 
@@ -8,20 +9,22 @@ import src.main.Paquet.Carte;
  * Classe représentant un bot intermédiaire.
  */
 class BotMoyen extends Bot {
+    public static final long BUDGET_MS = 200;   // Temps de réflexion par carte, en millisecondes
+
     public BotMoyen(String nom) {
-        super(nom);
+        super(nom, BUDGET_MS);
     }
 
 
     @Override
     public Paquet.Carte jouer(Plis plis) {
-        final int DEEPTH = 2;   // Profondeur dans l'arbre de recherche en nombre de plis
+        Couleur atout = getColorAtout();  // Atout de la donne en cours
 
         // L'IA donne une carte
-        Carte carte = samplingMiniMaxAlphaBeta(plis, DEEPTH, 10);
+        Carte carte = samplingMiniMaxAlphaBetaIteratif(plis, atout, budgetMs);
 
         // L'ajoute dans le plis
-        plis.addCard(this, carte);
+        plis.addCard(this, carte, atout);
 
         // L'enlève de la main
         removeCarte(carte);
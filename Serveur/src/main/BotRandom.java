@@ -1,9 +1,7 @@
 package src.main;
 
 import src.main.Paquet.Carte;
-
-import java.util.List;
-import java.util.Random;
+import src.main.Paquet.Carte.Couleur;
 
 
 
@@ -12,23 +10,23 @@ import java.util.Random;
  */
 class BotRandom extends Bot {
     public BotRandom(String nom) {
-        super(nom);
+        super(nom, 0);   // Joue au hasard, sans temps de réflexion
     }
 
 
     @Override
     public Paquet.Carte jouer(Plis plis) {
 
-        List<Carte> possible = Rules.playable(plis, noPlayer, main);
+        Couleur atout = getColorAtout();  // Atout de la donne en cours
+        int possible = Rules.playable(plis, noPlayer, main, atout);
 
-        Random random = new Random();
-        int index = random.nextInt(possible.size()); // Génère un index aléatoire dans la taille de la liste
-        Carte carte = possible.get(index); // Récupère la carte à cet index
+        int index = aleatoire.nextInt(CardSet.size(possible)); // Génère un index aléatoire dans la taille de l'ensemble
+        Carte carte = Carte.fromId(CardSet.nth(possible, index)); // Récupère la carte à cet index
 
         System.out.println("carte joué: "+carte);
 
         // L'ajoute dans le plis
-        plis.addCard(this, carte);
+        plis.addCard(this, carte, atout);
 
         // L'enlève de la main
         removeCarte(carte);
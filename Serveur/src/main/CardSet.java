@@ -0,0 +1,227 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * Ensemble de cartes représenté par un masque de 32 bits : le bit i est à 1 si la carte d'identifiant i
+ * (voir {@link Carte#getId()}) appartient à l'ensemble.
+ * Les 8 cartes d'une couleur occupent un octet, ce qui rend les filtres par couleur immédiats.
+ *
+ * La classe ne contient que des méthodes statiques opérant sur des int, aucune allocation n'est faite
+ * dans les opérations de base. Pour parcourir un ensemble :
+ * <pre>
+ *     for (int reste = set; reste != 0; reste = CardSet.next(reste)) {
+ *         int id = CardSet.first(reste);
+ *         ...
+ *     }
+ * </pre>
+ */
+public final class CardSet {
+    public static final int EMPTY = 0;    // Ensemble vide
+    public static final int FULL = -1;    // Les 32 cartes du jeu
+
+    private static final int NB_TYPES = Carte.Type.values().length;
+    private static final int SUIT_MASK = (1 << NB_TYPES) - 1;   // Masque d'un octet
+
+
+
+    private CardSet() {}
+
+
+    /**
+     * Retourne le singleton contenant la carte d'identifiant id.
+     */
+    public static int bit(int id) {
+        return 1 << id;
+    }
+
+
+    /**
+     * Retourne le singleton contenant la carte.
+     */
+    public static int of(Carte carte) {
+        return 1 << carte.getId();
+    }
+
+
+    public static int add(int set, Carte carte) {
+        return set | (1 << carte.getId());
+    }
+
+
+    public static int remove(int set, Carte carte) {
+        return set & ~(1 << carte.getId());
+    }
+
+
+    public static boolean contains(int set, Carte carte) {
+        return (set & (1 << carte.getId())) != 0;
+    }
+
+
+    public static boolean containsId(int set, int id) {
+        return (set & (1 << id)) != 0;
+    }
+
+
+    public static boolean isEmpty(int set) {
+        return set == EMPTY;
+    }
+
+
+    /**
+     * Retourne le nombre de cartes de l'ensemble.
+     */
+    public static int size(int set) {
+        return Integer.bitCount(set);
+    }
+
+
+    /**
+     * Retourne le masque de toutes les cartes d'une couleur.
+     */
+    public static int suit(Couleur couleur) {
+        return SUIT_MASK << (couleur.ordinal() * NB_TYPES);
+    }
+
+
+    /**
+     * Retourne les cartes de l'ensemble qui sont de la couleur donnée.
+     */
+    public static int ofSuit(int set, Couleur couleur) {
+        return set & suit(couleur);
+    }
+
+
+    /**
+     * Retourne l'identifiant de la première carte de l'ensemble (plus petit identifiant), -1 si l'ensemble est vide.
+     */
+    public static int first(int set) {
+        return set == EMPTY ? -1 : Integer.numberOfTrailingZeros(set);
+    }
+
+
+    /**
+     * Retourne l'ensemble privé de sa première carte.
+     */
+    public static int next(int set) {
+        return set & (set - 1);
+    }
+
+
+    /**
+     * Retourne l'identifiant de la n-ième carte de l'ensemble (n commence à 0), -1 si n est hors de l'ensemble.
+     */
+    public static int nth(int set, int n) {
+        for (int reste = set; reste != 0; reste = next(reste))
+            if (n-- == 0) return first(reste);
+
+        return -1;
+    }
+
+
+    /**
+     * Retourne l'identifiant de la carte la plus faible d'une couleur dans l'ensemble, sachant l'atout.
+     *
+     * @return L'identifiant de la carte, ou -1 si l'ensemble ne contient pas cette couleur.
+     */
+    public static int lowest(int set, Couleur couleur, Couleur atout) {
+        int[] rang = Classement.rangRow(atout);
+        int res = -1;
+
+        for (int reste = ofSuit(set, couleur); reste != 0; reste = next(reste)) {
+            int id = first(reste);
+            if (res == -1 || rang[id] < rang[res]) res = id;
+        }
+        return res;
+    }
+
+
+    /**
+     * Retourne l'identifiant de la carte la plus forte d'une couleur dans l'ensemble, sachant l'atout.
+     *
+     * @return L'identifiant de la carte, ou -1 si l'ensemble ne contient pas cette couleur.
+     */
+    public static int highest(int set, Couleur couleur, Couleur atout) {
+        int[] rang = Classement.rangRow(atout);
+        int res = -1;
+
+        for (int reste = ofSuit(set, couleur); reste != 0; reste = next(reste)) {
+            int id = first(reste);
+            if (res == -1 || rang[id] > rang[res]) res = id;
+        }
+        return res;
+    }
+
+
+    /**
+     * Retourne les cartes de l'ensemble de la même couleur que la carte donnée et de rang supérieur, sachant l'atout.
+     */
+    public static int above(int set, Carte carte, Couleur atout) {
+        int[] rang = Classement.rangRow(atout);
+        int res = EMPTY;
+
+        for (int reste = ofSuit(set, carte.getCouleur()); reste != 0; reste = next(reste)) {
+            int id = first(reste);
+            if (rang[id] > rang[carte.getId()]) res |= bit(id);
+        }
+        return res;
+    }
+
+
+    /**
+     * Retourne la somme des points des cartes de l'ensemble, sachant l'atout.
+     */
+    public static int points(int set, Couleur atout) {
+        int[] points = Classement.pointsRow(atout);
+        int sum = 0;
+
+        for (int reste = set; reste != 0; reste = next(reste)) sum += points[first(reste)];
+
+        return sum;
+    }
+
+
+    /**
+     * Retourne les cartes de l'ensemble sous forme de liste, dans l'ordre des identifiants.
+     */
+    public static List<Carte> toList(int set) {
+        List<Carte> res = new ArrayList<>(size(set));
+
+        for (int reste = set; reste != 0; reste = next(reste)) res.add(Carte.fromId(first(reste)));
+
+        return res;
+    }
+
+
+    /**
+     * Retourne les cartes de l'ensemble rangées par couleur, chaque couleur étant triée par ordre croissant sachant l'atout.
+     * Toutes les couleurs sont présentes dans la map, éventuellement avec une liste vide.
+     */
+    public static Map<Couleur, List<Carte>> toMap(int set, Couleur atout) {
+        Map<Couleur, List<Carte>> res = new EnumMap<>(Couleur.class);
+
+        for (Couleur couleur : Couleur.values()) {
+            List<Carte> cartes = toList(ofSuit(set, couleur));
+            cartes.sort(Classement.comparateur(atout));
+            res.put(couleur, cartes);
+        }
+        return res;
+    }
+
+
+    /**
+     * Retourne une représentation lisible de l'ensemble, par exemple "[SEPTDeCOEUR, ASDeCOEUR]".
+     */
+    public static String toString(int set) {
+        return toList(set).toString();
+    }
+}
@@ -0,0 +1,163 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+import src.main.Paquet.Carte.Type;
+
+import java.util.Comparator;
+
+
+
+/**
+ * Tables précalculées donnant, pour chaque carte et chaque atout possible,
+ * son rang dans sa couleur, son nombre de points et sa force pour remporter un pli.
+ * Les tables sont indexées par [indice de l'atout][identifiant de la carte] :
+ * l'indice de l'atout est l'ordinal de la couleur, ou SANS_ATOUT si aucun atout n'est défini.
+ */
+public final class Classement {
+    public static final int SANS_ATOUT = Couleur.values().length;   // Indice utilisé quand l'atout est null
+    private static final int NB_ATOUTS = SANS_ATOUT + 1;
+
+    // Ordre croissant des types à l'atout : 7, 8, D, R, 10, A, 9, V
+    private static final Type[] ORDRE_ATOUT = {
+        Type.SEPT, Type.HUIT, Type.DAME, Type.ROI, Type.DIX, Type.AS, Type.NEUF, Type.VALET
+    };
+
+    private static final int[][] RANG = new int[NB_ATOUTS][Carte.NB_CARTES];    // Rang de la carte dans sa couleur (0 à 7)
+    private static final int[][] POINTS = new int[NB_ATOUTS][Carte.NB_CARTES];  // Valeur en points de la carte
+    private static final int[][] FORCE = new int[NB_ATOUTS][Carte.NB_CARTES];   // Ordre de prise : un atout est toujours au dessus
+    // Identifiants des cartes de chaque couleur, rangés par rang croissant : [atout][couleur][rang]
+    private static final int[][][] ORDRE = new int[NB_ATOUTS][Couleur.values().length][Type.values().length];
+
+    // Comparateurs par atout, créés une fois pour toutes
+    private static final Comparator<Carte>[] COMPARATEURS;
+
+    static {
+        int nbTypes = Type.values().length;
+
+        for (int a = 0; a < NB_ATOUTS; a++) {
+            for (Couleur c : Couleur.values()) {
+                boolean estAtout = c.ordinal() == a;
+
+                for (Type t : Type.values()) {
+                    int id = Carte.idOf(c, t);
+
+                    int rang = t.ordinal();
+                    int points = t.getValue();
+
+                    if (estAtout) {
+                        for (int r = 0; r < ORDRE_ATOUT.length; r++)
+                            if (ORDRE_ATOUT[r] == t) rang = r;
+
+                        if (t == Type.VALET) points = 20;  // Le valet d'atout vaut 20 points
+                        else if (t == Type.NEUF) points = 14;  // Le neuf d'atout vaut 14 points
+                    }
+                    RANG[a][id] = rang;
+                    ORDRE[a][c.ordinal()][rang] = id;
+                    POINTS[a][id] = points;
+                    FORCE[a][id] = estAtout ? nbTypes + rang : rang;
+                }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Comparator<Carte>[] comparateurs = new Comparator[NB_ATOUTS];
+        for (int a = 0; a < NB_ATOUTS; a++) {
+            final int[] force = FORCE[a];
+            comparateurs[a] = (c1, c2) -> force[c1.getId()] - force[c2.getId()];
+        }
+        COMPARATEURS = comparateurs;
+    }
+
+
+    private Classement() {}
+
+
+    /**
+     * Retourne l'indice de ligne des tables pour un atout donné.
+     *
+     * @param atout La couleur de l'atout, ou null si aucun atout n'est défini.
+     * @return L'ordinal de la couleur ou SANS_ATOUT.
+     */
+    public static int indexAtout(Couleur atout) {
+        return atout == null ? SANS_ATOUT : atout.ordinal();
+    }
+
+
+    /**
+     * Retourne le nombre de points de la carte sachant l'atout.
+     */
+    public static int points(Carte carte, Couleur atout) {
+        return POINTS[indexAtout(atout)][carte.getId()];
+    }
+
+
+    /**
+     * Retourne le rang (0 à 7) de la carte dans sa couleur sachant l'atout.
+     */
+    public static int rang(Carte carte, Couleur atout) {
+        return RANG[indexAtout(atout)][carte.getId()];
+    }
+
+
+    /**
+     * Retourne la force de la carte pour la prise d'un pli :
+     * un atout a toujours une force supérieure à une carte d'une autre couleur.
+     */
+    public static int force(Carte carte, Couleur atout) {
+        return FORCE[indexAtout(atout)][carte.getId()];
+    }
+
+
+    // Accès direct aux lignes pour les boucles de recherche
+    static int[] pointsRow(Couleur atout) {
+        return POINTS[indexAtout(atout)];
+    }
+
+    static int[] rangRow(Couleur atout) {
+        return RANG[indexAtout(atout)];
+    }
+
+    static int[] forceRow(Couleur atout) {
+        return FORCE[indexAtout(atout)];
+    }
+
+    // Identifiants des cartes d'une couleur par rang croissant
+    static int[] ordre(Couleur atout, Couleur couleur) {
+        return ORDRE[indexAtout(atout)][couleur.ordinal()];
+    }
+
+
+    /**
+     * Compare deux cartes selon leur force sachant l'atout.
+     *
+     * @return Un entier négatif, nul ou positif si c1 est plus faible, équivalente ou plus forte que c2.
+     */
+    public static int compare(Carte c1, Carte c2, Couleur atout) {
+        int[] force = FORCE[indexAtout(atout)];
+        return force[c1.getId()] - force[c2.getId()];
+    }
+
+
+    /**
+     * Indique si la carte jouée prend la main sur la carte maîtresse d'un pli.
+     * Elle doit être plus forte et soit de la même couleur, soit un atout.
+     *
+     * @param carte     La carte jouée.
+     * @param maitresse La carte actuellement maîtresse du pli.
+     * @param atout     La couleur de l'atout.
+     */
+    public static boolean bat(Carte carte, Carte maitresse, Couleur atout) {
+        int[] force = FORCE[indexAtout(atout)];
+        return (carte.getCouleur() == maitresse.getCouleur() || carte.getCouleur() == atout)
+            && force[carte.getId()] > force[maitresse.getId()];
+    }
+
+
+    /**
+     * Retourne le comparateur croissant des cartes pour un atout donné.
+     */
+    public static Comparator<Carte> comparateur(Couleur atout) {
+        return COMPARATEURS[indexAtout(atout)];
+    }
+}
@@ -0,0 +1,168 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+
+import java.util.Arrays;
+
+
+
+/**
+ * Matrice des probabilités qu'a chaque joueur de posséder chaque carte, utilisée par l'inférence des bots.
+ *
+ * Les probabilités sont rangées dans un tableau float[joueur][identifiant de carte], et les cartes qu'un joueur
+ * peut encore posséder dans un CardSet par joueur : une carte retirée a une probabilité nulle et n'est plus possible.
+ * Les lectures faites pendant les recherches ne coûtent donc qu'un accès à un tableau, et les boucles sur une ligne
+ * ou une colonne portent sur des tableaux primitifs contigus.
+ *
+ * La matrice est modifiée par le thread de jeu entre deux coups et lue par les recherches des bots.
+ */
+public class Croyances {
+    private final float[][] probas = new float[Game.NB_PLAYERS][Carte.NB_CARTES];
+    private final int[] possibles = new int[Game.NB_PLAYERS];   // Cartes que chaque joueur peut encore posséder (CardSet)
+    private boolean contredite = false;   // Une carte jouée n'était plus possible pour son joueur
+
+
+
+    /**
+     * Vide la matrice : plus aucune carte n'est possible.
+     */
+    public void vider() {
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            Arrays.fill(probas[p], 0f);
+            possibles[p] = CardSet.EMPTY;
+        }
+        contredite = false;
+    }
+
+
+    /**
+     * Rend toutes les cartes possibles pour tous les joueurs avec la même probabilité.
+     */
+    public void initialiser(float proba) {
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            Arrays.fill(probas[p], proba);
+            possibles[p] = CardSet.FULL;
+        }
+        contredite = false;
+    }
+
+
+    /**
+     * Signale que le jeu a contredit la matrice : un joueur a joué une carte qu'elle ne lui permettait plus
+     * (coup illégal d'un client, règle mal déduite...). Jusqu'à la prochaine initialisation, les probabilités nulles
+     * ne sont plus des certitudes.
+     */
+    public void signalerContradiction() {
+        contredite = true;
+    }
+
+
+    /**
+     * Retourne vrai si le jeu a contredit la matrice depuis son initialisation : ses probabilités nulles
+     * ne doivent plus être traitées comme des cartes impossibles.
+     */
+    public boolean estContredite() {
+        return contredite;
+    }
+
+
+    /**
+     * Retourne la probabilité qu'un joueur possède une carte, 0 si la carte n'est plus possible pour lui.
+     */
+    public float get(int joueur, int id) {
+        return probas[joueur][id];
+    }
+
+
+    /**
+     * Fixe la probabilité qu'un joueur possède une carte, la carte devient possible pour lui.
+     */
+    public void set(int joueur, int id, float proba) {
+        probas[joueur][id] = proba;
+        possibles[joueur] |= CardSet.bit(id);
+    }
+
+
+    /**
+     * Retourne les cartes qu'un joueur peut encore posséder (CardSet).
+     */
+    public int getPossibles(int joueur) {
+        return possibles[joueur];
+    }
+
+
+    public boolean estPossible(int joueur, int id) {
+        return CardSet.containsId(possibles[joueur], id);
+    }
+
+
+    /**
+     * Indique qu'un joueur ne peut plus posséder une carte.
+     */
+    public void retirer(int joueur, int id) {
+        probas[joueur][id] = 0f;
+        possibles[joueur] &= ~CardSet.bit(id);
+    }
+
+
+    /**
+     * Indique qu'aucun joueur ne peut plus posséder une carte (elle a été jouée).
+     */
+    public void retirerCarte(int id) {
+        for (int p = 0; p < Game.NB_PLAYERS; p++) retirer(p, id);
+    }
+
+
+    /**
+     * Retourne le nombre de joueurs, autres que sauf, qui peuvent encore posséder une carte.
+     */
+    public int nbDetenteursPossibles(int id, int sauf) {
+        int cpt = 0;
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++)
+            if (p != sauf && CardSet.containsId(possibles[p], id)) cpt++;
+
+        return cpt;
+    }
+
+
+    /**
+     * Retire une carte à un joueur et répartit sa probabilité à parts égales entre les autres détenteurs possibles.
+     */
+    public void redistribuer(int joueur, int id) {
+        float part = probas[joueur][id] / nbDetenteursPossibles(id, joueur);
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++)
+            if (p != joueur && CardSet.containsId(possibles[p], id)) probas[p][id] += part;
+
+        retirer(joueur, id);
+    }
+
+
+    /**
+     * Renormalise la colonne d'une carte : ses probabilités sur les détenteurs possibles somment à 1.
+     */
+    public void normaliserColonne(int id) {
+        float somme = 0f;
+        for (int p = 0; p < Game.NB_PLAYERS; p++) somme += probas[p][id];
+        if (somme <= 0f) return;
+
+        float facteur = 1f / somme;
+        for (int p = 0; p < Game.NB_PLAYERS; p++) probas[p][id] *= facteur;
+    }
+
+
+    /**
+     * Renormalise la ligne d'un joueur : ses probabilités somment au nombre de cartes qu'il a en main.
+     * Les cartes impossibles restent à 0, la boucle porte sur toute la ligne.
+     */
+    public void normaliserLigne(int joueur, int nbCartes) {
+        float[] ligne = probas[joueur];
+        float somme = 0f;
+        for (int id = 0; id < Carte.NB_CARTES; id++) somme += ligne[id];
+        if (somme <= 0f) return;
+
+        float facteur = nbCartes / somme;
+        for (int id = 0; id < Carte.NB_CARTES; id++) ligne[id] *= facteur;
+    }
+}
@@ -0,0 +1,69 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+
+
+/**
+ * Produit des paquets mélangés par lots, sous forme d'identifiants de cartes rangés dans un tableau de bytes :
+ * le paquet i occupe lot[i * NB_CARTES .. (i + 1) * NB_CARTES[, la carte du dessus en premier.
+ *
+ * Chaque paquet est une permutation uniforme des 32 cartes, obtenue en une passe (Fisher-Yates).
+ * Les lots sont remplis d'un coup quand le précédent est épuisé, puis les paquets sont servis un à un
+ * aux parties (voir Paquet.Mode.ALEATOIRE) : le mélange ne coûte qu'une copie de 32 cartes par donne.
+ *
+ * Un distributeur n'est utilisable que par un seul thread à la fois.
+ */
+public final class DistributeurDeDonnes {
+    public static final int TAILLE_LOT = 64;   // Nombre de paquets tirés à chaque remplissage
+
+    private final byte[] lot = new byte[TAILLE_LOT * Carte.NB_CARTES];
+    private final SplittableRandom aleatoire;
+    private int prochain = TAILLE_LOT;         // Prochain paquet à servir, TAILLE_LOT si le lot est épuisé
+
+
+
+    /**
+     * @param aleatoire Le générateur des paquets : à générateur identique, paquets identiques.
+     */
+    public DistributeurDeDonnes(SplittableRandom aleatoire) {
+        this.aleatoire = aleatoire;
+    }
+
+
+    /**
+     * Copie le prochain paquet dans paquet[offset .. offset + NB_CARTES[, en tirant un nouveau lot si besoin.
+     */
+    public void servir(byte[] paquet, int offset) {
+        if (prochain == TAILLE_LOT) {
+            tirerLot(lot, TAILLE_LOT, aleatoire);
+            prochain = 0;
+        }
+        System.arraycopy(lot, prochain++ * Carte.NB_CARTES, paquet, offset, Carte.NB_CARTES);
+    }
+
+
+    /**
+     * Tire nbPaquets paquets mélangés à la suite dans lot.
+     */
+    public static void tirerLot(byte[] lot, int nbPaquets, RandomGenerator rng) {
+        for (int i = 0; i < nbPaquets; i++) melanger(lot, i * Carte.NB_CARTES, rng);
+    }
+
+
+    /**
+     * Écrit une permutation uniforme des 32 identifiants de cartes dans paquet[offset .. offset + NB_CARTES[.
+     * Chaque carte est insérée à une position tirée parmi celles déjà remplies (Fisher-Yates "à l'envers"),
+     * ce qui évite d'initialiser le paquet avant de le mélanger.
+     */
+    public static void melanger(byte[] paquet, int offset, RandomGenerator rng) {
+        for (int i = 0; i < Carte.NB_CARTES; i++) {
+            int j = rng.nextInt(i + 1);
+            paquet[offset + i] = paquet[offset + j];
+            paquet[offset + j] = (byte) i;
+        }
+    }
+}
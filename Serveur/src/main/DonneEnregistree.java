@@ -0,0 +1,302 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+
+
+/**
+ * Enregistrement d'une donne sur 64 octets, écrit dans un JournalDesDonnes.
+ *
+ * Les cartes sont codées par leur identifiant sur 5 bits. Disposition (entiers en big-endian) :
+ *   0   graine de la partie (long)
+ *   8   numéro de la partie (long, voir Game.numero), clé des recherches dans le journal
+ *   16  numéro de la donne dans la partie (short)
+ *   18  donneur (bits 0-1), preneur (bits 2-3), tour de la prise (bits 4-5, 0 si personne ne prend), atout (bits 6-7)
+ *   19  nombre de cartes jouées
+ *   20  scores des équipes 0 et 1 après la donne (short)
+ *   24  21 cartes sur 14 octets : les 5 cartes distribuées à chaque joueur avant les enchères, par ordre croissant
+ *       d'identifiant et dans l'ordre des places, puis la carte du milieu
+ *   38  32 cartes sur 20 octets : les cartes jouées, dans l'ordre des plis
+ *   58  joueur qui entame chaque pli, 2 bits par pli (short) : les suivants jouent dans l'ordre des places
+ *   63  marqueur écrit en dernier : un emplacement sans marqueur n'a pas été écrit entièrement
+ *
+ * Les enchères ne sont pas stockées une à une : les joueurs parlent à partir du voisin du donneur et passent
+ * tous jusqu'au preneur, elles se déduisent donc du donneur, du tour de la prise et du preneur.
+ * La main complète d'un joueur est l'ensemble des cartes qu'il a jouées.
+ */
+public final class DonneEnregistree {
+    public static final int TAILLE = 64;    // Taille d'un enregistrement en octets
+    static final byte MARQUEUR = (byte) 0xB7;
+
+    private static final int NB_CARTES_MAIN = 5;
+    private static final int POSITION_NUMERO = 8;
+    private static final int POSITION_DONNE = 16;
+    private static final int POSITION_ENCHERE = 18;
+    private static final int POSITION_NB_JOUEES = 19;
+    private static final int POSITION_SCORES = 20;
+    private static final int DEBUT_DISTRIBUTION = 24;
+    private static final int DEBUT_JOUEES = 38;
+    private static final int POSITION_ENTAMES = 58;
+    private static final int POSITION_MARQUEUR = TAILLE - 1;
+    private static final Couleur[] COULEURS = Couleur.values();
+
+    private final byte[] octets = new byte[TAILLE];
+    private final ByteBuffer vue = ByteBuffer.wrap(octets);
+
+
+
+    /**
+     * Commence l'enregistrement d'une nouvelle donne, une fois les 5 premières cartes et la carte du milieu distribuées.
+     *
+     * @param mains Les 5 cartes de chaque joueur (CardSet), dans l'ordre des places.
+     */
+    public void commencer(long graine, long numero, int noDonne, int donneur, int[] mains, Carte milieu) {
+        vue.clear();
+        while (vue.hasRemaining()) vue.put((byte) 0);
+
+        vue.putLong(0, graine);
+        vue.putLong(POSITION_NUMERO, numero);
+        vue.putShort(POSITION_DONNE, (short) noDonne);
+        octets[POSITION_ENCHERE] = (byte) donneur;
+
+        int n = 0;
+        for (int joueur = 0; joueur < Game.NB_PLAYERS; joueur++) {
+            if (CardSet.size(mains[joueur]) != NB_CARTES_MAIN)
+                throw new IllegalArgumentException("Le joueur " + joueur + " doit avoir " + NB_CARTES_MAIN + " cartes");
+
+            for (int reste = mains[joueur]; reste != 0; reste = CardSet.next(reste))
+                ecrireId(DEBUT_DISTRIBUTION, n++, CardSet.first(reste));
+        }
+        ecrireId(DEBUT_DISTRIBUTION, n, milieu.getId());
+    }
+
+
+    /**
+     * Enregistre la prise d'un joueur.
+     *
+     * @param tour Le tour d'enchères (1 ou 2).
+     */
+    public void prise(int preneur, int tour, Couleur atout) {
+        octets[POSITION_ENCHERE] = (byte) (getDonneur() | preneur << 2 | tour << 4 | atout.ordinal() << 6);
+    }
+
+
+    /**
+     * Enregistre la carte suivante jouée dans la donne. Seul le joueur de la première carte d'un pli est gardé,
+     * les autres jouent à sa suite dans l'ordre des places.
+     */
+    public void jouer(int joueur, Carte carte) {
+        int i = getNbCartesJouees();
+
+        ecrireId(DEBUT_JOUEES, i, carte.getId());
+        if (i % Game.NB_PLAYERS == 0) {
+            int pli = i / Game.NB_PLAYERS;
+            vue.putShort(POSITION_ENTAMES, (short) (vue.getShort(POSITION_ENTAMES) | joueur << (2 * pli)));
+        }
+        octets[POSITION_NB_JOUEES] = (byte) (i + 1);
+    }
+
+
+    /**
+     * Termine l'enregistrement avec les scores des équipes après la donne.
+     */
+    public void terminer(int score0, int score1) {
+        vue.putShort(POSITION_SCORES, (short) score0);
+        vue.putShort(POSITION_SCORES + 2, (short) score1);
+    }
+
+
+    /**
+     * Écrit l'enregistrement à la position donnée, le marqueur en dernier : la barrière garantit qu'un thread
+     * qui voit le marqueur (voir estEcrite) voit aussi le reste de l'enregistrement.
+     */
+    void ecrire(ByteBuffer tampon, int position) {
+        tampon.put(position, octets, 0, POSITION_MARQUEUR);
+        VarHandle.releaseFence();
+        tampon.put(position + POSITION_MARQUEUR, MARQUEUR);
+    }
+
+
+    /**
+     * Lit l'enregistrement écrit à la position donnée.
+     *
+     * @return L'enregistrement, ou null si l'emplacement n'a pas été écrit entièrement.
+     */
+    static DonneEnregistree lire(ByteBuffer tampon, int position) {
+        if (!estEcrite(tampon, position)) return null;
+
+        DonneEnregistree donne = new DonneEnregistree();
+        tampon.get(position, donne.octets);
+        return donne;
+    }
+
+
+    /**
+     * Vérifie si l'enregistrement à la position donnée a été écrit entièrement, sans le copier.
+     * Les lectures qui suivent un résultat vrai voient l'enregistrement complet.
+     */
+    static boolean estEcrite(ByteBuffer tampon, int position) {
+        if (tampon.get(position + POSITION_MARQUEUR) != MARQUEUR) return false;
+
+        VarHandle.acquireFence();   // Associée à la barrière de ecrire
+        return true;
+    }
+
+
+    /**
+     * Lit le numéro de partie de l'enregistrement à la position donnée, sans le copier.
+     */
+    static long lireNumero(ByteBuffer tampon, int position) {
+        return tampon.getLong(position + POSITION_NUMERO);
+    }
+
+
+    public long getGraine() {
+        return vue.getLong(0);
+    }
+
+
+    /**
+     * Retourne le numéro de la partie (Game.numero).
+     */
+    public long getNumero() {
+        return vue.getLong(POSITION_NUMERO);
+    }
+
+
+    public int getNoDonne() {
+        return vue.getShort(POSITION_DONNE);
+    }
+
+
+    public int getDonneur() {
+        return octets[POSITION_ENCHERE] & 3;
+    }
+
+
+    /**
+     * Retourne le tour d'enchères de la prise (1 ou 2), 0 si personne n'a pris.
+     */
+    public int getTour() {
+        return octets[POSITION_ENCHERE] >> 4 & 3;
+    }
+
+
+    /**
+     * Retourne le joueur qui a pris, -1 si personne n'a pris.
+     */
+    public int getPreneur() {
+        return getTour() == 0 ? -1 : octets[POSITION_ENCHERE] >> 2 & 3;
+    }
+
+
+    /**
+     * Retourne l'atout de la donne, null si personne n'a pris.
+     */
+    public Couleur getAtout() {
+        return getTour() == 0 ? null : COULEURS[octets[POSITION_ENCHERE] >> 6 & 3];
+    }
+
+
+    /**
+     * Retourne ce qu'a dit un joueur à un tour d'enchères : la couleur prise, ou null s'il a passé ou n'a pas parlé.
+     */
+    public Couleur getEnchere(int joueur, int tour) {
+        return getTour() == tour && getPreneur() == joueur ? getAtout() : null;
+    }
+
+
+    public int getScore(int equipe) {
+        return vue.getShort(POSITION_SCORES + 2 * equipe);
+    }
+
+
+    /**
+     * Retourne les 5 cartes distribuées à un joueur avant les enchères (CardSet).
+     */
+    public int getMainInitiale(int joueur) {
+        int main = CardSet.EMPTY;
+        for (int i = 0; i < NB_CARTES_MAIN; i++) main |= CardSet.bit(lireId(DEBUT_DISTRIBUTION, joueur * NB_CARTES_MAIN + i));
+        return main;
+    }
+
+
+    public Carte getMilieu() {
+        return Carte.fromId(lireId(DEBUT_DISTRIBUTION, Game.NB_PLAYERS * NB_CARTES_MAIN));
+    }
+
+
+    public int getNbCartesJouees() {
+        return octets[POSITION_NB_JOUEES];
+    }
+
+
+    /**
+     * Retourne la i-ème carte jouée dans la donne.
+     */
+    public Carte getCarteJouee(int i) {
+        return Carte.fromId(lireId(DEBUT_JOUEES, i));
+    }
+
+
+    /**
+     * Retourne le joueur qui a joué la i-ème carte.
+     */
+    public int getJoueur(int i) {
+        int entame = vue.getShort(POSITION_ENTAMES) >> (2 * (i / Game.NB_PLAYERS)) & 3;
+        return (entame + i) % Game.NB_PLAYERS;
+    }
+
+
+    /**
+     * Retourne la main d'un joueur après la distribution complète : les cartes qu'il a jouées (CardSet).
+     */
+    public int getMain(int joueur) {
+        int main = CardSet.EMPTY;
+        for (int i = 0; i < getNbCartesJouees(); i++)
+            if (getJoueur(i) == joueur) main |= CardSet.bit(lireId(DEBUT_JOUEES, i));
+        return main;
+    }
+
+
+    // Écrit l'identifiant n°i de la zone commençant à l'octet debut, sur 5 bits
+    private void ecrireId(int debut, int i, int id) {
+        int bit = 5 * i;
+        int octet = debut + (bit >> 3);
+        int valeur = id << (bit & 7);
+
+        octets[octet] |= (byte) valeur;
+        if ((bit & 7) > 3) octets[octet + 1] |= (byte) (valeur >> 8);
+    }
+
+
+    private int lireId(int debut, int i) {
+        int bit = 5 * i;
+        int octet = debut + (bit >> 3);
+        int valeur = octets[octet] & 0xFF;
+
+        if ((bit & 7) > 3) valeur |= (octets[octet + 1] & 0xFF) << 8;
+        return valeur >> (bit & 7) & 31;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Donne ").append(getNoDonne()).append(" de la partie ").append(getNumero())
+          .append(" (graine ").append(getGraine()).append("), donneur ").append(getDonneur());
+        sb.append(", milieu ").append(getMilieu());
+        if (getTour() == 0) return sb.append(", personne ne prend").toString();
+
+        sb.append(", ").append(getPreneur()).append(" prend ").append(getAtout()).append(" au tour ").append(getTour());
+        for (int i = 0; i < getNbCartesJouees(); i++) {
+            sb.append(i % Game.NB_PLAYERS == 0 ? "\n  " : " ");
+            sb.append(getJoueur(i)).append(':').append(getCarteJouee(i));
+        }
+        return sb.append("\n  scores ").append(getScore(0)).append(" - ").append(getScore(1)).toString();
+    }
+}
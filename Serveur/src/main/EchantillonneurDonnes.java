@@ -0,0 +1,272 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+
+
+/**
+ * Tire des distributions complètes des cartes cachées qui respectent exactement les contraintes connues :
+ * le nombre de cartes de chaque joueur et les cartes qu'il ne peut plus posséder d'après l'inférence
+ * (couleurs coupées, atouts plus forts que l'atout maître qu'il n'a pas joués, carte du milieu...), voir Croyances.
+ * src.Tests.VerificationCroyances vérifie que ces contraintes n'excluent jamais la donne réelle.
+ *
+ * Les cartes sont distribuées une à une dans un ordre aléatoire, chez un joueur tiré selon les probabilités
+ * des croyances. Avant chaque affectation on vérifie qu'il reste possible de compléter la distribution
+ * (condition de Hall) : pour tout ensemble S de joueurs, les cartes qui ne peuvent aller que chez S
+ * doivent tenir dans les places libres de S. Les cartes sont regroupées selon l'ensemble de leurs
+ * détenteurs possibles, ce qui ramène le test à 16 ensembles de joueurs et une marge par ensemble,
+ * mise à jour à chaque affectation. Aucun tirage n'est donc rejeté ni ne peut se bloquer.
+ *
+ * Les croyances sont recopiées par {@link #preparer}, puis les tirages écrivent dans des tableaux fournis
+ * par l'appelant, sans allocation. Un échantillonneur n'est utilisable que par un seul thread à la fois.
+ */
+public final class EchantillonneurDonnes {
+    private static final int NB_ENSEMBLES = 1 << Game.NB_PLAYERS;   // Ensembles de joueurs, sous forme de masque
+    private static final float PROBA_MIN = 1e-6f;                    // Plancher des probabilités dans les rapports de poids
+
+    private final int[] ids = new int[Carte.NB_CARTES];            // Cartes à distribuer
+    private final int[] detenteurs = new int[Carte.NB_CARTES];     // Joueurs pouvant recevoir chaque carte (masque)
+    private final float[] poids = new float[Carte.NB_CARTES * Game.NB_PLAYERS];   // Proba de chaque carte pour chaque joueur
+    private final float[] probas = new float[Game.NB_PLAYERS * Carte.NB_CARTES];  // Mêmes probas par [joueur][identifiant], 0 hors cartes cachées
+    private final int[] besoin = new int[Game.NB_PLAYERS];         // Nombre de cartes à recevoir par joueur
+    private final int[] marge = new int[NB_ENSEMBLES];             // Places libres de S - cartes qui ne peuvent aller que chez S
+    private final int[] autorisees = new int[Game.NB_PLAYERS];     // Cartes que chaque joueur peut recevoir (CardSet)
+    private int nbCachees = 0;                                     // Nombre de cartes à distribuer
+    private int cachees = CardSet.EMPTY;                           // Cartes à distribuer (CardSet)
+    private int noPlayer = -1;
+    private int main = CardSet.EMPTY;
+    private boolean contraint = true;
+
+    // État du tirage en cours
+    private final int[] ordre = new int[Carte.NB_CARTES];
+    private final int[] besoinCourant = new int[Game.NB_PLAYERS];
+    private final int[] margeCourante = new int[NB_ENSEMBLES];
+    private final float[] cumul = new float[Game.NB_PLAYERS];
+
+
+
+    /**
+     * Prépare les tirages pour une situation de jeu. Les croyances sont recopiées :
+     * elles peuvent être modifiées ensuite sans effet sur les tirages.
+     *
+     * Si les contraintes ne peuvent pas être toutes satisfaites, ou si le jeu a contredit les croyances
+     * (voir Croyances.estContredite), seules les tailles de main sont respectées, les probabilités servant toujours de poids.
+     *
+     * @param croyances    Les probabilités de possession des cartes.
+     * @param noPlayer     Le joueur qui tire : il garde sa main réelle.
+     * @param main         Sa main (CardSet).
+     * @param cartesJouees Les cartes déjà jouées dans la donne (CardSet).
+     * @param nbCartes     Le nombre de cartes en main de chaque joueur.
+     * @return false si les contraintes de l'inférence ont dû être abandonnées.
+     */
+    public boolean preparer(Croyances croyances, int noPlayer, int main, int cartesJouees, int[] nbCartes) {
+        this.noPlayer = noPlayer;
+        this.main = main;
+
+        int total = 0;
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            besoin[p] = p == noPlayer ? 0 : nbCartes[p];
+            total += besoin[p];
+        }
+
+        nbCachees = 0;
+        cachees = CardSet.FULL & ~cartesJouees & ~main;
+        Arrays.fill(autorisees, CardSet.EMPTY);
+        Arrays.fill(probas, 0f);
+
+        for (int reste = cachees; reste != 0; reste = CardSet.next(reste)) {
+            int id = CardSet.first(reste);
+            int masque = 0;
+
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                poids[nbCachees * Game.NB_PLAYERS + p] = croyances.get(p, id);
+                probas[p * Carte.NB_CARTES + id] = croyances.get(p, id);
+                if (besoin[p] > 0 && croyances.estPossible(p, id)) {
+                    masque |= 1 << p;
+                    autorisees[p] |= CardSet.bit(id);
+                }
+            }
+            ids[nbCachees] = id;
+            detenteurs[nbCachees++] = masque;
+        }
+        if (total != nbCachees) throw new IllegalStateException("Le nombre de cartes cachées ne correspond pas aux mains des joueurs");
+
+        contraint = !croyances.estContredite() && calculerMarges();
+        if (!contraint) {
+            // Tous les adversaires qui ont encore des cartes peuvent recevoir chaque carte
+            int tous = 0;
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                if (besoin[p] > 0) tous |= 1 << p;
+                autorisees[p] = besoin[p] > 0 ? cachees : CardSet.EMPTY;
+            }
+
+            Arrays.fill(detenteurs, 0, nbCachees, tous);
+            calculerMarges();
+        }
+        return contraint;
+    }
+
+
+    /**
+     * Indique si la dernière préparation respecte les contraintes de l'inférence.
+     */
+    public boolean estContraint() {
+        return contraint;
+    }
+
+
+    /**
+     * Tire une distribution complète : main (CardSet) de chaque joueur, écrite dans donne[offset .. offset + NB_PLAYERS[.
+     */
+    public void tirer(int[] donne, int offset, RandomGenerator rng) {
+        System.arraycopy(besoin, 0, besoinCourant, 0, Game.NB_PLAYERS);
+        System.arraycopy(marge, 0, margeCourante, 0, NB_ENSEMBLES);
+        Arrays.fill(donne, offset, offset + Game.NB_PLAYERS, CardSet.EMPTY);
+        donne[offset + noPlayer] = main;
+
+        // Ordre aléatoire des cartes (Fisher-Yates)
+        for (int i = 0; i < nbCachees; i++) {
+            int j = rng.nextInt(i + 1);
+            ordre[i] = ordre[j];
+            ordre[j] = i;
+        }
+
+        for (int i = 0; i < nbCachees; i++) {
+            int c = ordre[i];
+            int joueur = choisirJoueur(c, rng);
+
+            donne[offset + joueur] |= CardSet.bit(ids[c]);
+            besoinCourant[joueur]--;
+            affecter(margeCourante, detenteurs[c], joueur);
+        }
+    }
+
+
+    /**
+     * Ramène une distribution tirée plus tôt dans la donne à la situation préparée, et indique si elle la respecte :
+     * les cartes jouées depuis sont retirées des mains, puis chaque joueur doit avoir le bon nombre de cartes,
+     * toutes parmi celles qu'il peut posséder, et le joueur qui tire sa main réelle.
+     *
+     * @return false si la distribution contredit ce qui a été joué ou appris depuis son tirage.
+     */
+    public boolean restreindre(int[] donne, int offset) {
+        int enJeu = cachees | main;   // Cartes encore dans les mains
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            int mainSimulee = donne[offset + p] & enJeu;
+
+            if (p == noPlayer) {
+                if (mainSimulee != main) return false;
+            }
+            else if ((mainSimulee & ~autorisees[p]) != 0 || CardSet.size(mainSimulee) != besoin[p]) return false;
+
+            donne[offset + p] = mainSimulee;
+        }
+        return true;
+    }
+
+
+    /**
+     * Copie les probabilités de la dernière préparation, rangées par [joueur][identifiant de carte]
+     * (NB_PLAYERS x NB_CARTES float, 0 pour les cartes qui ne sont pas cachées).
+     */
+    public void copierProbas(float[] dest) {
+        System.arraycopy(probas, 0, dest, 0, probas.length);
+    }
+
+
+    /**
+     * Retourne le logarithme du rapport entre le poids d'une distribution selon la dernière préparation et son poids
+     * selon des probabilités antérieures (voir copierProbas) : produit, sur les cartes cachées, des probabilités
+     * du joueur qui les reçoit. Sert à repondérer des distributions tirées avec les anciennes probabilités.
+     */
+    public double logRapportDePoids(int[] donne, int offset, float[] anciennes) {
+        double res = 0;
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            if (p == noPlayer) continue;
+
+            for (int reste = donne[offset + p] & cachees; reste != 0; reste = CardSet.next(reste)) {
+                int i = p * Carte.NB_CARTES + CardSet.first(reste);
+                res += Math.log(Math.max(probas[i], PROBA_MIN)) - Math.log(Math.max(anciennes[i], PROBA_MIN));
+            }
+        }
+        return res;
+    }
+
+
+    /**
+     * Tire nbDonnes distributions à la suite dans lot : la distribution i occupe lot[i * NB_PLAYERS .. (i + 1) * NB_PLAYERS[.
+     */
+    public void tirerLot(int[] lot, int nbDonnes, RandomGenerator rng) {
+        for (int i = 0; i < nbDonnes; i++) tirer(lot, i * Game.NB_PLAYERS, rng);
+    }
+
+
+    // Tire le joueur qui reçoit la carte c parmi ceux qui laissent la distribution réalisable
+    private int choisirJoueur(int c, RandomGenerator rng) {
+        int masque = detenteurs[c];
+        int candidats = 0;
+        float somme = 0f;
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            if ((masque & (1 << p)) == 0 || besoinCourant[p] == 0 || !realisable(masque, p)) continue;
+
+            candidats |= 1 << p;
+            somme += poids[c * Game.NB_PLAYERS + p];
+            cumul[p] = somme;
+        }
+
+        if (candidats == 0) throw new IllegalStateException("Aucun joueur ne peut recevoir la carte " + Carte.fromId(ids[c]));
+
+        // Tirage pondéré, ou uniforme si aucun candidat n'a de probabilité
+        if (somme > 0f) {
+            float r = rng.nextFloat() * somme;
+            for (int p = 0; p < Game.NB_PLAYERS; p++)
+                if ((candidats & (1 << p)) != 0 && r < cumul[p]) return p;
+        }
+        int k = rng.nextInt(Integer.bitCount(candidats));
+        for (int p = 0; ; p++)
+            if ((candidats & (1 << p)) != 0 && k-- == 0) return p;
+    }
+
+
+    // Donner une carte de détenteurs `masque` au joueur p n'enlève une place qu'aux ensembles qui contiennent p
+    // sans contenir tous les détenteurs de la carte : il faut qu'il leur en reste au moins une
+    private boolean realisable(int masque, int p) {
+        for (int s = 1; s < NB_ENSEMBLES; s++)
+            if ((s & (1 << p)) != 0 && (masque & ~s) != 0 && margeCourante[s] < 1) return false;
+
+        return true;
+    }
+
+
+    // Met à jour les marges après avoir donné une carte de détenteurs `masque` au joueur p
+    private static void affecter(int[] marge, int masque, int p) {
+        for (int s = 1; s < NB_ENSEMBLES; s++) {
+            if ((s & (1 << p)) != 0) marge[s]--;
+            if ((masque & ~s) == 0) marge[s]++;
+        }
+    }
+
+
+    // Calcule la marge de chaque ensemble de joueurs, retourne false si une distribution complète est impossible
+    private boolean calculerMarges() {
+        boolean ok = true;
+
+        for (int s = 1; s < NB_ENSEMBLES; s++) {
+            marge[s] = 0;
+            for (int p = 0; p < Game.NB_PLAYERS; p++) if ((s & (1 << p)) != 0) marge[s] += besoin[p];
+        }
+        for (int c = 0; c < nbCachees; c++) {
+            if (detenteurs[c] == 0) ok = false;
+            for (int s = 1; s < NB_ENSEMBLES; s++) if ((detenteurs[c] & ~s) == 0) marge[s]--;
+        }
+        for (int s = 1; s < NB_ENSEMBLES; s++) if (marge[s] < 0) ok = false;
+
+        return ok;
+    }
+}
@@ -0,0 +1,223 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+
+
+/**
+ * Moteur d'enchère par simulation de donnes (Monte Carlo), utilisable à la place du score heuristique de Bot.parler.
+ *
+ * Pour chaque donne simulée, les cartes inconnues sont tirées au hasard : les 2 cartes que le preneur recevra
+ * en plus de sa main et de la carte du milieu, et les 8 cartes de chaque autre joueur. La donne est jouée
+ * avec chaque couleur d'atout par une politique rapide (voir {@link #choisir}), en respectant Rules.playable,
+ * puis les points marqués par l'équipe du preneur sont comptés par Game.UtilEquipe.marquesDonne.
+ * La moyenne de ces points se compare directement aux seuils de prise du bot.
+ *
+ * Les donnes sont réparties en lots de taille fixe, chacun avec son générateur dérivé de la graine,
+ * et les lots sont exécutés sur les threads du ForkJoinPool commun jusqu'à l'échéance. Sans échéance,
+ * le résultat ne dépend donc que de la graine, quel que soit le nombre de threads.
+ * Les quatre couleurs sont évaluées sur les mêmes donnes, ce qui rend leur comparaison moins bruitée.
+ */
+public final class EnchereMonteCarlo {
+    public static final long BUDGET_MS = 100;        // Temps de réflexion par défaut pour une enchère
+    public static final int NB_DONNES_MAX = 4000;    // Nombre maximal de donnes simulées, tous threads confondus
+    private static final int NB_LOTS = 16;           // Nombre de lots de donnes, indépendant du nombre de threads
+    private static final int NB_CARTES_PRENEUR = 2;  // Cartes reçues par le preneur en plus de la carte du milieu
+
+    private static final Couleur[] COULEURS = Couleur.values();
+
+
+
+    private EnchereMonteCarlo() {}
+
+
+    /**
+     * Estime les points marqués par l'équipe du preneur s'il prend, pour chaque couleur d'atout.
+     *
+     * @param context  Le contexte de la partie.
+     * @param main     La main du preneur (CardSet), carte du milieu comprise.
+     * @param preneur  Le numéro du joueur qui envisage de prendre.
+     * @param premier  Le numéro du joueur qui ouvrira le premier pli.
+     * @param echeance Date limite des simulations (System.nanoTime), Long.MAX_VALUE pour simuler NB_DONNES_MAX donnes.
+     * @param graine   Le générateur dont sont dérivés ceux des lots.
+     * @return L'espérance des points de l'équipe du preneur, indexée par ordinal de couleur.
+     */
+    public static double[] esperances(GameContext context, int main, int preneur, int premier, long echeance, SplittableRandom graine) {
+        int donnesParLot = NB_DONNES_MAX / NB_LOTS;
+
+        List<Callable<long[]>> taches = new ArrayList<>(NB_LOTS);
+        for (int t = 0; t < NB_LOTS; t++) {
+            SplittableRandom rng = graine.split();
+            taches.add(() -> new Simulation(context, rng).lancer(main, preneur, premier, donnesParLot, echeance));
+        }
+
+        // Somme des points de chaque couleur, puis nombre de donnes
+        long[] total = new long[COULEURS.length + 1];
+        try {
+            for (Future<long[]> resultat : ForkJoinPool.commonPool().invokeAll(taches)) {
+                long[] r = resultat.get();
+                for (int i = 0; i < total.length; i++) total[i] += r[i];
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Enchère interrompue", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant une simulation d'enchère", e.getCause());
+        }
+
+        double[] res = new double[COULEURS.length];
+        long nbDonnes = total[COULEURS.length];
+        for (int c = 0; c < COULEURS.length; c++) res[c] = nbDonnes > 0 ? (double) total[c] / nbDonnes : 0;
+
+        return res;
+    }
+
+
+    /**
+     * Politique de jeu rapide des simulations :
+     * - à l'ouverture, une carte au hasard ;
+     * - si le partenaire est maître, la carte qui rapporte le plus de points ;
+     * - sinon la plus faible des cartes qui prennent la main, ou à défaut la carte qui rapporte le moins.
+     */
+    static int choisir(Plis plis, int joueur, int coups, Couleur atout, SplittableRandom rng) {
+        if (CardSet.size(coups) == 1 || plis.getIndex() == 0) return CardSet.nth(coups, rng.nextInt(CardSet.size(coups)));
+
+        int[] points = Classement.pointsRow(atout);
+        int[] force = Classement.forceRow(atout);
+        Carte maitresse = plis.getPowerfullCard();
+        boolean partenaireMaitre = plis.getWinner() % 2 == joueur % 2;
+
+        int plusChere = -1, moinsChere = -1, gagnante = -1;
+        for (int reste = coups; reste != 0; reste = CardSet.next(reste)) {
+            int id = CardSet.first(reste);
+
+            if (plusChere == -1 || points[id] > points[plusChere]) plusChere = id;
+            if (moinsChere == -1 || points[id] < points[moinsChere] || (points[id] == points[moinsChere] && force[id] < force[moinsChere]))
+                moinsChere = id;
+            if (Classement.bat(Carte.fromId(id), maitresse, atout) && (gagnante == -1 || force[id] < force[gagnante]))
+                gagnante = id;
+        }
+
+        if (partenaireMaitre) return plusChere;
+        return gagnante != -1 ? gagnante : moinsChere;
+    }
+
+
+    /**
+     * Simulations d'un lot : son pli, ses mains et son générateur aléatoire.
+     */
+    private static final class Simulation {
+        private final GameContext context;
+        private final SplittableRandom rng;
+        private final Plis plis;
+        private final int[] mains = new int[Game.NB_PLAYERS];
+        private final int[] donne = new int[Game.NB_PLAYERS];
+        private final int[] inconnues = new int[Carte.NB_CARTES];
+        private final int[] marques = new int[2];
+        private final int[] points = new int[2];     // Points des plis de chaque équipe (indice = joueur % 2)
+        private final int[] nbPlis = new int[2];     // Plis remportés par chaque équipe
+        private final boolean[] aBelote = new boolean[2];
+
+
+
+        Simulation(GameContext context, SplittableRandom rng) {
+            this.context = context;
+            this.rng = rng;
+            this.plis = new Plis(context);
+        }
+
+
+        /**
+         * Simule des donnes jusqu'à l'échéance ou jusqu'au nombre demandé.
+         * @return Somme des points de l'équipe du preneur pour chaque couleur, puis nombre de donnes simulées.
+         */
+        long[] lancer(int main, int preneur, int premier, int nbDonnes, long echeance) {
+            long[] res = new long[COULEURS.length + 1];
+
+            for (int n = 0; n < nbDonnes && System.nanoTime() < echeance; n++) {
+                tirer(main, preneur);
+
+                for (Couleur atout : COULEURS) res[atout.ordinal()] += jouer(preneur, premier, atout);
+                res[COULEURS.length]++;
+            }
+            return res;
+        }
+
+
+        // Distribue au hasard les cartes inconnues : 2 au preneur, le reste aux trois autres joueurs
+        private void tirer(int main, int preneur) {
+            int n = 0;
+            for (int reste = CardSet.FULL & ~main; reste != 0; reste = CardSet.next(reste)) inconnues[n++] = CardSet.first(reste);
+
+            // Mélange de Fisher-Yates
+            for (int i = n - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                int tmp = inconnues[i];
+                inconnues[i] = inconnues[j];
+                inconnues[j] = tmp;
+            }
+
+            int k = 0;
+            donne[preneur] = main;
+            while (k < NB_CARTES_PRENEUR) donne[preneur] |= CardSet.bit(inconnues[k++]);
+
+            int parJoueur = (n - NB_CARTES_PRENEUR) / (Game.NB_PLAYERS - 1);
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                if (p == preneur) continue;
+                donne[p] = CardSet.EMPTY;
+                for (int i = 0; i < parJoueur; i++) donne[p] |= CardSet.bit(inconnues[k++]);
+            }
+        }
+
+
+        // Joue la donne tirée avec un atout et retourne les points marqués par l'équipe du preneur
+        private int jouer(int preneur, int premier, Couleur atout) {
+            System.arraycopy(donne, 0, mains, 0, Game.NB_PLAYERS);
+
+            points[0] = points[1] = 0;
+            nbPlis[0] = nbPlis[1] = 0;
+            int joueur = premier;
+
+            for (int tour = 0; tour < Carte.NB_CARTES / Game.NB_PLAYERS; tour++) {
+                plis.reset();
+
+                for (int i = 0; i < Game.NB_PLAYERS; i++) {
+                    int coups = Rules.playable(plis, joueur, mains[joueur], atout);
+                    int id = choisir(plis, joueur, coups, atout, rng);
+
+                    plis.addCard(context.getJoueur(joueur), Carte.fromId(id), atout);
+                    mains[joueur] &= ~CardSet.bit(id);
+                    joueur = (joueur + 1) % Game.NB_PLAYERS;
+                }
+
+                joueur = plis.getWinner();
+                points[joueur % 2] += plis.getValue();
+                nbPlis[joueur % 2]++;
+            }
+            points[joueur % 2] += SolveurCartesOuvertes.DIX_DE_DER;
+
+            // Belote : la dame et le roi d'atout dans la même main (les bots l'annoncent toujours)
+            int belote = CardSet.bit(Carte.idOf(atout, Carte.Type.DAME)) | CardSet.bit(Carte.idOf(atout, Carte.Type.ROI));
+            aBelote[0] = aBelote[1] = false;
+            for (int p = 0; p < Game.NB_PLAYERS; p++)
+                if ((donne[p] & belote) == belote) aBelote[p % 2] = true;
+
+            // L'équipe du preneur est comptée comme équipe 1
+            int equipe = preneur % 2, defense = 1 - equipe;
+            Game.UtilEquipe.marquesDonne(points[equipe], points[defense], aBelote[equipe], aBelote[defense],
+                                         nbPlis[equipe] == 0, nbPlis[defense] == 0, true, false, marques);
+            return marques[0];
+        }
+    }
+}
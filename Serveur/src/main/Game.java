@@ -3,13 +3,9 @@ package src.main;
 import src.main.Paquet.Carte.*;
 
 import java.util.Arrays;
-import java.util.List;
+import java.util.SplittableRandom;
 import java.util.concurrent.CountDownLatch;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
 
 
 
@@ -22,8 +18,15 @@ public class Game implements Runnable {
     public static final int NB_PLAYERS = 4;
     public final String gameId; // Identifiant unique de la partie
     public final Equipe[] equipes; // Tableau des équipes participant à la partie (taille fixe : 2)
-    public static final Joueur[] joueurs = new Joueur[4]; // Tableau des joueurs (taille fixe : 4)
+    public final GameContext context; // Etat partagé par les joueurs de cette partie
+    public final Joueur[] joueurs; // Tableau des joueurs (taille fixe : 4)
+    public final long graine; // Graine de la partie : paquet, coupes et hasard des bots en découlent
+    public final long numero; // Tiré au hasard, distingue les parties dans le JournalDesDonnes même à graine égale
     private final Paquet paquet; // Le paquet de cartes
+    private ObservateurPartie observateur; // Reçoit les décisions des joueurs, peut être null
+    private JournalDesDonnes journalDonnes; // Journal où sont enregistrées les donnes, peut être null
+    private final DonneEnregistree donneEnCours = new DonneEnregistree();
+    private int noDonne = 0; // Numéro de la donne en cours dans la partie
 
     private Plis[] plis;  // Represente les plis du jeu
     private int premierJoueur; // Index du joueur qui commence le tour
@@ -31,21 +34,37 @@ public class Game implements Runnable {
     private int indexJoueurApris;   // Index du joueur qui  à pris dans le tableau joueurs
     private Paquet.Carte middleCard;  // Carte du milieu qui dirige l'atout
 
-    // Contient toutes les cartes joué durant la partie
-    public static HashMap<Couleur, List<Paquet.Carte>> cartePlay = new HashMap<>();
-
 
 
     /**
-     * Constructeur de la classe Game.
+     * Constructeur de la classe Game, avec une graine tirée au hasard.
      * 
      * @param id      Identifiant unique de la partie.
      * @param equipe1 La première équipe.
      * @param equipe2 La deuxième équipe.
      */
     public Game(String id, Equipe equipe1, Equipe equipe2) {
+        this(id, equipe1, equipe2, new SplittableRandom().nextLong());
+    }
+
+
+    /**
+     * Constructeur de la classe Game.
+     * Un générateur est dérivé de la graine pour le paquet puis pour chaque bot, dans l'ordre des places :
+     * deux parties de même graine ont les mêmes donnes tant que les joueurs font les mêmes choix.
+     *
+     * @param id      Identifiant unique de la partie.
+     * @param equipe1 La première équipe.
+     * @param equipe2 La deuxième équipe.
+     * @param graine  La graine de la partie.
+     */
+    public Game(String id, Equipe equipe1, Equipe equipe2, long graine) {
         this.gameId = id;
+        this.graine = graine;
+        this.numero = new SplittableRandom().nextLong();
         this.equipes = new Equipe[] { equipe1, equipe2 };
+        this.context = new GameContext();
+        this.joueurs = context.getJoueurs();
 
         joueurs[0] = equipe1.getJ1(); 
         joueurs[1] = equipe2.getJ1();
@@ -58,19 +77,46 @@ public class Game implements Runnable {
         equipe1.getJ2().setEquipe(equipe1); 
         equipe2.getJ2().setEquipe(equipe2);
 
-        this.paquet = new Paquet();
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        this.paquet = new Paquet(aleatoire.split());
         premierJoueur = 1;
         indexDonne = 0;
 
-        // Init la map
-        for(Couleur c : Couleur.values()) cartePlay.put(c, new ArrayList<>());
-
         int nbPlis = paquet.getCartes().size() / NB_PLAYERS;    // taille = 8
         plis = new Plis[nbPlis];
         // Init le tab avec des plis vide
-        for (int i = 0; i < nbPlis; i++) plis[i] = new Plis();
+        for (int i = 0; i < nbPlis; i++) plis[i] = new Plis(context);
 
-        for (int i = 0; i < joueurs.length; i++) joueurs[i].setNoPlayer(i);
+        for (int i = 0; i < joueurs.length; i++) {
+            joueurs[i].setNoPlayer(i);
+            joueurs[i].setContext(context);
+            if (joueurs[i] instanceof Bot bot) bot.setAleatoire(aleatoire.split());
+        }
+    }
+
+
+    /**
+     * Choisit la préparation du paquet entre deux donnes (voir Paquet.Mode), à appeler avant de lancer la partie.
+     */
+    public void setModeDonne(Paquet.Mode mode) {
+        paquet.setMode(mode);
+    }
+
+
+    /**
+     * Définit le journal où sont enregistrées les donnes de la partie (null pour ne pas les enregistrer).
+     * Par défaut, elles ne sont pas enregistrées.
+     */
+    public void setJournalDonnes(JournalDesDonnes journalDonnes) {
+        this.journalDonnes = journalDonnes;
+    }
+
+
+    /**
+     * Définit l'observateur qui reçoit les décisions des joueurs (null pour aucun).
+     */
+    public void setObservateur(ObservateurPartie observateur) {
+        this.observateur = observateur;
     }
 
 
@@ -89,23 +135,15 @@ public class Game implements Runnable {
         }
 
         try {
-            while (!partieTerminee()) {
-                huitPlis();
-                indexDonne = (indexDonne+1) % joueurs.length; // Après chaque 8 plis on avance dans la donne
-                premierJoueur = (indexDonne+1) % joueurs.length;
-            }
-
-            // Garde une trace des résultats
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter("nullVsFort.txt", true))) {
-                int score0 = equipes[0].getScore();
-                int score1 = equipes[1].getScore();
-                int gagnante = score0 > score1 ? 0 : 1;
-
-                writer.write("Équipe gagnante : Équipe " + gagnante);
-                writer.newLine();
-                writer.write("Scores - Équipe 0 : " + score0 + ", Équipe 1 : " + score1);
-                writer.newLine();
-            } catch (IOException ioe) {
+            long debut = System.nanoTime();
+            int gagnante = jouerPartie();
+
+            // Garde une trace des résultats, écrite par le thread du journal
+            try {
+                JournalDesResultats.getGlobal().enregistrer(new JournalDesResultats.Resultat(
+                    System.currentTimeMillis(), gameId, numero, graine, gagnante,
+                    equipes[0].getScore(), equipes[1].getScore(), (System.nanoTime() - debut) / 1_000_000));
+            } catch (UncheckedIOException ioe) {
                 ioe.printStackTrace();
             }
         } catch (Exception e) {
@@ -115,24 +153,46 @@ public class Game implements Runnable {
     }
 
 
+    /**
+     * Joue les donnes jusqu'à ce qu'une équipe dépasse 1000 points, sans garder de trace des résultats
+     * (run les ajoute au JournalDesResultats).
+     * Utilisé par run et par les tournois de bots (src.Tests.Tournoi).
+     *
+     * @return L'indice de l'équipe gagnante.
+     */
+    public int jouerPartie() {
+        while (!partieTerminee()) {
+            huitPlis();
+            indexDonne = (indexDonne+1) % joueurs.length; // Après chaque 8 plis on avance dans la donne
+            premierJoueur = (indexDonne+1) % joueurs.length;
+        }
+        return equipes[0].getScore() > equipes[1].getScore() ? 0 : 1;
+    }
+
+
     private void huitPlis() {
         int nbTour = 7;    // Chaque joueur va jouer 8 fois pour chaque plis
 
         // Distribuer les cartes au début de la partie
         distribuerNCartes(3, null);
         distribuerNCartes(2, null);
-        for (Joueur joueur : joueurs) joueur.sortCard();
 
         transmiteClientHand();
         attendreTousLesJoueurs();   // Laisse les clients voir la carte du milieu
 
+        int[] mains = new int[NB_PLAYERS];
+        for (int i = 0; i < NB_PLAYERS; i++) mains[i] = joueurs[i].getMain();
+        donneEnCours.commencer(graine, numero, noDonne++, indexDonne, mains, middleCard);
+
         // 1. Définir l'atout
+        context.setPremierJoueur(premierJoueur);   // Sert aux bots qui simulent la donne pour parler
+
         // Pour le choix des atouts les bots considère avoir la carte du milieu
         for (int i = 0; i < NB_PLAYERS; i++)
             if (joueurs[i] instanceof Bot) joueurs[i].addCard(middleCard);
 
         // Hypthèse l'atout est la carte du milieu
-        Joueur.colorAtout = middleCard.getCouleur();
+        context.setColorAtout(middleCard.getCouleur());
 
         Couleur atout = chooseAtout();
 
@@ -140,18 +200,19 @@ public class Game implements Runnable {
         for (int i = 0; i < NB_PLAYERS; i++)
             if (joueurs[i] instanceof Bot) joueurs[i].removeCarte(middleCard);
 
-        Joueur.colorAtout = null;
+        context.setColorAtout(null);
 
         // Si on ne prend pas d'atout
-        if (atout == null) return; // Quitte et recommence
+        if (atout == null) {
+            terminerDonne();
+            return; // Quitte et recommence
+        }
 
-        Joueur.colorAtout = atout;  // Set la couleur de l'atout aux joueurs
-        atout.setIsAtout(true);   // Défini que l'atout est cette couleur
+        context.setColorAtout(atout);  // Set la couleur de l'atout aux joueurs
         System.out.println("atout = "+atout);
 
         // Distribuer les cartes restantes
         distribuerNCartes(3, joueurs[indexJoueurApris]);
-        for (Joueur joueur : joueurs) joueur.sortCard();
 
         shareLastCard();
 
@@ -163,13 +224,19 @@ public class Game implements Runnable {
                 // Copie le plis avant de jouer dedans pour l'inférence
                 Plis previous = new Plis(plis[plis.length - nbTour - 1]);
 
+                if (observateur != null) observateur.vaJouer(i%NB_PLAYERS, plis[plis.length - nbTour - 1]);
+
                 // Récupère la carte jouer
                 Paquet.Carte carteJouee = joueurs[i%NB_PLAYERS].jouer(plis[plis.length - nbTour - 1]);
 
-                // Ajoute la carte joué à la map des cartes joué
-                cartePlay.get(carteJouee.getCouleur()).add(carteJouee);
+                if (observateur != null) observateur.aJoue(i%NB_PLAYERS, carteJouee);
+                donneEnCours.jouer(i%NB_PLAYERS, carteJouee);
+
+                // Ajoute la carte joué à l'ensemble des cartes joué
+                context.addCartePlay(carteJouee);
                 // Calxul l'inférence
                 Bot.inference(previous, carteJouee, joueurs[i%NB_PLAYERS]);
+                TraceDesCroyances.enregistrer(numero, graine, noDonne - 1, i%NB_PLAYERS, carteJouee, context);
 
                 // Met à jour l'affichage du millieu des UI client
                 majAllClients("AddCardOnGame:"+carteJouee.toString());
@@ -190,6 +257,7 @@ public class Game implements Runnable {
 
         //4. Update les score
         updateScore();
+        terminerDonne();
 
         // Reset les plis
         for (int i = 0; i < plis.length; i++) plis[i].reset();
@@ -233,11 +301,13 @@ public class Game implements Runnable {
 
         for (int i = indexDonne+1; i <= indexDonne+NB_PLAYERS; i++) {
             atout = joueurs[i%joueurs.length].parler(tour);
+            if (observateur != null) observateur.aParle(i%joueurs.length, tour, atout);
             // Dès qu'un joueur prend on quitte la boucle
             if (atout != null) {
                 // Previens tout le monde que l'atout est définie
                 majAllClients("AtoutIsSet:"+atout+";"+i%joueurs.length);
                 indexJoueurApris = i%joueurs.length;
+                donneEnCours.prise(indexJoueurApris, tour, atout);
                 joueurs[i%joueurs.length].getEquipe().setAPris(true);
                 return atout;
             }
@@ -278,7 +348,7 @@ public class Game implements Runnable {
         for (Joueur joueur : joueurs) {
             if (joueur instanceof Humain) {
                 // Envoie au client sa main
-                ((Humain) joueur).notifier("SetMain:"+joueur.getMain().toString());
+                ((Humain) joueur).notifier("SetMain:"+joueur.getMainParCouleur(null).toString());
             }
         }
 
@@ -299,15 +369,28 @@ public class Game implements Runnable {
                 // Envoie au client sa main
                 ((Humain) joueur).notifier("SetMain:null");
                 // Envoie au client la carte du milieu
-                ((Humain) joueur).notifier("SetMain:"+joueur.getMain().toString());
+                ((Humain) joueur).notifier("SetMain:"+joueur.getMainParCouleur(context.getColorAtout()).toString());
             }
         }
         // Init la main des proba des cartes
-        Bot.endDistrib();
-        Bot.onAtoutSet(middleCard, indexJoueurApris);
+        Bot.endDistrib(context);
+        Bot.onAtoutSet(context, middleCard, indexJoueurApris);
 
         // Cherche si un jouer à belote et rebelote et le previens
-        UtilEquipe.HasBeloteAndRe();
+        UtilEquipe.HasBeloteAndRe(context);
+    }
+
+
+    // Ajoute la donne qui vient de se terminer au journal des donnes et prévient l'observateur
+    private void terminerDonne() {
+        int score0 = equipes[0].getScore();
+        int score1 = equipes[1].getScore();
+
+        if (journalDonnes != null) {
+            donneEnCours.terminer(score0, score1);
+            journalDonnes.ajouter(donneEnCours);
+        }
+        if (observateur != null) observateur.finDeDonne(score0, score1);
     }
 
 
@@ -318,12 +401,11 @@ public class Game implements Runnable {
         // 2. Previens les humains en vidant leur main
         majAllClients("SetMain:null");
 
-        // 3. Coupe le paquet et remet l'index à 0
-        paquet.coupe();
-        paquet.RAZCurrentAcessIndex();
+        // 3. Prépare le paquet de la donne suivante (coupe ou nouveau paquet) et remet l'index à 0
+        paquet.nouvelleDonne();
 
-        // 4. Vider toutes les listes de cartes jouées mais garder les couleurs
-        for (List<Paquet.Carte> cartes : cartePlay.values()) cartes.clear();
+        // 4. Vider les cartes jouées, les probas et l'atout de la donne
+        context.resetDonne();
 
         // 5. Envoie un message aux UI pour leur dire que les 8 plis sont fini
         majAllClients("End8Plis:$");
@@ -338,9 +420,6 @@ public class Game implements Runnable {
                     joueurs[i].hasSayBeloteAndRe = true;
             }
         }
-
-        Bot.cardsProbaPerPlayer.clear();
-        Joueur.colorAtout = null;
     }
 
 
@@ -358,7 +437,7 @@ public class Game implements Runnable {
     // Envoie aux joueurs les scores des 2 equipes
     private void updateScore() {
         plis[plis.length-1].getEquipe().setDixDeDer(true);
-        UtilEquipe.calculerScore(equipes[0], equipes[1]);
+        UtilEquipe.calculerScore(context, equipes[0], equipes[1]);
         plis[plis.length-1].getEquipe().setDixDeDer(false);
 
         majAllClients("UpdateScore:"+equipes[0].getScore()+";"+equipes[1].getScore());
@@ -440,105 +519,130 @@ public class Game implements Runnable {
 
 
     public static class UtilEquipe {
-        public static int litige = 0;
+        // Issues possibles d'une donne, voir marquesDonne
+        public static final int NORMAL = 0;
+        public static final int CAPOT_E1 = 1;
+        public static final int CAPOT_E2 = 2;
+        public static final int LITIGE = 3;
+        public static final int DEDANS_E1 = 4;
+        public static final int DEDANS_E2 = 5;
 
 
         // Regarde si un jouer à belote et rebelote, si oui
         // Si c'est un humain previens sa GUI
         // Si c'est un bot on ajoute diretement au comptage des pts
         // Si le joueur qui a belote and re joue le dis on previent les client
-        public static void HasBeloteAndRe() {
-            boolean hasDamme = false;
-            boolean hasRoi = false;
+        public static void HasBeloteAndRe(GameContext context) {
+            Joueur[] joueurs = context.getJoueurs();
+            Couleur colorAtout = context.getColorAtout();
+            Paquet.Carte dame = Paquet.Carte.of(colorAtout, Type.DAME);
+            Paquet.Carte roi = Paquet.Carte.of(colorAtout, Type.ROI);
 
             // Pour chaque joueur
-            for (int i = 0; i < joueurs.length && !hasDamme && !hasRoi; i++) {
-                // Cherche l'index de la damme d'atout dans la main du joueur
-                int dammeIndx = joueurs[i].main.get(Bot.colorAtout).indexOf(new Paquet.Carte (Bot.colorAtout, Type.DAME));
-
-                if (dammeIndx != -1) {
-                    hasDamme = true;
-                    if (joueurs[i].main.get(Bot.colorAtout).size() > dammeIndx + 1) {
-                        if (joueurs[i].main.get(Bot.colorAtout).get(dammeIndx+1).getType().equals(Type.ROI)) {
-                            hasRoi = true;
-                            joueurs[i].setHasBeloteAndRe(true);
-                            if (joueurs[i] instanceof Humain) ((Humain) joueurs[i]).notifier("HasBeloteAndRe:$");
-                            break;
-                        }
-                    }
-                }
-                else {
-                    int roiIndx = joueurs[i].main.get(Bot.colorAtout).indexOf(new Paquet.Carte (Bot.colorAtout, Type.ROI));
-                    if (roiIndx != -1) {
-                        hasRoi = true;
-                        break;
+            for (int i = 0; i < joueurs.length; i++) {
+                int main = joueurs[i].getMain();
+
+                // Cherche la damme d'atout dans la main du joueur
+                if (CardSet.contains(main, dame)) {
+                    // Le roi est forcément dans la même main pour avoir belote
+                    if (CardSet.contains(main, roi)) {
+                        joueurs[i].setHasBeloteAndRe(true);
+                        if (joueurs[i] instanceof Humain) ((Humain) joueurs[i]).notifier("HasBeloteAndRe:$");
                     }
+                    break;
                 }
+                // Le roi est chez un autre joueur que la damme: personne n'a belote
+                else if (CardSet.contains(main, roi)) break;
             }
         }
 
 
-        public static void calculerScore(Equipe equipe1, Equipe equipe2) {
+        public static void calculerScore(GameContext context, Equipe equipe1, Equipe equipe2) {
             //System.out.println("t1 a belote ? "+equipe1.getBeloteReBelote());
             //System.out.println("t2 a belote ? "+equipe2.getBeloteReBelote());
 
-            // 0) Attribution systématique du bonus Belote/Re-Belote
-            int beloteBonusE1 = equipe1.getBeloteReBelote() ? 20 : 0;
-            int beloteBonusE2 = equipe2.getBeloteReBelote() ? 20 : 0;
-
-            equipe1.setScore(equipe1.getScore() + beloteBonusE1);
-            equipe2.setScore(equipe2.getScore() + beloteBonusE2);
-
             // 1) Calcul des points bruts de la donne
             int pointsE1 = calculerPointsDonne(equipe1);
             int pointsE2 = calculerPointsDonne(equipe2);
 
-            // 2) Détermination du palier
-            int palier = (equipe1.getBeloteReBelote() || equipe2.getBeloteReBelote()) ? 92 : 82;
-
-            // 3) Gestion du litige précédent (reporté)
-            if (litige == 80) {
+            // 2) Gestion du litige précédent (reporté)
+            if (context.getLitige() == 80) {
                 System.out.println("il y avait un litige");
+                int palier = (equipe1.getBeloteReBelote() || equipe2.getBeloteReBelote()) ? 92 : 82;
                 Equipe gagnant = determineGagnant(equipe1, equipe2, pointsE1, pointsE2, palier);
-                gagnant.setScore(gagnant.getScore() + litige);
-                litige = 0;
+                gagnant.setScore(gagnant.getScore() + context.getLitige());
+                context.setLitige(0);
             }
-        
-            // 4) Cas capot
-            if (equipe1.getPlis().isEmpty()) {
-                System.out.println("T1 est capot");
-                equipe2.setScore(equipe2.getScore() + 250);
-                return;
-            }
-            if (equipe2.getPlis().isEmpty()) {
-                System.out.println("T2 est capot");
-                equipe1.setScore(equipe1.getScore() + 250);
-                return;
+
+            // 3) Points marqués sur la donne, belote comprise
+            int[] marques = new int[2];
+            int issue = marquesDonne(pointsE1, pointsE2, equipe1.getBeloteReBelote(), equipe2.getBeloteReBelote(),
+                                     equipe1.getPlis().isEmpty(), equipe2.getPlis().isEmpty(),
+                                     equipe1.getAPris(), equipe2.getAPris(), marques);
+
+            switch (issue) {
+                case CAPOT_E1: System.out.println("T1 est capot"); break;
+                case CAPOT_E2: System.out.println("T2 est capot"); break;
+                case LITIGE:
+                    System.out.println("litige !");
+                    context.setLitige(80);
+                    break;
+                case DEDANS_E1: System.out.println("T1 dedans !"); break;
+                case DEDANS_E2: System.out.println("T2 dedans !"); break;
+                default: break;
             }
-        
-            // 5) Cas de litige courant
-            if (pointsE1 == palier) {
-                System.out.println("litige !");
-                litige = 80;
-                return;
+            equipe1.setScore(equipe1.getScore() + marques[0]);
+            equipe2.setScore(equipe2.getScore() + marques[1]);
+        }
+
+
+        /**
+         * Calcule les points marqués par chaque équipe sur une donne, sans le litige reporté des donnes précédentes.
+         * Ne dépend que des résultats de la donne : utilisable aussi bien en fin de donne que dans les simulations des bots.
+         *
+         * @param pointsE1 Points des plis de l'équipe 1, dix de der compris (idem pour pointsE2).
+         * @param beloteE1 Si l'équipe 1 a annoncé belote et rebelote (idem pour beloteE2).
+         * @param capotE1  Si l'équipe 1 n'a remporté aucun pli (idem pour capotE2).
+         * @param e1APris  Si l'équipe 1 a pris (idem pour e2APris).
+         * @param marques  Tableau de 2 cases rempli avec les points marqués par l'équipe 1 et par l'équipe 2.
+         * @return L'issue de la donne : NORMAL, CAPOT_E1, CAPOT_E2, LITIGE, DEDANS_E1 ou DEDANS_E2.
+         */
+        public static int marquesDonne(int pointsE1, int pointsE2, boolean beloteE1, boolean beloteE2, boolean capotE1, boolean capotE2,
+                                       boolean e1APris, boolean e2APris, int[] marques) {
+            // 0) Attribution systématique du bonus Belote/Re-Belote
+            marques[0] = beloteE1 ? 20 : 0;
+            marques[1] = beloteE2 ? 20 : 0;
+
+            // 1) Détermination du palier
+            int palier = (beloteE1 || beloteE2) ? 92 : 82;
+
+            // 2) Cas capot
+            if (capotE1) {
+                marques[1] += 250;
+                return CAPOT_E1;
             }
-        
-            // 6) Cas "dedans"
-            if (pointsE1 < palier && equipe1.getAPris()) {
-                System.out.println("T1 dedans !");
-                equipe2.setScore(equipe2.getScore() + 160);
-                return;
+            if (capotE2) {
+                marques[0] += 250;
+                return CAPOT_E2;
             }
-            if (pointsE2 < palier && equipe2.getAPris()) {
-                System.out.println("T2 dedans !");
 
-                equipe1.setScore(equipe1.getScore() + 160);
-                return;
+            // 3) Cas de litige courant : les points sont reportés à la donne suivante
+            if (pointsE1 == palier) return LITIGE;
+
+            // 4) Cas "dedans"
+            if (pointsE1 < palier && e1APris) {
+                marques[1] += 160;
+                return DEDANS_E1;
+            }
+            if (pointsE2 < palier && e2APris) {
+                marques[0] += 160;
+                return DEDANS_E2;
             }
 
-            // 7) Cas normal : attribution arrondie
-            equipe1.setScore(equipe1.getScore() + arrondiScore(pointsE1));
-            equipe2.setScore(equipe2.getScore() + arrondiScore(pointsE2));
+            // 5) Cas normal : attribution arrondie
+            marques[0] += arrondiScore(pointsE1);
+            marques[1] += arrondiScore(pointsE2);
+            return NORMAL;
         }
 
 
@@ -0,0 +1,91 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+
+
+/**
+ * Contexte propre à une partie.
+ * Regroupe tout l'état partagé entre les joueurs, les plis et les règles d'une même table
+ * afin que plusieurs parties puissent s'exécuter en parallèle dans le même serveur.
+ */
+public class GameContext {
+    private final Joueur[] joueurs = new Joueur[Game.NB_PLAYERS]; // Joueurs de la table, indexés par leur numéro
+    private int cartePlay = CardSet.EMPTY; // Cartes jouées durant la donne (CardSet)
+    private final Croyances croyances = new Croyances();   // Proba de chaque joueur de posséder chaque carte
+    private Couleur colorAtout;   // Couleur de l'atout de la donne en cours (null si pas encore définie)
+    private int litige = 0;   // Points mis en jeu par un litige et reportés à la donne suivante
+    private int premierJoueur = 0;   // Joueur qui ouvre le premier pli de la donne en cours
+
+
+
+    /**
+     * Vide toutes les informations de la donne en cours.
+     * Les joueurs et le litige sont conservés.
+     */
+    public void resetDonne() {
+        cartePlay = CardSet.EMPTY;
+        croyances.vider();
+        colorAtout = null;
+    }
+
+
+    public Joueur[] getJoueurs() {
+        return joueurs;
+    }
+
+
+    public Joueur getJoueur(int noPlayer) {
+        return joueurs[noPlayer];
+    }
+
+
+    /**
+     * Retourne l'ensemble des cartes jouées durant la donne en cours.
+     * @return Un CardSet.
+     */
+    public int getCartePlay() {
+        return cartePlay;
+    }
+
+
+    public void addCartePlay(Carte carte) {
+        cartePlay = CardSet.add(cartePlay, carte);
+    }
+
+
+    public Croyances getCroyances() {
+        return croyances;
+    }
+
+
+    public Couleur getColorAtout() {
+        return colorAtout;
+    }
+
+
+    public void setColorAtout(Couleur colorAtout) {
+        this.colorAtout = colorAtout;
+    }
+
+
+    public int getPremierJoueur() {
+        return premierJoueur;
+    }
+
+
+    public void setPremierJoueur(int premierJoueur) {
+        this.premierJoueur = premierJoueur;
+    }
+
+
+    public int getLitige() {
+        return litige;
+    }
+
+
+    public void setLitige(int litige) {
+        this.litige = litige;
+    }
+}
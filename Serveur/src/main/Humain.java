@@ -49,7 +49,8 @@ public class Humain extends Joueur {
 
     @Override
     public Paquet.Carte jouer(Plis plis) {
-        notifier("Play:" + Rules.playable(plis, noPlayer, main));
+        Paquet.Carte.Couleur atout = getColorAtout();
+        notifier("Play:" + CardSet.toString(Rules.playable(plis, noPlayer, main, atout)));
         String input = waitForClient();
 
         if (input == null || input.isEmpty()) return null;
@@ -59,7 +60,7 @@ public class Humain extends Joueur {
 
         removeCarte(carte);
 
-        plis.addCard(this, carte);
+        plis.addCard(this, carte, atout);
 
         return carte;
     }
@@ -12,11 +12,10 @@ import java.util.*;
  * Classe abstraite représentant un joueur, qu'il soit humain ou un bot.
  */
 public abstract class Joueur {
-    public static Paquet.Carte.Couleur colorAtout;  // Atout de la couleur
-
+    protected GameContext context;  // Contexte de la partie à laquelle le joueur participe
     protected Equipe equipe; // L'équipe à laquelle appartient le joueur
     protected String nom; // Le nom du joueur
-    protected HashMap<Couleur, List<Carte>> main; // La main du joueur, organisée par couleur
+    protected int main = CardSet.EMPTY; // La main du joueur (CardSet)
     protected int noPlayer; // Nuémro du jour
     protected boolean hasBeloteAndRe = false;
     protected boolean hasSayBeloteAndRe = false;
@@ -28,7 +27,6 @@ public abstract class Joueur {
      */
     public Joueur() {
         this.nom = "Joueur inconnu";
-        initMain();
     }
 
 
@@ -39,23 +37,12 @@ public abstract class Joueur {
      */
     public Joueur(String nom) {
         this.nom = nom;
-        initMain();
     }
 
 
-    /**
-     * Initialise la main du joueur avec les couleurs de cartes disponibles.
-     */
-    private void initMain() {
-        this.main = new HashMap<>();
-        for (Paquet.Carte.Couleur couleur : Paquet.Carte.Couleur.values())
-            main.put(couleur, new ArrayList<>());
-    }
-
-
-    // Vide les listes de cartes
+    // Vide la main
     public void clearMain() {
-        for (List<Carte> list : main.values()) list.clear();
+        main = CardSet.EMPTY;
     }
 
 
@@ -95,19 +82,10 @@ public abstract class Joueur {
      * @param carte La carte à ajouter.
      */
     public void addCard(Paquet.Carte carte) {
-        Carte.Couleur key = carte.getCouleur();
-        if (main.get(carte.getCouleur()) == null)
-            throw new IllegalStateException("Erreur la clef: "+key+"    N'est pas défini ici");
+        if (carte == null)
+            throw new IllegalStateException("Erreur on ne peut pas ajouter une carte null à la main");
 
-            main.get(key).add(carte);
-    }
-
-
-    /**
-     * Trie les cartes de la main du joueur par ordre croissant de valeur.
-     */
-    public void sortCard() {
-        main.values().forEach(cartes -> Collections.sort(cartes));
+        main = CardSet.add(main, carte);
     }
 
 
@@ -119,10 +97,10 @@ public abstract class Joueur {
 
     // Supprime la carte c de la main du joueur
     protected void removeCarte(Carte c) throws IllegalArgumentException {
-        if (c == null || main.get(c.getCouleur()) == null)
+        if (c == null)
             throw new IllegalArgumentException("Aucune carte de cette couleur n'hésiste "+c);
 
-        main.get(c.getCouleur()).remove(c);
+        main = CardSet.remove(main, c);
     }
 
 
@@ -132,18 +110,38 @@ public abstract class Joueur {
     public abstract Paquet.Carte.Couleur parler(int tour);
 
 
-    public HashMap<Paquet.Carte.Couleur, List<Paquet.Carte>> getMain() {
+    /**
+     * Retourne la main du joueur.
+     * @return Un CardSet.
+     */
+    public int getMain() {
         return main;
     }
 
 
+    /**
+     * Retourne la main du joueur organisée par couleur, chaque couleur triée selon l'atout.
+     * C'est le format transmis aux clients.
+     *
+     * @param atout La couleur de l'atout (null si elle n'est pas encore définie).
+     */
+    public Map<Couleur, List<Carte>> getMainParCouleur(Couleur atout) {
+        return CardSet.toMap(main, atout);
+    }
+
+
     public int getNoPlayer() {
         return noPlayer;
     }
 
 
-    public static Paquet.Carte.Couleur getColorAtout() {
-        return colorAtout;
+    public Paquet.Carte.Couleur getColorAtout() {
+        return context.getColorAtout();
+    }
+
+
+    public GameContext getContext() {
+        return context;
     }
 
 
@@ -157,6 +155,11 @@ public abstract class Joueur {
     }
 
 
+    public void setContext(GameContext context) {
+        this.context = context;
+    }
+
+
     public void setHasBeloteAndRe(boolean hasBeloteAndRe) {
         this.hasBeloteAndRe = hasBeloteAndRe;
     }
@@ -0,0 +1,287 @@
+package src.main;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * Journal des donnes jouées, en ajout seul : un DonneEnregistree de 64 octets par donne, dans des segments
+ * de taille fixe projetés en mémoire (donnes-00000.bin, donnes-00001.bin... dans un dossier).
+ *
+ * Chaque ajout réserve son emplacement avec un compteur atomique puis y copie l'enregistrement :
+ * les parties écrivent en parallèle sans verrou ni appel système, l'écriture sur le disque est laissée au système.
+ * Un emplacement réservé mais pas encore écrit (ou perdu lors d'un arrêt brutal) n'a pas de marqueur et est ignoré.
+ *
+ * Les donnes d'une partie se retrouvent par son numéro (Game.numero). L'index qui y associe leurs positions
+ * n'est construit qu'à la première recherche, puis complété par les suivantes : un journal qui ne fait qu'écrire
+ * ne garde rien en mémoire. À l'ouverture, seul le dernier segment est parcouru pour trouver la fin du journal.
+ */
+public final class JournalDesDonnes implements AutoCloseable {
+    public static final String DOSSIER_PAR_DEFAUT = "donnes";
+    public static final int DONNES_PAR_SEGMENT = 1 << 16;   // Segments de 4 Mo
+    private static final long TAILLE_SEGMENT = (long) DONNES_PAR_SEGMENT * DonneEnregistree.TAILLE;
+
+    private static JournalDesDonnes global = null;
+    private static boolean globalIndisponible = false;
+
+    private final Path dossier;
+    private final AtomicLong prochaine = new AtomicLong();                   // Prochain emplacement libre
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private Index index = null;   // Construit à la première recherche, gardé par lui-même une fois créé
+
+
+
+    /**
+     * Ouvre ou crée un journal dans un dossier. Les donnes ajoutées le sont après celles qu'il contient déjà.
+     */
+    public JournalDesDonnes(Path dossier) throws IOException {
+        this.dossier = dossier;
+        Files.createDirectories(dossier);
+
+        int nbSegments = 0;
+        while (Files.exists(fichier(nbSegments))) nbSegments++;
+
+        // Le journal se termine au dernier emplacement écrit du dernier segment, cherché depuis sa fin
+        long fin = 0;
+        if (nbSegments > 0) {
+            MappedByteBuffer dernier = segment(nbSegments - 1);
+            int i = DONNES_PAR_SEGMENT;
+            while (i > 0 && !DonneEnregistree.estEcrite(dernier, (i - 1) * DonneEnregistree.TAILLE)) i--;
+            fin = (long) (nbSegments - 1) * DONNES_PAR_SEGMENT + i;
+        }
+        prochaine.set(fin);
+    }
+
+
+    /**
+     * Retourne le journal commun aux parties du serveur (DOSSIER_PAR_DEFAUT dans le répertoire courant), ouvert
+     * au premier appel, ou null s'il ne peut pas être ouvert : les parties sont alors jouées sans être enregistrées.
+     * Les parties n'y écrivent que s'il leur est donné (voir Game.setJournalDonnes).
+     */
+    public static synchronized JournalDesDonnes getGlobal() {
+        if (global == null && !globalIndisponible) {
+            try {
+                global = new JournalDesDonnes(Paths.get(DOSSIER_PAR_DEFAUT));
+
+                JournalDesDonnes journal = global;
+                Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+            } catch (IOException e) {
+                e.printStackTrace();
+                globalIndisponible = true;
+            }
+        }
+        return global;
+    }
+
+
+    /**
+     * Ajoute une donne à la fin du journal. Peut être appelé par plusieurs parties en même temps.
+     *
+     * @throws IllegalStateException Si le segment de la donne ne peut pas être créé.
+     */
+    public void ajouter(DonneEnregistree donne) {
+        long position = prochaine.getAndIncrement();
+        MappedByteBuffer segment;
+        try {
+            segment = segment((int) (position / DONNES_PAR_SEGMENT));
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de créer le segment de la donne " + position, e);
+        }
+
+        donne.ecrire(segment, (int) (position % DONNES_PAR_SEGMENT) * DonneEnregistree.TAILLE);
+    }
+
+
+    /**
+     * Retourne le nombre d'emplacements utilisés, y compris ceux qui n'ont pas été écrits entièrement.
+     */
+    public long getNbDonnes() {
+        return prochaine.get();
+    }
+
+
+    /**
+     * Relit la donne d'un emplacement.
+     *
+     * @return La donne, ou null si l'emplacement n'a pas été écrit.
+     */
+    public DonneEnregistree lire(long position) {
+        MappedByteBuffer[] courants = segments;
+        int no = (int) (position / DONNES_PAR_SEGMENT);
+        if (position < 0 || no >= courants.length) return null;
+
+        return DonneEnregistree.lire(courants[no], (int) (position % DONNES_PAR_SEGMENT) * DonneEnregistree.TAILLE);
+    }
+
+
+    /**
+     * Relit les donnes de la partie de numéro donné (Game.numero), dans l'ordre où elles ont été jouées.
+     * La première recherche indexe tout le journal, les suivantes seulement les donnes ajoutées depuis.
+     */
+    public List<DonneEnregistree> lirePartie(long numero) {
+        Index courant;
+        synchronized (this) {
+            if (index == null) index = new Index();
+            courant = index;
+        }
+
+        long[] positions;
+        synchronized (courant) {
+            courant.completer(prochaine.get());
+            positions = courant.positions(numero);
+        }
+
+        List<DonneEnregistree> res = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            DonneEnregistree donne = lire(position);
+            if (donne != null) res.add(donne);
+        }
+        return res;
+    }
+
+
+    /**
+     * Demande l'écriture sur le disque des segments modifiés.
+     */
+    @Override
+    public void close() {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+
+    // Retourne un segment, en le créant et en le projetant en mémoire si besoin
+    private MappedByteBuffer segment(int no) throws IOException {
+        MappedByteBuffer[] courants = segments;
+        if (no < courants.length) return courants[no];
+
+        synchronized (this) {
+            courants = segments;
+            if (no < courants.length) return courants[no];
+
+            MappedByteBuffer[] nouveaux = Arrays.copyOf(courants, no + 1);
+            for (int i = courants.length; i <= no; i++) {
+                try (FileChannel canal = FileChannel.open(fichier(i), StandardOpenOption.CREATE,
+                                                          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    nouveaux[i] = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAILLE_SEGMENT);
+                }
+            }
+            segments = nouveaux;
+            return nouveaux[no];
+        }
+    }
+
+
+    private Path fichier(int no) {
+        return dossier.resolve(String.format("donnes-%05d.bin", no));
+    }
+
+
+    /**
+     * Index des positions des donnes par numéro de partie, dans des tableaux de long : une table à adressage ouvert
+     * donne la dernière position de chaque partie, et chaque position indexée la précédente de la même partie.
+     */
+    private final class Index {
+        private long[] numeros = new long[1 << 10];       // Table à adressage ouvert des numéros de partie
+        private long[] dernieres = new long[1 << 10];     // Dernière position de la partie + 1, 0 pour une case libre
+        private int nbParties = 0;
+        private long[] precedentes = new long[1 << 12];   // Position précédente de la même partie + 1, 0 si aucune
+        private long fin = 0;                             // Les positions [0, fin[ ont été parcourues
+        private long[] nonEcrites = new long[16];         // Positions parcourues avant d'être écrites
+        private int nbNonEcrites = 0;
+
+
+
+        /**
+         * Indexe les donnes jusqu'à la position jusqua exclue, et celles qui n'étaient pas écrites au parcours précédent.
+         */
+        void completer(long jusqua) {
+            int restantes = 0;
+            for (int i = 0; i < nbNonEcrites; i++)
+                if (!indexer(nonEcrites[i])) nonEcrites[restantes++] = nonEcrites[i];
+            nbNonEcrites = restantes;
+
+            for (; fin < jusqua; fin++) {
+                if (indexer(fin)) continue;
+                if (nbNonEcrites == nonEcrites.length) nonEcrites = Arrays.copyOf(nonEcrites, 2 * nbNonEcrites);
+                nonEcrites[nbNonEcrites++] = fin;
+            }
+        }
+
+
+        /**
+         * Retourne les positions des donnes d'une partie, par ordre croissant.
+         */
+        long[] positions(long numero) {
+            int n = 0;
+            long[] res = new long[16];
+            for (long p = dernieres[caseDe(numero)]; p != 0; p = precedentes[(int) (p - 1)]) {
+                if (n == res.length) res = Arrays.copyOf(res, 2 * n);
+                res[n++] = p - 1;
+            }
+
+            // Une donne écrite après avoir été parcourue est chaînée hors de l'ordre
+            res = Arrays.copyOf(res, n);
+            Arrays.sort(res);
+            return res;
+        }
+
+
+        // Ajoute la donne d'une position à l'index, retourne faux si elle n'est pas encore écrite
+        private boolean indexer(long position) {
+            MappedByteBuffer[] courants = segments;
+            int no = (int) (position / DONNES_PAR_SEGMENT);
+            int decalage = (int) (position % DONNES_PAR_SEGMENT) * DonneEnregistree.TAILLE;
+            if (no >= courants.length || !DonneEnregistree.estEcrite(courants[no], decalage)) return false;
+
+            long numero = DonneEnregistree.lireNumero(courants[no], decalage);
+            if (2 * (nbParties + 1) > numeros.length) agrandir();
+
+            int c = caseDe(numero);
+            if (dernieres[c] == 0) {
+                numeros[c] = numero;
+                nbParties++;
+            }
+
+            if (position >= precedentes.length)
+                precedentes = Arrays.copyOf(precedentes, (int) Math.max(position + 1, 2L * precedentes.length));
+            precedentes[(int) position] = dernieres[c];
+            dernieres[c] = position + 1;
+            return true;
+        }
+
+
+        // Case du numéro dans la table : la sienne, ou la case libre où l'ajouter
+        private int caseDe(long numero) {
+            int masque = numeros.length - 1;
+            int c = Long.hashCode(numero * 0x9E3779B97F4A7C15L) & masque;
+            while (dernieres[c] != 0 && numeros[c] != numero) c = (c + 1) & masque;
+            return c;
+        }
+
+
+        // Double la taille de la table et y replace les parties
+        private void agrandir() {
+            long[] anciensNumeros = numeros;
+            long[] anciennesDernieres = dernieres;
+            numeros = new long[2 * anciensNumeros.length];
+            dernieres = new long[2 * anciensNumeros.length];
+
+            for (int i = 0; i < anciensNumeros.length; i++) {
+                if (anciennesDernieres[i] == 0) continue;
+                int c = caseDe(anciensNumeros[i]);
+                numeros[c] = anciensNumeros[i];
+                dernieres[c] = anciennesDernieres[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package src.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+
+/**
+ * Journal des résultats des parties, au format CSV : une ligne par partie terminée, précédée d'une ligne d'entête.
+ *
+ * Les parties déposent leurs résultats dans une file sans verrou et un unique thread les écrit par lots,
+ * à intervalle régulier ou dès qu'un lot est plein. Le fichier est ouvert une seule fois, les lignes de deux parties
+ * ne peuvent pas s'entremêler, et il est synchronisé sur le disque (fsync) au plus une fois par seconde :
+ * en cas d'arrêt brutal, seules les dernières parties sont perdues et une ligne tronquée est ignorée à la lecture.
+ *
+ * Le journal commun aux parties du serveur ({@link #getGlobal}) est fermé à l'arrêt de la JVM.
+ * Les résultats se relisent avec {@link #lire}.
+ */
+public final class JournalDesResultats implements AutoCloseable {
+    public static final String FICHIER_PAR_DEFAUT = "resultats.csv";
+    public static final String ENTETE = "date_ms,partie,numero,graine,gagnante,score0,score1,duree_ms";
+
+    private static final long PERIODE_ECRITURE_NS = 100_000_000L;    // Écriture d'un lot toutes les 100 ms
+    private static final long PERIODE_SYNC_NS = 1_000_000_000L;      // fsync au plus une fois par seconde
+    private static final int TAILLE_LOT = 256;                       // Au delà, le lot est écrit sans attendre
+
+    private static JournalDesResultats global = null;
+
+    private final ConcurrentLinkedQueue<Resultat> file = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enAttente = new AtomicInteger();   // Nombre de résultats dans la file
+    private final FileChannel canal;
+    private final Thread ecrivain;
+    private final StringBuilder tampon = new StringBuilder();       // Lot en cours, utilisé par l'écrivain seul
+    private volatile boolean ferme = false;
+    private long derniereSync = System.nanoTime();
+    private boolean aSynchroniser = false;
+
+
+
+    /**
+     * Ouvre un journal en ajout, et démarre son thread d'écriture.
+     * L'entête est écrite si le fichier est vide.
+     */
+    public JournalDesResultats(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (canal.size() == 0) ecrire(ENTETE + "\n");
+
+        ecrivain = new Thread(this::boucle, "journal-" + fichier.getFileName());
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+
+    /**
+     * Retourne le journal commun aux parties (FICHIER_PAR_DEFAUT dans le répertoire courant), ouvert au premier appel.
+     *
+     * @throws UncheckedIOException Si le fichier ne peut pas être ouvert.
+     */
+    public static synchronized JournalDesResultats getGlobal() {
+        if (global == null) {
+            try {
+                global = new JournalDesResultats(Paths.get(FICHIER_PAR_DEFAUT));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            JournalDesResultats journal = global;
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        }
+        return global;
+    }
+
+
+    /**
+     * Dépose le résultat d'une partie, il sera écrit par le thread du journal. Ne bloque pas.
+     *
+     * @throws IllegalStateException Si le journal est fermé.
+     */
+    public void enregistrer(Resultat resultat) {
+        // close passe ferme à true sous le même verrou : aucun résultat n'arrive après son dernier lot
+        synchronized (file) {
+            if (ferme) throw new IllegalStateException("Journal des résultats fermé");
+            file.offer(resultat);
+        }
+        if (enAttente.incrementAndGet() >= TAILLE_LOT) LockSupport.unpark(ecrivain);
+    }
+
+
+    /**
+     * Écrit les résultats en attente, synchronise le fichier sur le disque et le ferme.
+     */
+    @Override
+    public void close() {
+        synchronized (file) {
+            if (ferme) return;
+            ferme = true;
+        }
+
+        LockSupport.unpark(ecrivain);
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            ecrireLot();    // Résultats déposés pendant l'arrêt de l'écrivain
+            canal.force(false);
+            canal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Relit un journal. Une dernière ligne incomplète (arrêt pendant une écriture) est ignorée.
+     *
+     * @throws IOException Si le fichier ne peut pas être lu.
+     * @throws IllegalArgumentException Si une ligne complète est invalide.
+     */
+    public static List<Resultat> lire(Path fichier) throws IOException {
+        List<Resultat> resultats = new ArrayList<>();
+        boolean derniereComplete = finitParFinDeLigne(fichier);
+
+        try (BufferedReader reader = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String ligne = reader.readLine();
+            if (ligne != null && !ligne.equals(ENTETE))
+                throw new IllegalArgumentException("Entête du journal invalide : " + ligne);
+
+            String suivante = ligne == null ? null : reader.readLine();
+            while (suivante != null) {
+                ligne = suivante;
+                suivante = reader.readLine();
+
+                // La dernière ligne peut avoir été coupée en cours d'écriture, même au milieu d'un champ
+                if (suivante == null && !derniereComplete) break;
+                resultats.add(Resultat.depuisCsv(ligne));
+            }
+        }
+        return resultats;
+    }
+
+
+    // Vrai si le fichier est vide ou se termine par '\n' : chaque ligne est écrite avec sa fin de ligne
+    private static boolean finitParFinDeLigne(Path fichier) throws IOException {
+        try (FileChannel lecture = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = lecture.size();
+            if (taille == 0) return true;
+
+            ByteBuffer dernier = ByteBuffer.allocate(1);
+            while (dernier.hasRemaining() && lecture.read(dernier, taille - 1) >= 0);
+            return dernier.get(0) == '\n';
+        }
+    }
+
+
+    // Boucle du thread d'écriture : un lot par période, ou plus tôt si la file se remplit
+    private void boucle() {
+        while (!ferme) {
+            LockSupport.parkNanos(PERIODE_ECRITURE_NS);
+            try {
+                ecrireLot();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    // Écrit les résultats en attente en une fois, puis synchronise le fichier si la dernière synchronisation est ancienne
+    private void ecrireLot() throws IOException {
+        Resultat resultat;
+        while ((resultat = file.poll()) != null) {
+            enAttente.decrementAndGet();
+            resultat.versCsv(tampon).append('\n');
+        }
+
+        if (tampon.length() > 0) {
+            ecrire(tampon.toString());
+            tampon.setLength(0);
+            aSynchroniser = true;
+        }
+
+        long maintenant = System.nanoTime();
+        if (aSynchroniser && maintenant - derniereSync >= PERIODE_SYNC_NS) {
+            canal.force(false);
+            derniereSync = maintenant;
+            aSynchroniser = false;
+        }
+    }
+
+
+    private void ecrire(String texte) throws IOException {
+        ByteBuffer octets = ByteBuffer.wrap(texte.getBytes(StandardCharsets.UTF_8));
+        while (octets.hasRemaining()) canal.write(octets);
+    }
+
+
+    /**
+     * Résultat d'une partie terminée.
+     */
+    public static final class Resultat {
+        static final int NB_CHAMPS = 8;
+
+        public final long date;      // Fin de la partie (ms depuis 1970)
+        public final String partie;  // Identifiant de la partie, sans virgule
+        public final long numero;    // Numéro de la partie, ses donnes se relisent avec JournalDesDonnes.lirePartie
+        public final long graine;    // Graine de la partie, voir Game
+        public final int gagnante;   // Indice de l'équipe gagnante
+        public final int score0;
+        public final int score1;
+        public final long dureeMs;
+
+
+
+        public Resultat(long date, String partie, long numero, long graine, int gagnante, int score0, int score1, long dureeMs) {
+            this.date = date;
+            this.partie = partie.replace(',', ';').replace('\n', ' ');
+            this.numero = numero;
+            this.graine = graine;
+            this.gagnante = gagnante;
+            this.score0 = score0;
+            this.score1 = score1;
+            this.dureeMs = dureeMs;
+        }
+
+
+        /**
+         * Ajoute la ligne CSV du résultat (sans fin de ligne) à sb et retourne sb.
+         */
+        public StringBuilder versCsv(StringBuilder sb) {
+            return sb.append(date).append(',').append(partie).append(',').append(numero).append(',').append(graine).append(',')
+                     .append(gagnante).append(',').append(score0).append(',').append(score1).append(',').append(dureeMs);
+        }
+
+
+        /**
+         * Relit une ligne écrite par {@link #versCsv}.
+         *
+         * @throws IllegalArgumentException Si la ligne est invalide.
+         */
+        public static Resultat depuisCsv(String ligne) {
+            String[] champs = ligne.split(",", -1);
+            if (champs.length != NB_CHAMPS) throw new IllegalArgumentException("Ligne du journal invalide : " + ligne);
+
+            try {
+                return new Resultat(Long.parseLong(champs[0]), champs[1], Long.parseLong(champs[2]), Long.parseLong(champs[3]),
+                                    Integer.parseInt(champs[4]), Integer.parseInt(champs[5]), Integer.parseInt(champs[6]),
+                                    Long.parseLong(champs[7]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ligne du journal invalide : " + ligne, e);
+            }
+        }
+
+
+        @Override
+        public String toString() {
+            return versCsv(new StringBuilder()).toString();
+        }
+    }
+}
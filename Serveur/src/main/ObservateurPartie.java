@@ -0,0 +1,45 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+
+
+/**
+ * Reçoit les décisions des joueurs d'une partie, dans l'ordre où elles sont prises (voir Game.setObservateur).
+ * Les méthodes sont appelées sur le thread de la partie.
+ */
+public interface ObservateurPartie {
+
+    /**
+     * Un joueur vient de parler.
+     *
+     * @param joueur Le numéro du joueur.
+     * @param tour   Le tour d'enchères (1 ou 2).
+     * @param atout  La couleur prise, ou null si le joueur passe.
+     */
+    void aParle(int joueur, int tour, Couleur atout);
+
+
+    /**
+     * Un joueur va choisir une carte : sa main, le pli et les croyances sont ceux qu'il voit pour décider.
+     *
+     * @param plis Le pli en cours, avant sa carte.
+     */
+    default void vaJouer(int joueur, Plis plis) {}
+
+
+    /**
+     * Un joueur vient de jouer une carte.
+     */
+    void aJoue(int joueur, Carte carte);
+
+
+    /**
+     * Une donne vient de se terminer, jouée ou non.
+     *
+     * @param score0 Le score de l'équipe 0 après la donne.
+     * @param score1 Le score de l'équipe 1 après la donne.
+     */
+    default void finDeDonne(int score0, int score1) {}
+}
@@ -0,0 +1,237 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * Ordonnancement des coups pour l'alpha‑beta : les coups les plus susceptibles de provoquer une coupure sont essayés en premier.
+ *
+ * Ordre appliqué :
+ * 1) le meilleur coup enregistré dans la table de transposition ;
+ * 2) les cartes qui prennent la main sur le pli en cours ;
+ * 3) les deux coups « killer » du niveau, qui ont provoqué une coupure dans une position voisine ;
+ * 4) le reste, trié par la table d'historique (indexée par identifiant de carte).
+ *
+ * Chaque heuristique peut être désactivée sur une instance (voir {@link Heuristiques}) pour mesurer son effet
+ * sur le nombre de noeuds explorés, grâce aux statistiques globales (voir {@link #statistiques()}).
+ * Une instance n'est pas partagée entre plusieurs recherches simultanées.
+ */
+public class OrdreDesCoups {
+    // Catégories de coups, utilisées pour les statistiques de coupure
+    public static final int TABLE = 0;
+    public static final int GAGNANTE = 1;
+    public static final int KILLER = 2;
+    public static final int AUTRE = 3;
+    private static final String[] NOMS_CATEGORIES = { "table", "gagnante", "killer", "autre" };
+
+    private static final int NB_NIVEAUX = Carte.NB_CARTES + 1;   // Un niveau par nombre de cartes jouées
+    private static final int MAX_HISTORIQUE = 1 << 20;
+
+    // Statistiques globales, alimentées par publier()
+    private static final LongAdder NB_NOEUDS = new LongAdder();
+    private static final LongAdder NB_COUPURES = new LongAdder();
+    private static final LongAdder NB_COUPURES_PREMIER_COUP = new LongAdder();
+    private static final LongAdder[] NB_COUPURES_PAR_CATEGORIE = {
+        new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()
+    };
+
+    private final int[][] ordre = new int[NB_NIVEAUX][Carte.NB_CARTES];       // Coups triés de chaque niveau
+    private final int[][] categories = new int[NB_NIVEAUX][Carte.NB_CARTES];  // Catégorie de chaque coup trié
+    private final int[] scores = new int[Carte.NB_CARTES];
+    private final int[][] killers = new int[NB_NIVEAUX][2];
+    private final int[] historique = new int[Carte.NB_CARTES];
+    private Heuristiques heuristiques = Heuristiques.TOUTES;
+
+    // Statistiques locales, en attente de publication
+    private long nbNoeuds = 0;
+    private long nbCoupures = 0;
+    private long nbCoupuresPremierCoup = 0;
+    private final long[] nbCoupuresParCategorie = new long[NOMS_CATEGORIES.length];
+
+
+
+    public OrdreDesCoups() {
+        nouvelleRecherche();
+    }
+
+
+    /**
+     * Prépare une nouvelle décision : les killers sont oubliés et l'historique est divisé par deux.
+     */
+    public void nouvelleRecherche() {
+        for (int[] k : killers) Arrays.fill(k, -1);
+        for (int id = 0; id < historique.length; id++) historique[id] >>= 1;
+    }
+
+
+    /**
+     * Oublie tout ce qui a été appris, killers et historique : l'ordre peut servir à la recherche d'un autre bot.
+     */
+    public void vider() {
+        for (int[] k : killers) Arrays.fill(k, -1);
+        Arrays.fill(historique, 0);
+    }
+
+
+    /**
+     * Trie les coups d'un noeud.
+     *
+     * @param coups     Les coups légaux (CardSet).
+     * @param plis      Le pli en cours.
+     * @param coupTable Le meilleur coup de la table de transposition, ou TableDeTransposition.AUCUN_COUP.
+     * @param niveau    Le nombre de cartes jouées dans la donne, qui identifie le niveau du noeud.
+     * @param atout     La couleur de l'atout.
+     * @return Le tableau des identifiants triés, valable jusqu'au prochain tri du même niveau ;
+     *         seules les CardSet.size(coups) premières cases sont significatives.
+     */
+    public int[] trier(int coups, Plis plis, int coupTable, int niveau, Couleur atout) {
+        nbNoeuds++;
+
+        int[] res = ordre[niveau];
+        int[] cat = categories[niveau];
+        Carte maitresse = plis.getPowerfullCard();
+        Heuristiques h = heuristiques;
+        int n = 0;
+
+        for (int reste = coups; reste != 0; reste = CardSet.next(reste)) {
+            int id = CardSet.first(reste);
+            int categorie = AUTRE;
+            int score = h.historique ? historique[id] : 0;
+
+            if (h.table && id == coupTable) {
+                categorie = TABLE;
+                score += 1 << 28;
+            }
+            else if (h.gagnantes && maitresse != null && Classement.bat(Carte.fromId(id), maitresse, atout)) {
+                categorie = GAGNANTE;
+                score += 1 << 26;
+            }
+            else if (h.killers && (id == killers[niveau][0] || id == killers[niveau][1])) {
+                categorie = KILLER;
+                score += id == killers[niveau][0] ? 1 << 25 : 1 << 24;
+            }
+
+            // Insertion dans l'ordre décroissant des scores
+            int i = n++;
+            while (i > 0 && scores[i - 1] < score) {
+                res[i] = res[i - 1];
+                cat[i] = cat[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            res[i] = id;
+            cat[i] = categorie;
+            scores[i] = score;
+        }
+        return res;
+    }
+
+
+    /**
+     * Enregistre une coupure provoquée par le k-ième coup trié d'un niveau.
+     *
+     * @param profondeurRestante Le nombre de plis restant à explorer, qui pondère l'historique.
+     */
+    public void coupure(int niveau, int k, int profondeurRestante) {
+        int id = ordre[niveau][k];
+
+        nbCoupures++;
+        nbCoupuresParCategorie[categories[niveau][k]]++;
+        if (k == 0) nbCoupuresPremierCoup++;
+
+        // Killers du niveau
+        if (killers[niveau][0] != id) {
+            killers[niveau][1] = killers[niveau][0];
+            killers[niveau][0] = id;
+        }
+
+        // Historique, borné pour ne pas dépasser les bonus des autres catégories
+        historique[id] = Math.min(MAX_HISTORIQUE, historique[id] + (profondeurRestante + 1) * (profondeurRestante + 1));
+    }
+
+
+    /**
+     * Ajoute les statistiques locales aux statistiques globales et les remet à zéro.
+     */
+    public void publier() {
+        NB_NOEUDS.add(nbNoeuds);
+        NB_COUPURES.add(nbCoupures);
+        NB_COUPURES_PREMIER_COUP.add(nbCoupuresPremierCoup);
+        for (int c = 0; c < nbCoupuresParCategorie.length; c++) {
+            NB_COUPURES_PAR_CATEGORIE[c].add(nbCoupuresParCategorie[c]);
+            nbCoupuresParCategorie[c] = 0;
+        }
+        nbNoeuds = nbCoupures = nbCoupuresPremierCoup = 0;
+    }
+
+
+    /**
+     * Choisit les heuristiques actives pour les tris suivants de cette instance.
+     */
+    public void setHeuristiques(Heuristiques heuristiques) {
+        this.heuristiques = heuristiques;
+    }
+
+
+    public static long getNbNoeuds() {
+        return NB_NOEUDS.sum();
+    }
+
+
+    /**
+     * Remet à zéro les statistiques globales.
+     */
+    public static void resetStatistiques() {
+        NB_NOEUDS.reset();
+        NB_COUPURES.reset();
+        NB_COUPURES_PREMIER_COUP.reset();
+        for (LongAdder a : NB_COUPURES_PAR_CATEGORIE) a.reset();
+    }
+
+
+    /**
+     * Retourne un résumé des statistiques globales :
+     * nombre de noeuds, de coupures, part des coupures au premier coup et répartition des coupures par catégorie.
+     */
+    public static String statistiques() {
+        long coupures = NB_COUPURES.sum();
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("noeuds=").append(NB_NOEUDS.sum())
+          .append(" coupures=").append(coupures)
+          .append(" premierCoup=").append(coupures > 0 ? 100 * NB_COUPURES_PREMIER_COUP.sum() / coupures : 0).append('%');
+
+        for (int c = 0; c < NOMS_CATEGORIES.length; c++)
+            sb.append(' ').append(NOMS_CATEGORIES[c]).append('=').append(NB_COUPURES_PAR_CATEGORIE[c].sum());
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Heuristiques actives d'un ordre des coups. Le jeu les utilise toutes (TOUTES),
+     * les autres combinaisons servent à mesurer leur effet (voir src.Tests.MesureOrdreDesCoups).
+     */
+    public static final class Heuristiques {
+        public static final Heuristiques TOUTES = new Heuristiques(true, true, true, true);
+
+        final boolean table;
+        final boolean gagnantes;
+        final boolean killers;
+        final boolean historique;
+
+
+
+        public Heuristiques(boolean table, boolean gagnantes, boolean killers, boolean historique) {
+            this.table = table;
+            this.gagnantes = gagnantes;
+            this.killers = killers;
+            this.historique = historique;
+        }
+    }
+}
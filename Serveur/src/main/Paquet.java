@@ -1,22 +1,31 @@
 package src.main;
 
-import java.util.Random;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.SplittableRandom;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * La classe Paquet représente un paquet de 32 cartes de jeu.
  * Elle contient une liste de cartes et fournit des méthodes pour créer le paquet, 
  * mélanger les cartes, et ajouter des plis.
  * La classe Paquet hérite de ArrayList et contient une classe interne Carte.
+ *
+ * Entre deux donnes, le paquet est préparé selon son mode (voir {@link Mode}) : reconstruit avec les plis
+ * et coupé comme à une vraie table, ou remplacé par un paquet mélangé servi par un DistributeurDeDonnes.
  */
 public class Paquet {
+    /**
+     * Préparation du paquet entre deux donnes.
+     */
+    public enum Mode {
+        RAMASSAGE,  // Les plis sont ramassés puis le paquet est coupé, comme à une vraie table
+        ALEATOIRE   // Chaque donne part d'un paquet mélangé uniformément, pour l'entraînement des bots
+    }
+
     /**
      * La classe Carte représente une carte de jeu avec une couleur et un type (valeur).
      * Elle est comparable en fonction de sa valeur, et elle est sérialisable pour la transmission réseau.
@@ -30,24 +39,7 @@ public class Paquet {
             CARREAU,
             PIQUE,
             COEUR,
-            TREFLE;
-
-            private Boolean isAtout;
-
-            // Constructeur privé : Par défaut, la couleur n'est pas atout
-            Couleur() {
-                isAtout = false;
-            }
-
-            // Accesseur pour savoir si cette couleur est l'atout
-            public Boolean getIsAtout() {
-                return isAtout;
-            }
-
-            // Modificateur pour définir si cette couleur est l'atout
-            public void setIsAtout(Boolean isAtout) {
-                this.isAtout = isAtout;
-            }
+            TREFLE
         }
 
         /**
@@ -68,81 +60,108 @@ public class Paquet {
             }
         }
 
+        public static final int NB_CARTES = 32;    // Nombre de cartes d'un jeu de belote
+        private static final int NB_TYPES = Type.values().length;   // Nombre de cartes par couleur
+
         private final Couleur couleur;  // La couleur de la carte
         private final Type type;        // Le type (valeur) de la carte
+        private final int id;           // Identifiant de la carte entre 0 et 31
 
 
         /**
-         * Constructeur pour créer une carte avec une couleur et un type donnés.
-         * 
+         * Constructeur privé : les 32 cartes sont créées une fois pour toutes dans PAR_ID.
+         * Utiliser {@link #of(Couleur, Type)} ou {@link #fromId(int)} pour obtenir une carte.
+         *
          * @param c La couleur de la carte.
          * @param t Le type (valeur) de la carte.
          */
-        public Carte(Couleur c, Type t) {
+        private Carte(Couleur c, Type t) {
             couleur = c;
             type = t;
+            id = idOf(c, t);
+        }
+
+
+        // Une instance unique par identifiant : deux cartes égales sont toujours la même instance
+        private static final Carte[] PAR_ID = new Carte[NB_CARTES];
+        // Table de correspondance nom -> carte utilisée par parseCarte (nom tel qu'envoyé et nom en majuscules)
+        private static final Map<String, Carte> PAR_NOM = new HashMap<>();
+
+        static {
+            for (Couleur c : Couleur.values())
+                for (Type t : Type.values()) {
+                    Carte carte = new Carte(c, t);
+                    PAR_ID[carte.id] = carte;
+                    PAR_NOM.put(carte.toString(), carte);
+                    PAR_NOM.put(carte.toString().toUpperCase(), carte);
+                }
+        }
+
+
+        /**
+         * Retourne l'instance unique de la carte de couleur et de type donnés.
+         */
+        public static Carte of(Couleur c, Type t) {
+            return PAR_ID[idOf(c, t)];
+        }
+
+
+        /**
+         * Retourne la carte correspondant à un identifiant.
+         *
+         * @param id L'identifiant de la carte, entre 0 et 31.
+         * @return La carte correspondante.
+         */
+        public static Carte fromId(int id) {
+            return PAR_ID[id];
+        }
+
+
+        /**
+         * Calcule l'identifiant (0 à 31) d'une carte à partir de sa couleur et de son type.
+         * Les 8 cartes d'une même couleur sont contiguës, dans l'ordre des types.
+         */
+        public static int idOf(Couleur c, Type t) {
+            return c.ordinal() * NB_TYPES + t.ordinal();
         }
 
         /**
-         * Utilise une regex pour récupérer la Couleur et le Type dans la chaîne
-         * et retourne un objet carte correspondant.
+         * Retrouve la carte correspondant à un nom au format "TYPEDeCOULEUR" (la casse est ignorée).
+         * La recherche se fait dans une table précalculée, sans expression régulière.
          * 
-         * @param str La chaîne de caractères représentant une carte.
-         * @return L'objet carte correspondant, ou null si la chaîne ne correspond pas.
+         * @param cardName La chaîne de caractères représentant une carte.
+         * @return L'instance de la carte correspondante, ou null si la chaîne ne correspond à aucune carte.
          */
         public static Carte parseCarte(String cardName) {
-            cardName = cardName.toUpperCase(); // Normalise la chaîne
-            // Expression régulière adaptée au format "TYPEDECOULEUR"
-            String regex = "\\b(AS|SEPT|HUIT|NEUF|DIX|VALET|DAME|ROI)DE(COEUR|CARREAU|PIQUE|TREFLE)\\b";
-            Pattern pattern = Pattern.compile(regex);
-            Matcher matcher = pattern.matcher(cardName);
-        
-            if (matcher.find()) {
-                try {
-                    Paquet.Carte.Type type = Paquet.Carte.Type.valueOf(matcher.group(1));
-                    Paquet.Carte.Couleur couleur = Paquet.Carte.Couleur.valueOf(matcher.group(2));
-                    return new Carte(couleur, type);
-                } catch (IllegalArgumentException e) {
-                    e.printStackTrace();
-                    return null; // Retourne null si la carte ne correspond pas
-                }
-            }
-            return null; // Retourne null si le format ne correspond pas
+            if (cardName == null) return null;
+
+            // Cas courant : le nom est exactement celui envoyé au client, aucune allocation
+            Carte carte = PAR_NOM.get(cardName);
+            if (carte != null) return carte;
+
+            // Sinon on normalise la chaîne (espaces et casse)
+            return PAR_NOM.get(cardName.trim().toUpperCase());
         }
         
 
         /**
-         * Compare deux cartes en fonction de leur valeur en points.
+         * Compare deux cartes sans tenir compte de l'atout.
+         * Pour comparer en tenant compte de l'atout, voir {@link Classement#compare}.
          * 
          * @param c La carte à comparer.
          * @return Un entier indiquant si cette carte est plus petite, égale ou plus grande que l'autre.
          */
         @Override
         public int compareTo(Carte c) {
-            // Si cette carte est un atout et que l'autre ne l'est pas, cette carte est forcément supérieure
-            if (this.getCouleur().getIsAtout() && !c.getCouleur().getIsAtout())
-                return 1;
-
-            // Si l'autre carte est un atout et que cette carte ne l'est pas, l'autre carte est supérieure
-            if (!this.getCouleur().getIsAtout() && c.getCouleur().getIsAtout())
-                return -1;
-
-            // Si les 2 cartes sont atout ou aucun d'ele ne l'est:
-            // Compare leurs nombres de point
-            int diffPoints = this.getNbPoint() - c.getNbPoint();
-            if (diffPoints != 0) return diffPoints;
-
-            // Si les points sont égaux, comparer sur l'ordinal (ordre d'apparition)
-            return this.getType().ordinal() - c.getType().ordinal();
+            return Classement.compare(this, c, null);
         }
 
+        /**
+         * Les cartes étant uniques, l'égalité est l'identité.
+         */
         @Override
         public boolean equals(Object obj) {
-            if (this == obj) return true; // Même référence
-            if (obj == null || getClass() != obj.getClass()) return false; // Vérifie la non-nullité et la classe
-            Carte other = (Carte) obj;
-            // Pour les enums, la comparaison par '==' est suffisante
-            return this.couleur == other.couleur && this.type == other.type;
+            return this == obj;
         }
 
 
@@ -162,27 +181,18 @@ public class Paquet {
 
         @Override
         public int hashCode() {
-            return Objects.hash(couleur, type);
+            return id;
         }
 
 
         /**
-         * Calcule et retourne la valeur en points de la carte, en tenant compte de la couleur (atout ou non).
+         * Retourne la valeur en points de la carte, en tenant compte de l'atout.
          * 
+         * @param atout La couleur de l'atout (null si aucun).
          * @return La valeur en points de la carte.
          */
-        public int getNbPoint() {
-            if (couleur.isAtout) {
-                switch (type) {
-                    case VALET:
-                        return 20;  // Le valet d'atout vaut 20 points
-                    case NEUF:
-                        return 14;  // Le neuf d'atout vaut 14 points
-                    default:
-                        break;
-                }
-            }
-            return type.getValue();  // Sinon, la valeur de la carte est simplement la valeur associée au type
+        public int getNbPoint(Couleur atout) {
+            return Classement.points(this, atout);
         }
 
         // Accesseurs pour obtenir la couleur et le type de la carte
@@ -193,10 +203,18 @@ public class Paquet {
         public Type getType() {
             return type;
         }
+
+        public int getId() {
+            return id;
+        }
     }
 
     private int currentAcessIndex = 0;  // Indicateur pour savoir quelle carte doit être sélectionnée
     private List<Carte> cartes = new ArrayList<Paquet.Carte>(); // Liste de toutes les cartes
+    private final SplittableRandom aleatoire;   // Générateur utilisé pour le mélange et les coupes
+    private Mode mode = Mode.RAMASSAGE;
+    private DistributeurDeDonnes distributeur = null;  // Paquets mélangés du mode ALEATOIRE
+    private final byte[] ordre = new byte[Carte.NB_CARTES];   // Identifiants des cartes du prochain paquet
 
 
     /**
@@ -204,6 +222,16 @@ public class Paquet {
      * puis les mélange de manière aléatoire.
      */
     public Paquet() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Crée un paquet mélangé et coupé avec un générateur donné : à générateur identique, paquet et coupes identiques.
+     *
+     * @param aleatoire Le générateur du paquet, issu de la graine de la partie.
+     */
+    public Paquet(SplittableRandom aleatoire) {
+        this.aleatoire = aleatoire;
         createPaquet();
     }
 
@@ -212,33 +240,51 @@ public class Paquet {
      * puis les mélange de manière aléatoire.
      */
     public void createPaquet() {
-        // Crée toutes les combinaisons de couleurs et de types
-        for (int i = 0; i < Carte.Couleur.values().length; i++)
-            for (int j = 0; j < Carte.Type.values().length; j++)
-                cartes.add(new Carte(Carte.Couleur.values()[i], Carte.Type.values()[j]));
+        // Ajoute les 32 instances uniques de cartes
+        for (int id = 0; id < Carte.NB_CARTES; id++)
+            cartes.add(Carte.fromId(id));
 
         shufle();  // Mélange les cartes
     }
 
     /**
-     * Mélange les cartes du paquet de manière aléatoire en utilisant un algorithme de permutation.
+     * Mélange les cartes du paquet de manière uniforme, en une passe (Fisher-Yates).
      */
     private void shufle() {
-        Random ran = new Random();
-        int indx1, indx2;
-
-        // Mélange les cartes n^3 fois
-        for (int i = 0; i < cartes.size() * cartes.size() * cartes.size(); i++) {
-            do {
-                indx1 = ran.nextInt(cartes.size());
-                indx2 = ran.nextInt(cartes.size());
-            } while (indx1 == indx2);  // Assure que les index ne sont pas identiques
-
-            // Échange les cartes
-            Paquet.Carte tmp = cartes.get(indx1);
-            cartes.set(indx1, cartes.get(indx2));
-            cartes.set(indx2, tmp);
+        DistributeurDeDonnes.melanger(ordre, 0, aleatoire);
+        charger(ordre);
+    }
+
+    /**
+     * Choisit la préparation du paquet entre deux donnes, à appeler avant de commencer la partie.
+     * Le mode ALEATOIRE dérive son distributeur du générateur du paquet : les donnes restent reproductibles.
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        if (mode == Mode.ALEATOIRE && distributeur == null) distributeur = new DistributeurDeDonnes(aleatoire.split());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Prépare le paquet pour la donne suivante selon le mode, et remet l'index à 0.
+     * En mode RAMASSAGE le paquet (reconstruit avec {@link #addPlis} si la donne a été jouée) est coupé,
+     * en mode ALEATOIRE il est remplacé par le prochain paquet du distributeur.
+     */
+    public void nouvelleDonne() {
+        if (mode == Mode.RAMASSAGE) coupe();
+        else {
+            distributeur.servir(ordre, 0);
+            charger(ordre);
         }
+        RAZCurrentAcessIndex();
+    }
+
+    // Range les cartes dans l'ordre des identifiants donnés
+    private void charger(byte[] ids) {
+        for (int i = 0; i < Carte.NB_CARTES; i++) cartes.set(i, Carte.fromId(ids[i]));
     }
 
     /**
@@ -250,12 +296,11 @@ public class Paquet {
         if (cartes.isEmpty()) return; // Vérifie si le paquet est vide
 
         int taille = cartes.size();
-        Random rand = new Random();
 
         // Génère un index de coupe avec une distribution normale (moyenne = taille/2, écart-type = 8)
         int indexCoupe;
         do {
-            indexCoupe = (int) Math.round(rand.nextGaussian() * 8 + taille / 2);
+            indexCoupe = (int) Math.round(aleatoire.nextGaussian() * 8 + taille / 2);
         } while (indexCoupe < 1 || indexCoupe >= taille); // S'assure que l'index est valide
 
         // Applique la coupe en décalant les cartes
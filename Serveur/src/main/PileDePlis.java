@@ -0,0 +1,79 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+
+
+/**
+ * Pile de plis préallouée utilisée par les algorithmes de recherche des bots.
+ * Les coups sont joués puis annulés sur place (jouer / annuler), et un nouveau pli
+ * est ouvert au sommet de la pile quand le pli courant est complet (ouvrirPli / fermerPli).
+ * Aucune allocation n'est faite pendant le parcours de l'arbre.
+ *
+ * Une pile n'est pas partagée entre plusieurs recherches simultanées.
+ */
+public class PileDePlis {
+    // Une donne compte 8 plis, plus un pli ouvert après le dernier pli complet
+    public static final int CAPACITE = Carte.NB_CARTES / Game.NB_PLAYERS + 1;
+
+    private final Plis[] pile = new Plis[CAPACITE];
+    private int sommet = 0;    // Indice du pli courant
+
+
+
+    public PileDePlis(GameContext context) {
+        for (int i = 0; i < CAPACITE; i++) pile[i] = new Plis(context);
+    }
+
+
+    /**
+     * Place une copie du pli de départ à la base de la pile.
+     *
+     * @param depart Le pli en cours dans la partie, il n'est pas modifié.
+     */
+    public void init(Plis depart) {
+        sommet = 0;
+        pile[0].copyFrom(depart);
+    }
+
+
+    /**
+     * Retourne le pli au sommet de la pile.
+     */
+    public Plis courant() {
+        return pile[sommet];
+    }
+
+
+    /**
+     * Joue une carte dans le pli courant.
+     */
+    public void jouer(Joueur j, Carte carte, Couleur atout) {
+        pile[sommet].addCard(j, carte, atout);
+    }
+
+
+    /**
+     * Annule le dernier coup du pli courant, le maître et la carte maîtresse sont restaurés.
+     */
+    public void annuler() {
+        pile[sommet].removeLastCard();
+    }
+
+
+    /**
+     * Ouvre un nouveau pli vide au sommet de la pile, le pli complet reste intact en dessous.
+     */
+    public void ouvrirPli() {
+        pile[++sommet].reset();
+    }
+
+
+    /**
+     * Referme le pli ouvert par {@link #ouvrirPli()} et revient au pli précédent.
+     */
+    public void fermerPli() {
+        sommet--;
+    }
+}
@@ -9,9 +9,17 @@ public class Plis {
     private int index = 0;  // Position d'insertion dans le tableau
     private Paquet.Carte powerfullCard = null; // Carte la plus forte du pli
     private Joueur maitre; // Joueur qui possède le pli
+    private Paquet.Carte.Couleur atout; // Atout sous lequel le pli est joué
+    private final GameContext context; // Contexte de la partie à laquelle appartient le pli
 
+    // Carte maîtresse et maître avant l'ajout de la carte d'indice i, pour pouvoir annuler un coup
+    private final Paquet.Carte[] powerfullAvant = new Paquet.Carte[Game.NB_PLAYERS];
+    private final Joueur[] maitreAvant = new Joueur[Game.NB_PLAYERS];
 
-    public Plis() {}
+
+    public Plis(GameContext context) {
+        this.context = context;
+    }
 
     /**
      * Constructeur de copie qui crée un nouveau Plis à partir d'un Plis existant.
@@ -20,55 +28,52 @@ public class Plis {
      * @param autre Le Plis à copier.
      */
     public Plis(Plis autre) {
-        // Copie les cartes
-        for (int i = 0; i < autre.index; i++) this.plis[i] = autre.plis[i];
+        this.context = autre.context;
+        copyFrom(autre);
+    }
 
-        // Copie les autres attributs
+
+    /**
+     * Remplace le contenu de ce pli par celui d'un autre pli, sans allocation.
+     * Utilisé par la recherche pour initialiser sa pile de plis.
+     *
+     * @param autre Le Plis à copier, il doit appartenir au même contexte.
+     */
+    public void copyFrom(Plis autre) {
+        for (int i = 0; i < plis.length; i++) {
+            this.plis[i] = autre.plis[i];
+            this.powerfullAvant[i] = autre.powerfullAvant[i];
+            this.maitreAvant[i] = autre.maitreAvant[i];
+        }
         this.index = autre.index;
         this.powerfullCard = autre.powerfullCard;
         this.maitre = autre.maitre;
+        this.atout = autre.atout;
     }
 
     /**
      * Ajoute une carte au pli en respectant les règles de prise de pli.
+     * La carte prend la main si elle est plus forte que la carte maîtresse et
+     * qu'elle est soit de la même couleur, soit un atout (voir {@link Classement#bat}).
      * @param j Le joueur qui joue la carte.
      * @param carte La carte jouée.
+     * @param atout La couleur de l'atout de la donne.
      * @throws IndexOutOfBoundsException si plus de 4 cartes sont ajoutées.
      */
-    public void addCard(Joueur j, Paquet.Carte carte) throws IndexOutOfBoundsException {
+    public void addCard(Joueur j, Paquet.Carte carte, Paquet.Carte.Couleur atout) throws IndexOutOfBoundsException {
+        // Mémorise l'état avant le coup pour removeLastCard
+        powerfullAvant[index] = powerfullCard;
+        maitreAvant[index] = maitre;
+
         // Si c'est la première carte, elle définit la couleur demandée
         if (index == 0) {
             powerfullCard = carte;
             maitre = j;
+            this.atout = atout;
         }
-        else {
-            Paquet.Carte.Couleur couleurDemandee = plis[0].getCouleur(); // Première carte jouée
-
-            boolean carteActuelleEstAtout = carte.getCouleur().getIsAtout();
-            boolean cartePowerfullEstAtout = powerfullCard.getCouleur().getIsAtout();
-
-            // Cas 1 : Si la carte actuelle est un atout et que la plus forte n'est pas un atout, elle prend le pli
-            if (carteActuelleEstAtout && !cartePowerfullEstAtout) {
-                powerfullCard = carte;
-                maitre = j;
-                //System.out.println("coupe");
-            }
-            // Cas 2 : Si les deux sont atouts, on garde la plus forte
-            else if (carteActuelleEstAtout && cartePowerfullEstAtout) {
-                if (carte.compareTo(powerfullCard) > 0) {
-                    powerfullCard = carte;
-                    maitre = j;
-                    //System.out.println("au desuss atout");
-                }
-            }
-            // Cas 3 : Si la carte actuelle est de la couleur demandée et que powerfullCard n'est pas un atout
-            else if (carte.getCouleur() == couleurDemandee && !cartePowerfullEstAtout) {
-                if (carte.compareTo(powerfullCard) > 0) {
-                    powerfullCard = carte;
-                    maitre = j;
-                    //System.out.println("battu");
-                }
-            }
+        else if (Classement.bat(carte, powerfullCard, atout)) {
+            powerfullCard = carte;
+            maitre = j;
         }
         // Ajouter la carte au pli
         plis[index] = carte;
@@ -76,6 +81,19 @@ public class Plis {
     }   
 
 
+    /**
+     * Annule le dernier coup joué : retire la dernière carte et restaure la carte maîtresse et le maître du pli.
+     * @throws IndexOutOfBoundsException si le pli est vide.
+     */
+    public void removeLastCard() throws IndexOutOfBoundsException {
+        index--;
+        plis[index] = null;
+        powerfullCard = powerfullAvant[index];
+        maitre = maitreAvant[index];
+        if (index == 0) atout = null;
+    }
+
+
     /**
      * Calcule la valeur totale du pli en fonction des points des cartes.
      * @return La somme des points des cartes dans le pli.
@@ -83,7 +101,7 @@ public class Plis {
     public int getValue() {
         int sum = 0;
 
-        for(int i = 0; i < plis.length; i++) sum += plis[i].getNbPoint();
+        for(int i = 0; i < plis.length; i++) sum += plis[i].getNbPoint(atout);
 
         return sum;
     }
@@ -98,6 +116,7 @@ public class Plis {
         index = 0;
         maitre = null;
         powerfullCard = null;
+        atout = null;
     }
 
 
@@ -109,7 +128,7 @@ public class Plis {
 
     // Indique si le plis est pour l'equipe du joueur j
     public boolean isForPlayer(int noCurrentPlayer) {
-        return maitre.getEquipe().equals(Game.joueurs[noCurrentPlayer].getEquipe());
+        return maitre.getEquipe().equals(context.getJoueur(noCurrentPlayer).getEquipe());
     }
 
     @Override
@@ -174,4 +193,16 @@ public class Plis {
     public int getIndex() {
         return index;
     }
+
+    /**
+     * Retourne l'atout sous lequel le pli est joué.
+     * @return La couleur de l'atout, ou null si le pli est vide.
+     */
+    public Paquet.Carte.Couleur getAtout() {
+        return atout;
+    }
+
+    public GameContext getContext() {
+        return context;
+    }
 }
\ No newline at end of file
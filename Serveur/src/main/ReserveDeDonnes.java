@@ -0,0 +1,127 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+
+import java.util.random.RandomGenerator;
+
+
+
+/**
+ * Réserve de distributions tirées par un bot, conservées d'une décision à l'autre pendant une donne.
+ *
+ * Après un ou deux coups, la plupart des distributions de la décision précédente restent cohérentes :
+ * plutôt que d'en tirer de nouvelles, on retire des mains les cartes jouées depuis et on écarte celles
+ * que le jeu ou l'inférence ont contredites (voir EchantillonneurDonnes.restreindre).
+ * Les survivantes ont été tirées avec les probabilités de la décision précédente, que l'inférence a pu
+ * modifier depuis sans les annuler (Croyances.redistribuer) : chacune est repondérée par le rapport de son poids
+ * selon les nouvelles probabilités à son poids selon les anciennes, puis elles sont rééchantillonnées
+ * proportionnellement à ce rapport (tirage systématique) pour redevenir équiprobables, quitte à en dupliquer certaines.
+ * De nouvelles distributions ne sont tirées que lorsque la réserve est épuisée.
+ *
+ * Les distributions sont rangées à la suite dans un tableau d'entiers : la distribution i occupe
+ * donnes[i * NB_PLAYERS .. (i + 1) * NB_PLAYERS[ (playerIndex -> main simulée).
+ */
+public final class ReserveDeDonnes {
+    public static final int CAPACITE = 256;   // Nombre maximal de distributions conservées
+
+    private static final double ECART_MIN = 1e-9;   // En dessous, les rapports de poids sont considérés égaux
+
+    private final int[] donnes = new int[CAPACITE * Game.NB_PLAYERS];
+    private int taille = 0;     // Nombre de distributions conservées
+    private int curseur = 0;    // Distributions déjà utilisées pour la décision en cours
+
+    // Repondération des distributions conservées
+    private final float[] probasPrecedentes = new float[Game.NB_PLAYERS * Carte.NB_CARTES];   // Probas avec lesquelles elles ont été tirées
+    private final double[] logRapports = new double[CAPACITE];
+    private final double[] poidsCumules = new double[CAPACITE];
+    private final int[] tampon = new int[CAPACITE * Game.NB_PLAYERS];
+
+
+
+    /**
+     * Commence une nouvelle décision : les distributions sont ramenées à la situation préparée dans
+     * l'échantillonneur, celles qui ne la respectent plus sont retirées, les autres sont repondérées selon
+     * les nouvelles probabilités puis rééchantillonnées, et toutes redeviennent utilisables.
+     *
+     * @return Le nombre de distributions conservées.
+     */
+    public int filtrer(EchantillonneurDonnes echantillonneur, RandomGenerator rng) {
+        int conservees = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < taille; i++) {
+            int offset = i * Game.NB_PLAYERS;
+            if (!echantillonneur.restreindre(donnes, offset)) continue;
+
+            if (conservees != i) System.arraycopy(donnes, offset, donnes, conservees * Game.NB_PLAYERS, Game.NB_PLAYERS);
+
+            double l = echantillonneur.logRapportDePoids(donnes, conservees * Game.NB_PLAYERS, probasPrecedentes);
+            logRapports[conservees++] = l;
+            min = Math.min(min, l);
+            max = Math.max(max, l);
+        }
+        taille = conservees;
+        curseur = 0;
+
+        // Probabilités inchangées pour toutes les survivantes : elles restent équiprobables telles quelles
+        if (conservees > 1 && max - min > ECART_MIN) reechantillonner(max, rng);
+
+        // Les survivantes et les prochains tirages suivent maintenant les probabilités préparées
+        echantillonneur.copierProbas(probasPrecedentes);
+
+        return conservees;
+    }
+
+
+    // Remplace les distributions conservées par un tirage systématique proportionnel à leurs rapports de poids
+    private void reechantillonner(double logMax, RandomGenerator rng) {
+        double total = 0;
+        for (int i = 0; i < taille; i++) {
+            total += Math.exp(logRapports[i] - logMax);
+            poidsCumules[i] = total;
+        }
+
+        double pas = total / taille;
+        double u = rng.nextDouble() * pas;
+        int j = 0;
+
+        for (int k = 0; k < taille; k++, u += pas) {
+            while (j < taille - 1 && poidsCumules[j] < u) j++;
+            System.arraycopy(donnes, j * Game.NB_PLAYERS, tampon, k * Game.NB_PLAYERS, Game.NB_PLAYERS);
+        }
+        System.arraycopy(tampon, 0, donnes, 0, taille * Game.NB_PLAYERS);
+    }
+
+
+    /**
+     * Copie dans lot les n prochaines distributions inutilisées pour la décision en cours.
+     * Celles qui manquent sont tirées par l'échantillonneur et gardées pour les décisions suivantes tant qu'il reste de la place.
+     */
+    public void prendre(int[] lot, int n, EchantillonneurDonnes echantillonneur, RandomGenerator rng) {
+        for (int i = 0; i < n; i++) {
+            int offset = i * Game.NB_PLAYERS;
+
+            if (curseur == taille) {
+                // Réserve pleine : la distribution n'est pas conservée
+                if (taille == CAPACITE) {
+                    echantillonneur.tirer(lot, offset, rng);
+                    continue;
+                }
+                echantillonneur.tirer(donnes, taille++ * Game.NB_PLAYERS, rng);
+            }
+            System.arraycopy(donnes, curseur++ * Game.NB_PLAYERS, lot, offset, Game.NB_PLAYERS);
+        }
+    }
+
+
+    public void vider() {
+        taille = 0;
+        curseur = 0;
+    }
+
+
+    public int getTaille() {
+        return taille;
+    }
+}
@@ -3,55 +3,51 @@ package src.main;
 import src.main.Paquet.Carte;
 import src.main.Paquet.Carte.*;
 
-import java.util.stream.Collectors;
-import java.util.List;
-import java.util.Map;
-
-import java.util.Set;
-import java.util.ArrayList;
-import java.util.HashMap;
-
 
 
 /**
  * Classe abstraite implémentant les algorithmes de règles du jeu.
+ * Les mains et les ensembles de cartes sont manipulés sous forme de CardSet (masque de 32 bits).
  */
 public abstract class Rules {
+    private static final Couleur[] COULEURS = Couleur.values();
 
    /**
      * Détermine les cartes jouables par un joueur dans un pli donné en appliquant les règles de la Belote.
      *
      * @param contexte Le pli en cours.
      * @param player   Le joueur dont on vérifie les cartes jouables.
-     * @return Une liste des cartes jouables par le joueur.
+     * @param main     La main du joueur (CardSet).
+     * @param atout    La couleur de l'atout de la donne.
+     * @return Le CardSet des cartes jouables par le joueur.
      */
-    public static List<Carte> playable(Plis contexte, int noCurrentPlayer, Map<Couleur, List<Carte>> main) {
+    public static int playable(Plis contexte, int noCurrentPlayer, int main, Couleur atout) {
         // Si le joueur est le premier à jouer, il peut jouer n’importe quelle carte.
-        if (contexte.getPlis()[0] == null) return getAllCards(main);
+        if (contexte.getPlis()[0] == null) return main;
 
         Carte carteDemande = contexte.getPlis()[0];
-        boolean atoutDejaPresent = contexte.getPowerfullCard().getCouleur().getIsAtout();
+        boolean atoutDejaPresent = contexte.getPowerfullCard().getCouleur() == atout;
 
         // Si la couleur demandée est un atout
-        if (carteDemande.getCouleur().getIsAtout()) return playAtout(contexte, noCurrentPlayer, main);
+        if (carteDemande.getCouleur() == atout) return playAtout(contexte, main, atout);
 
         // Sinon, la couleur demandée n'est pas un atout
-        else return playNonAtout(contexte, noCurrentPlayer, main, carteDemande, atoutDejaPresent);
+        else return playNonAtout(contexte, noCurrentPlayer, main, carteDemande, atoutDejaPresent, atout);
     }
 
     /**
      * Gestion du cas où la carte demandée est un atout.
      */
-    private static List<Carte> playAtout(Plis contexte, int noCurrentPlayer, Map<Couleur, List<Carte>> main) {
-        List<Carte> atoutCards = getCardsOfColor(main, contexte.getPlis()[0].getCouleur());
-        if (atoutCards == null || atoutCards.isEmpty())
+    private static int playAtout(Plis contexte, int main, Couleur atout) {
+        int atoutCards = CardSet.ofSuit(main, atout);
+        if (atoutCards == CardSet.EMPTY)
             // Si le joueur ne possède pas d'atouts, il peut jouer n'importe quelle carte.
-            return getAllCards(main);
+            return main;
 
         // On recherche les atouts qui permettent de surcouper le pli
-        List<Carte> overcutCards = getOvercutCards(atoutCards, contexte.getPowerfullCard());
+        int overcutCards = CardSet.above(atoutCards, contexte.getPowerfullCard(), atout);
         // S'il en existe, le joueur doit les jouer
-        if (!overcutCards.isEmpty()) return overcutCards;
+        if (overcutCards != CardSet.EMPTY) return overcutCards;
 
         // Sinon, il doit jouer un atout, même s'il ne peut pas surcouper
         return atoutCards;
@@ -60,22 +56,22 @@ public abstract class Rules {
     /**
      * Gestion du cas où la carte demandée n'est pas un atout.
      */
-    private static List<Carte> playNonAtout(Plis contexte, int noCurrentPlayer, Map<Couleur, List<Carte>> main, Carte carteDemande, boolean atoutDejaPresent) {
+    private static int playNonAtout(Plis contexte, int noCurrentPlayer, int main, Carte carteDemande, boolean atoutDejaPresent, Couleur atout) {
         // Si le joueur peut suivre la couleur demandée, il doit le faire.
-        List<Carte> cardsOfColor = getCardsOfColor(main, carteDemande.getCouleur());
-        if (cardsOfColor != null && !cardsOfColor.isEmpty()) return cardsOfColor;
+        int cardsOfColor = CardSet.ofSuit(main, carteDemande.getCouleur());
+        if (cardsOfColor != CardSet.EMPTY) return cardsOfColor;
 
         // Si l'equipe du jouer a le plis, il peut jouer ce qu'il veut
-        if (contexte.isForPlayer(noCurrentPlayer)) return getAllCards(main);
+        if (contexte.isForPlayer(noCurrentPlayer)) return main;
 
         // Le joueur n'a pas la couleur demandée, il doit alors couper s'il possède des atouts.
-        List<Carte> atoutCards = getCardsOfColor(main, Joueur.colorAtout);
-        if (atoutCards != null && !atoutCards.isEmpty()) {
+        int atoutCards = CardSet.ofSuit(main, atout);
+        if (atoutCards != CardSet.EMPTY) {
             if (atoutDejaPresent) {
                 // Si quelqu'un a déjà coupé, il faut tenter de surcouper.
-                List<Carte> overcutCards = getOvercutCards(atoutCards, contexte.getPowerfullCard());
+                int overcutCards = CardSet.above(atoutCards, contexte.getPowerfullCard(), atout);
                 // S'il ne peut pas surcouper, il est quand même obligé de couper.
-                if (!overcutCards.isEmpty()) return overcutCards;
+                if (overcutCards != CardSet.EMPTY) return overcutCards;
                 else  return atoutCards;
             }
             // Si personne n'a encore coupé, jouer un atout.
@@ -83,90 +79,181 @@ public abstract class Rules {
         }
 
         // Si le joueur ne possède ni la couleur demandée ni d'atout, il peut jouer n'importe quelle carte.
-        return getAllCards(main);
+        return main;
     }
 
 
+    ////////////////////////////////////////////////////////////////////////////////////
+    // Méthode pour l'IA : calcul des successeurs (cartes non jouées) en fonction du contexte //
+    ////////////////////////////////////////////////////////////////////////////////////
+
     /**
-     * Renvoie toutes les cartes de la main du joueur.
+     * Retourne l'ensemble des cartes encore jouables dans le jeu en fonction des cartes déjà jouées Pour un joueur donnée.
+     * Cette méthode est utile pour les simulations et l'IA afin de déterminer les coups possibles.
+     *
+     * Règles appliquées :
+     * - Si aucun coup n'a été joué dans le pli, toutes les cartes non jouées sont disponibles.
+     * - Si la couleur demandée est toujours présente dans le jeu, seules ces cartes sont considérées.
+     * - En cas de demande d'atout, et si un atout a déjà été joué, il faut surcouper si possible.
+     *
+     * @param contexte      Le pli en cours.
+     * @param main          La main du joueur qui exécute miniMax (CardSet).
+     * @param cartesJouees  Les cartes déjà jouées (CardSet).
+     * @param atout         La couleur de l'atout de la donne.
+     * @return Le CardSet des cartes non jouées filtrées selon la règle du suivi.
      */
-    private static List<Carte> getAllCards(Map<Couleur, List<Carte>> main) {
-        return main.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+    public static int successeur(Plis contexte, int main, int noCurrentPlayer, int cartesJouees, Couleur atout) {
+        // Toutes les cartes que le joueur a encore une chance de posséder
+        int possibles = contexte.getContext().getCroyances().getPossibles(noCurrentPlayer);
+
+        // On retire celles de la main du bot et celles déjà jouées
+        int remainingCards = possibles & ~main & ~cartesJouees;
+
+        // On retourne le résultat filtré selon les règles du jeu
+        return playable(contexte, noCurrentPlayer, remainingCards, atout);
     }
 
 
     /**
-     * Renvoie la liste des cartes de la main du joueur pour une couleur donnée.
+     * Réduit un ensemble de coups aux représentants des cartes équivalentes.
+     * Deux cartes d'une même couleur sont équivalentes si toutes les cartes de rang intermédiaire sont sorties du jeu
+     * (ni dans une main, ni dans le pli en cours) et si elles valent le même nombre de points :
+     * les jouer mène alors aux mêmes plis et aux mêmes points. Seule la plus faible de chaque groupe est conservée.
+     *
+     * @param coups    Les coups à réduire (CardSet).
+     * @param vivantes Les cartes encore en jeu : cartes des mains et du pli en cours (CardSet).
+     * @param atout    La couleur de l'atout de la donne.
+     * @return Le CardSet des représentants.
      */
-    private static List<Carte> getCardsOfColor(Map<Couleur, List<Carte>> main, Couleur couleur) {
-        List<Carte> cards = main.get(couleur);
-        return cards != null ? new ArrayList<>(cards) : new ArrayList<>();  // Crée une nouvelle liste
+    public static int representants(int coups, int vivantes, Couleur atout) {
+        int[] points = Classement.pointsRow(atout);
+        int res = coups;
+
+        for (Couleur couleur : COULEURS) {
+            // Il faut au moins deux cartes de la couleur pour avoir des équivalences
+            if (CardSet.size(CardSet.ofSuit(coups, couleur)) < 2) continue;
+
+            int[] ordre = Classement.ordre(atout, couleur);
+            int precedente = -1;   // Carte vivante précédente si elle fait partie des coups
+
+            for (int id : ordre) {
+                // Une carte sortie du jeu ne sépare pas deux cartes
+                if (!CardSet.containsId(vivantes, id)) continue;
+
+                if (CardSet.containsId(coups, id)) {
+                    if (precedente != -1 && points[precedente] == points[id]) res &= ~CardSet.bit(id);
+                    precedente = id;
+                }
+                // Une carte encore en jeu qui n'est pas un coup sépare les deux groupes
+                else precedente = -1;
+            }
+        }
+        return res;
     }
-    
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Génération de coups réduite pour la recherche : au plus deux cartes par groupe de cartes équivalentes //
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+
     /**
-     * Renvoie la liste des atouts permettant de surcouper l'atout actuellement le plus fort dans le pli.
+     * Variante de playable pour la recherche : les cartes jouables qui se suivent (toutes les cartes de rang
+     * intermédiaire sont sorties du jeu) sont regroupées, voir {@link #reduire}.
+     *
+     * @param cartesJouees Les cartes jouées dans la donne, réelles (Game.cartePlay) et simulées (CardSet).
+     * @return Le CardSet des cartes jouables à explorer.
      */
-    private static List<Carte> getOvercutCards(List<Carte> atoutCards, Carte currentPowerful) {
-        List<Carte> res = new ArrayList<>();
+    public static int playableReduit(Plis contexte, int noCurrentPlayer, int main, int cartesJouees, Couleur atout) {
+        int coups = playable(contexte, noCurrentPlayer, main, atout);
+        return reduire(coups, vivantes(contexte, cartesJouees), atout);
+    }
 
-        for (Carte carte : atoutCards)
-            if (carte.compareTo(currentPowerful) > 0) res.add(carte);
+
+    /**
+     * Retourne les cartes encore en jeu : cartes non jouées et cartes du pli en cours.
+     *
+     * @param contexte     Le pli en cours.
+     * @param cartesJouees Les cartes jouées dans la donne, pli en cours compris (CardSet).
+     */
+    public static int vivantes(Plis contexte, int cartesJouees) {
+        int res = CardSet.FULL & ~cartesJouees;
+
+        for (int i = 0; i < contexte.getIndex(); i++) res = CardSet.add(res, contexte.getPlis()[i]);
 
         return res;
     }
 
 
-    ////////////////////////////////////////////////////////////////////////////////////
-    // Méthode pour l'IA : calcul des successeurs (cartes non jouées) en fonction du contexte //
-    ////////////////////////////////////////////////////////////////////////////////////
-
     /**
-     * Retourne l'ensemble des cartes encore jouables dans le jeu en fonction des cartes déjà jouées Pour un joueur donnée.
-     * Cette méthode est utile pour les simulations et l'IA afin de déterminer les coups possibles.
+     * Réduit un ensemble de coups en regroupant les cartes qui se suivent dans une couleur une fois les cartes sorties
+     * du jeu retirées : elles font les mêmes plis, seuls les points donnés changent.
+     * De chaque groupe on garde la plus faible et la plus faible de celles qui valent le plus de points,
+     * qui sont les deux seuls choix utiles (donner le moins ou le plus de points). Un groupe de cartes
+     * de même valeur est donc réduit à une seule carte, comme dans {@link #representants}.
      *
-     * Règles appliquées :
-     * - Si aucun coup n'a été joué dans le pli, toutes les cartes non jouées sont disponibles.
-     * - Si la couleur demandée est toujours présente dans le jeu, seules ces cartes sont considérées.
-     * - En cas de demande d'atout, et si un atout a déjà été joué, il faut surcouper si possible.
-     *
-     * @param contexte      Le pli en cours.
-     * @param cartesJouees  Les cartes déjà jouées, organisées par couleur.
-     * @param main        La main du joueur qui exécute miniMax.
-     * @return La liste des cartes non jouées filtrées selon la règle du suivi.
+     * @param coups    Les coups à réduire (CardSet).
+     * @param vivantes Les cartes encore en jeu : cartes non jouées et cartes du pli en cours (CardSet).
+     * @param atout    La couleur de l'atout de la donne.
+     * @return Le CardSet des coups conservés.
      */
-    public static List<Carte> successeur(Plis contexte, Map<Couleur, List<Carte>> main, int noCurrentPlayer, Set<Carte> newCartejouee) {
-        // Récupère les probabilités de cartes pour le joueur
-        Map<Couleur, Map<Carte, Float>> possibleCardForPlayer = Bot.cardsProbaPerPlayer.get(noCurrentPlayer);
-        Map<Couleur, List<Carte>> remainingCards = new HashMap<>();
-
-        // Construction de remainingCards
-        // 1. Ajout de possibleCardForPlayer
-        for (Map.Entry<Couleur, Map<Carte, Float>> entry : possibleCardForPlayer.entrySet()) {
-            Couleur couleur = entry.getKey();
-            Map<Carte, Float> cartesAvecProba = entry.getValue();
-
-            if (cartesAvecProba != null) {
-                List<Carte> cartesRestantes = new ArrayList<>();
-
-                for (Carte carte : cartesAvecProba.keySet()) {
-                    if (carte != null) {
-                        List<Carte> cartesEnMain = main.get(couleur);
-                        boolean estDansMain = cartesEnMain != null && cartesEnMain.contains(carte);
-                        boolean estDejaJouee = newCartejouee.contains(carte);
-
-                        if (!estDansMain && !estDejaJouee) cartesRestantes.add(carte);
-                    }
+    public static int reduire(int coups, int vivantes, Couleur atout) {
+        int[] points = Classement.pointsRow(atout);
+        int res = coups;
+
+        for (Couleur couleur : COULEURS) {
+            // Il faut au moins deux cartes de la couleur pour avoir des équivalences
+            if (CardSet.size(CardSet.ofSuit(coups, couleur)) < 2) continue;
+
+            int groupe = CardSet.EMPTY;   // Cartes du groupe en cours
+            int premiere = -1;            // Plus faible carte du groupe
+            int plusChere = -1;           // Plus faible des cartes du groupe qui valent le plus de points
+
+            for (int id : Classement.ordre(atout, couleur)) {
+                // Une carte sortie du jeu ne sépare pas deux cartes
+                if (!CardSet.containsId(vivantes, id)) continue;
+
+                if (CardSet.containsId(coups, id)) {
+                    if (premiere == -1) premiere = plusChere = id;
+                    else if (points[id] > points[plusChere]) plusChere = id;
+                    groupe |= CardSet.bit(id);
+                }
+                // Une carte encore en jeu qui n'est pas un coup termine le groupe
+                else if (premiere != -1) {
+                    res = (res & ~groupe) | CardSet.bit(premiere) | CardSet.bit(plusChere);
+                    groupe = CardSet.EMPTY;
+                    premiere = -1;
                 }
-                remainingCards.put(couleur, cartesRestantes);
             }
+            if (premiere != -1) res = (res & ~groupe) | CardSet.bit(premiere) | CardSet.bit(plusChere);
         }
+        return res;
+    }
 
-        // À ce stade, remainingCards contient toutes les cartes encore possibles pour le joueur
-        // On retourne le résultat filtré selon les règles du jeu
-        return playable(contexte, noCurrentPlayer, remainingCards);
+
+    /**
+     * Retourne les cartes d'un groupe dont id est la carte conservée par {@link #reduire} :
+     * id et les cartes écartées qui la suivent dans son groupe, jusqu'à la prochaine carte conservée.
+     * Utile pour reporter sur un coup conservé le poids des coups écartés (probabilités des adversaires).
+     *
+     * @param id       La carte conservée.
+     * @param coups    Les coups avant réduction (CardSet).
+     * @param reduits  Les coups conservés (CardSet).
+     * @param vivantes Les cartes encore en jeu (CardSet).
+     * @param atout    La couleur de l'atout de la donne.
+     * @return Le CardSet des cartes représentées par id, id compris.
+     */
+    public static int representees(int id, int coups, int reduits, int vivantes, Couleur atout) {
+        int res = CardSet.bit(id);
+        boolean apres = false;
+
+        for (int autre : Classement.ordre(atout, Carte.fromId(id).getCouleur())) {
+            if (autre == id) { apres = true; continue; }
+            if (!apres || !CardSet.containsId(vivantes, autre)) continue;
+
+            // Fin du groupe : carte vivante qui n'est pas un coup, ou carte conservée
+            if (!CardSet.containsId(coups, autre) || CardSet.containsId(reduits, autre)) break;
+            res |= CardSet.bit(autre);
+        }
+        return res;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.Arrays;
+
+
+
+/**
+ * Solveur exact de fin de donne à cartes ouvertes (toutes les mains sont connues).
+ *
+ * Il calcule par alpha‑beta le nombre exact de points que l'équipe d'un joueur remporte sur le reste de la donne,
+ * pli en cours et dix de der compris, sans fonction d'évaluation heuristique.
+ * Les positions en début de pli sont mémorisées avec des bornes inférieure et supérieure, et les cartes équivalentes
+ * ne sont explorées qu'une fois (voir {@link Rules#representants}).
+ *
+ * Les valeurs mémorisées ne dépendent que des cartes restantes, de leurs détenteurs, du joueur qui ouvre le pli,
+ * de l'atout et de l'équipe comptée : la mémoire est donc conservée d'un appel à l'autre tant que ces deux derniers
+ * ne changent pas. Un solveur n'est pas partagé entre plusieurs recherches simultanées.
+ */
+public class SolveurCartesOuvertes {
+    public static final int DIX_DE_DER = 10;        // Bonus du dernier pli
+    public static final int INTERROMPU = Integer.MIN_VALUE;   // Résultat d'une recherche coupée par l'échéance
+
+    private static final int MAX_POINTS = 162;      // Total des points d'une donne, dix de der compris
+    private static final int TAILLE_MEMO = 1 << 15; // Nombre d'entrées de la mémoire (puissance de 2)
+
+    private GameContext context;
+    private PileDePlis pile;
+    private final int[] mains = new int[Game.NB_PLAYERS];
+    private final OrdreDesCoups ordre = new OrdreDesCoups();
+
+    // Mémoire des positions en début de pli
+    private final long[] clesMains = new long[TAILLE_MEMO];   // Détenteur de chaque carte restante, 2 bits par carte
+    private final long[] clesEtat = new long[TAILLE_MEMO];    // Cartes restantes et joueur qui ouvre, 0 si l'entrée est vide
+    private final int[] bornesInf = new int[TAILLE_MEMO];
+    private final int[] bornesSup = new int[TAILLE_MEMO];
+
+    private Couleur atout;
+    private int noJoueur = -1;  // Joueur du point de vue duquel les points sont comptés
+    private long echeance;      // Date limite de la recherche (System.nanoTime)
+    private int compteur = 0;   // Compteur de noeuds, pour ne consulter l'horloge que de temps en temps
+    private long nbNoeuds = 0;  // Nombre total de noeuds explorés
+
+    // Levée pour abandonner une recherche dont l'échéance est dépassée, une seule instance sans trace d'appel
+    private static final class ResolutionInterrompue extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ResolutionInterrompue() {
+            super("Échéance de la résolution dépassée", null, false, false);
+        }
+    }
+
+    private static final ResolutionInterrompue INTERRUPTION = new ResolutionInterrompue();
+
+
+
+    public SolveurCartesOuvertes(GameContext context) {
+        this.context = context;
+        this.pile = new PileDePlis(context);
+    }
+
+
+    /**
+     * Calcule les points remportés par l'équipe de noJoueur sur le reste de la donne, en jeu parfait des deux camps.
+     *
+     * @param plis     Le pli en cours, il n'est pas modifié.
+     * @param joueur   Le joueur qui doit jouer.
+     * @param mains    Les mains des quatre joueurs (CardSet), elles ne sont pas modifiées.
+     * @param atout    La couleur de l'atout.
+     * @param noJoueur Le joueur dont l'équipe est comptée.
+     * @param echeance Date limite (System.nanoTime) au delà de laquelle la recherche est abandonnée.
+     * @return Les points de l'équipe, pli en cours et dix de der compris, ou INTERROMPU.
+     */
+    public int resoudre(Plis plis, int joueur, int[] mains, Couleur atout, int noJoueur, long echeance) {
+        // La mémoire n'est valable que pour un atout et une équipe donnés
+        if (atout != this.atout || noJoueur != this.noJoueur) {
+            vider();
+            ordre.nouvelleRecherche();
+            this.atout = atout;
+            this.noJoueur = noJoueur;
+        }
+        this.echeance = echeance;
+
+        pile.init(plis);
+        System.arraycopy(mains, 0, this.mains, 0, Game.NB_PLAYERS);
+
+        try {
+            return chercher(joueur, -1, MAX_POINTS + 1);
+        }
+        catch (ResolutionInterrompue e) {
+            return INTERROMPU;
+        }
+        finally {
+            ordre.publier();
+        }
+    }
+
+
+    /**
+     * Choisit les heuristiques d'ordonnancement des coups du solveur (voir OrdreDesCoups.Heuristiques).
+     */
+    public void setHeuristiques(OrdreDesCoups.Heuristiques heuristiques) {
+        ordre.setHeuristiques(heuristiques);
+    }
+
+
+    /**
+     * Rattache le solveur à une autre partie, sans réallouer sa mémoire : la résolution suivante la vide.
+     */
+    public void changerContexte(GameContext context) {
+        this.context = context;
+        this.pile = new PileDePlis(context);
+        this.atout = null;
+        this.noJoueur = -1;
+    }
+
+
+    /**
+     * Vide la mémoire des positions.
+     */
+    public void vider() {
+        Arrays.fill(clesEtat, 0L);
+    }
+
+
+    // Alpha-beta sur les points de l'équipe de noJoueur
+    private int chercher(int joueur, int alpha, int beta) {
+        if ((++compteur & 0x3FF) == 0 && System.nanoTime() > echeance) throw INTERRUPTION;
+        nbNoeuds++;
+
+        Plis plis = pile.courant();
+        int restantes = mains[0] | mains[1] | mains[2] | mains[3];
+
+        // Fin de pli : on compte ses points et le gagnant ouvre le pli suivant
+        if (plis.getIndex() == Game.NB_PLAYERS) {
+            int gagnant = plis.getWinner();
+            int gain = 0;
+
+            if (memeEquipe(gagnant)) gain = plis.getValue() + (restantes == CardSet.EMPTY ? DIX_DE_DER : 0);
+            if (restantes == CardSet.EMPTY) return gain;
+
+            pile.ouvrirPli();
+            int v = gain + chercher(gagnant, alpha - gain, beta - gain);
+            pile.fermerPli();
+            return v;
+        }
+
+        // Début de pli : consultation de la mémoire
+        int entree = -1;
+        long cleMains = 0, cleEtat = 0;
+
+        if (plis.getIndex() == 0) {
+            cleMains = cleMains();
+            cleEtat = (restantes & 0xFFFFFFFFL) | ((long) joueur << 32) | (1L << 34);
+            entree = indice(cleMains, cleEtat);
+
+            if (clesEtat[entree] == cleEtat && clesMains[entree] == cleMains) {
+                int inf = bornesInf[entree], sup = bornesSup[entree];
+
+                if (inf == sup || inf >= beta) return inf;
+                if (sup <= alpha) return sup;
+                alpha = Math.max(alpha, inf);
+                beta = Math.min(beta, sup);
+            }
+        }
+
+        // Cartes encore en jeu : mains et pli en cours
+        int vivantes = restantes;
+        for (int i = 0; i < plis.getIndex(); i++) vivantes = CardSet.add(vivantes, plis.getPlis()[i]);
+
+        int main = mains[joueur];
+        int coups = Rules.representants(Rules.playable(plis, joueur, main, atout), vivantes, atout);
+        boolean max = memeEquipe(joueur);
+        Joueur j = context.getJoueur(joueur);
+        int suivant = (joueur + 1) % Game.NB_PLAYERS;
+
+        int alphaRecherche = alpha, betaRecherche = beta;
+        int best = max ? -1 : MAX_POINTS + 1;
+
+        // Ordre des coups : cartes qui prennent la main, killers puis historique
+        int niveau = Carte.NB_CARTES - CardSet.size(restantes);
+        int nbCoups = CardSet.size(coups);
+        int[] ordreCoups = ordre.trier(coups, plis, TableDeTransposition.AUCUN_COUP, niveau, atout);
+
+        for (int k = 0; k < nbCoups; k++) {
+            Carte carte = Carte.fromId(ordreCoups[k]);
+
+            pile.jouer(j, carte, atout);
+            mains[joueur] = CardSet.remove(main, carte);
+
+            int v = chercher(suivant, alpha, beta);
+
+            mains[joueur] = main;
+            pile.annuler();
+
+            if (max) {
+                best = Math.max(best, v);
+                alpha = Math.max(alpha, best);
+            }
+            else {
+                best = Math.min(best, v);
+                beta = Math.min(beta, best);
+            }
+            if (alpha >= beta) {
+                ordre.coupure(niveau, k, CardSet.size(restantes) / Game.NB_PLAYERS);
+                break;
+            }
+        }
+
+        // Mémorisation du résultat sous forme de bornes
+        if (entree >= 0) {
+            if (clesEtat[entree] != cleEtat || clesMains[entree] != cleMains) {
+                clesEtat[entree] = cleEtat;
+                clesMains[entree] = cleMains;
+                bornesInf[entree] = 0;
+                bornesSup[entree] = MAX_POINTS;
+            }
+            if (best <= alphaRecherche) bornesSup[entree] = best;
+            else if (best >= betaRecherche) bornesInf[entree] = best;
+            else bornesInf[entree] = bornesSup[entree] = best;
+        }
+        return best;
+    }
+
+
+    // Indique si un joueur est dans l'équipe comptée (les partenaires sont face à face)
+    private boolean memeEquipe(int joueur) {
+        return (joueur - noJoueur) % 2 == 0;
+    }
+
+
+    // Code le détenteur de chaque carte restante sur 2 bits
+    private long cleMains() {
+        long cle = 0;
+
+        for (int p = 1; p < Game.NB_PLAYERS; p++)
+            for (int reste = mains[p]; reste != 0; reste = CardSet.next(reste))
+                cle |= (long) p << (2 * CardSet.first(reste));
+
+        return cle;
+    }
+
+
+    private static int indice(long cleMains, long cleEtat) {
+        long h = (cleMains ^ (cleEtat * 0x9E3779B97F4A7C15L)) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h >>> 40) & (TAILLE_MEMO - 1);
+    }
+
+
+    public long getNbNoeuds() {
+        return nbNoeuds;
+    }
+}
@@ -0,0 +1,254 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+
+/**
+ * Table de transposition de taille fixe utilisée par pureAlphaBeta.
+ *
+ * Une position est identifiée par une clé de Zobrist construite à partir des cartes restantes de chaque joueur,
+ * des cartes du pli en cours (avec le joueur qui les a posées), du joueur qui a ouvert le pli, du joueur qui doit jouer
+ * et de l'atout. La clé est mise à jour de façon incrémentale à chaque coup (voir {@link #jouer} et {@link #finDePli}).
+ *
+ * La table est découpée en seaux de deux entrées :
+ * - la première est remplacée seulement par un résultat au moins aussi profond, ou si elle date d'une recherche précédente ;
+ * - la seconde est toujours remplacée.
+ *
+ * Les valeurs stockées sont relatives aux points déjà accumulés avant la position, afin d'être réutilisables
+ * quel que soit le chemin qui y mène. Les données sont rangées dans des tableaux primitifs, aucune allocation
+ * n'est faite pendant la recherche. Une table n'est pas partagée entre plusieurs recherches simultanées.
+ */
+public class TableDeTransposition {
+    // Types de borne d'une entrée
+    public static final int EXACTE = 0;
+    public static final int INFERIEURE = 1;   // La valeur réelle est >= à la valeur stockée
+    public static final int SUPERIEURE = 2;   // La valeur réelle est <= à la valeur stockée
+
+    public static final int AUCUN_COUP = -1;
+    public static final int TAILLE_PAR_DEFAUT = 1 << 16;   // Nombre de seaux par défaut
+
+    // Nombres aléatoires de Zobrist, tirés avec une graine fixe pour que les clés soient reproductibles
+    private static final long[][] Z_MAIN = new long[Game.NB_PLAYERS][Carte.NB_CARTES];
+    private static final long[][] Z_PLI = new long[Game.NB_PLAYERS][Carte.NB_CARTES];
+    private static final long[] Z_MENEUR = new long[Game.NB_PLAYERS];
+    private static final long[] Z_TOUR = new long[Game.NB_PLAYERS];
+    private static final long[] Z_ATOUT = new long[Classement.SANS_ATOUT + 1];
+
+    static {
+        SplittableRandom rng = new SplittableRandom(0x5EEDBE107EL);
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++) {
+            for (int id = 0; id < Carte.NB_CARTES; id++) {
+                Z_MAIN[p][id] = rng.nextLong();
+                Z_PLI[p][id] = rng.nextLong();
+            }
+            Z_MENEUR[p] = rng.nextLong();
+            Z_TOUR[p] = rng.nextLong();
+        }
+        for (int a = 0; a < Z_ATOUT.length; a++) Z_ATOUT[a] = rng.nextLong();
+    }
+
+    private final int masque;       // Nombre de seaux - 1 (le nombre de seaux est une puissance de 2)
+    private final long[] cles;      // Clé de chaque entrée (2 entrées par seau)
+    private final float[] valeurs;  // Valeur relative de chaque entrée
+    private final int[] infos;      // Profondeur, borne, meilleur coup et génération, regroupés dans un int
+    private int generation = 1;     // Numéro de la recherche en cours, 0 signifie entrée vide
+
+    // Statistiques de la table
+    private long nbSondes = 0;
+    private long nbSucces = 0;
+
+
+
+    public TableDeTransposition() {
+        this(TAILLE_PAR_DEFAUT);
+    }
+
+
+    /**
+     * @param nbSeaux Nombre de seaux, arrondi à la puissance de 2 supérieure.
+     */
+    public TableDeTransposition(int nbSeaux) {
+        int taille = Integer.highestOneBit(Math.max(1, nbSeaux - 1)) << 1;
+        masque = taille - 1;
+        cles = new long[2 * taille];
+        valeurs = new float[2 * taille];
+        infos = new int[2 * taille];
+    }
+
+
+    /**************************************************************************************************
+     * Clés de Zobrist
+     * ************************************************************************************************
+     */
+
+
+    /**
+     * Calcule la clé d'une position à partir de rien.
+     *
+     * @param mains   Les mains des joueurs (CardSet), indexées par numéro de joueur.
+     * @param plis    Le pli en cours.
+     * @param joueur  Le joueur qui doit jouer.
+     * @param atout   La couleur de l'atout.
+     */
+    public static long cle(int[] mains, Plis plis, int joueur, Couleur atout) {
+        long cle = Z_ATOUT[Classement.indexAtout(atout)] ^ Z_TOUR[joueur];
+
+        for (int p = 0; p < Game.NB_PLAYERS; p++)
+            for (int reste = mains[p]; reste != 0; reste = CardSet.next(reste))
+                cle ^= Z_MAIN[p][CardSet.first(reste)];
+
+        int meneur = meneur(plis, joueur);
+        cle ^= Z_MENEUR[meneur];
+
+        for (int i = 0; i < plis.getIndex(); i++)
+            cle ^= Z_PLI[(meneur + i) % Game.NB_PLAYERS][plis.getPlis()[i].getId()];
+
+        return cle;
+    }
+
+
+    /**
+     * Met à jour la clé quand un joueur pose une carte : la carte passe de sa main au pli et la main passe au joueur suivant.
+     */
+    public static long jouer(long cle, int joueur, Carte carte) {
+        int id = carte.getId();
+        return cle ^ Z_MAIN[joueur][id] ^ Z_PLI[joueur][id] ^ Z_TOUR[joueur] ^ Z_TOUR[(joueur + 1) % Game.NB_PLAYERS];
+    }
+
+
+    /**
+     * Met à jour la clé quand un pli complet est ramassé : le pli est vidé et le gagnant ouvre le pli suivant.
+     *
+     * @param plis    Le pli complet.
+     * @param meneur  Le joueur qui a ouvert ce pli (c'est aussi le joueur dont c'est le tour).
+     * @param gagnant Le joueur qui remporte le pli.
+     */
+    public static long finDePli(long cle, Plis plis, int meneur, int gagnant) {
+        for (int i = 0; i < Game.NB_PLAYERS; i++)
+            cle ^= Z_PLI[(meneur + i) % Game.NB_PLAYERS][plis.getPlis()[i].getId()];
+
+        return cle ^ Z_MENEUR[meneur] ^ Z_MENEUR[gagnant] ^ Z_TOUR[meneur] ^ Z_TOUR[gagnant];
+    }
+
+
+    /**
+     * Retrouve le joueur qui a ouvert le pli, sachant le joueur qui doit jouer.
+     */
+    public static int meneur(Plis plis, int joueur) {
+        return ((joueur - plis.getIndex()) % Game.NB_PLAYERS + Game.NB_PLAYERS) % Game.NB_PLAYERS;
+    }
+
+
+    /**************************************************************************************************
+     * Accès à la table
+     * ************************************************************************************************
+     */
+
+
+    /**
+     * Commence une nouvelle recherche : les entrées existantes restent lisibles
+     * mais l'entrée à profondeur préférée de chaque seau redevient remplaçable.
+     */
+    public void nouvelleRecherche() {
+        generation = (generation % 0xFF) + 1;
+    }
+
+
+    /**
+     * Vide complètement la table.
+     */
+    public void vider() {
+        Arrays.fill(cles, 0L);
+        Arrays.fill(infos, 0);
+        generation = 1;
+        nbSondes = 0;
+        nbSucces = 0;
+    }
+
+
+    /**
+     * Cherche une position dans la table.
+     *
+     * @return L'indice de l'entrée, à utiliser avec les accesseurs, ou -1 si la position est absente.
+     */
+    public int chercher(long cle) {
+        nbSondes++;
+        int i = 2 * ((int) cle & masque);
+
+        if (infos[i] != 0 && cles[i] == cle) { nbSucces++; return i; }
+        if (infos[i + 1] != 0 && cles[i + 1] == cle) { nbSucces++; return i + 1; }
+        return -1;
+    }
+
+
+    /**
+     * Enregistre le résultat de la recherche d'une position.
+     *
+     * @param cle        La clé de la position.
+     * @param profondeur Le nombre de plis restant à explorer depuis la position.
+     * @param borne      EXACTE, INFERIEURE ou SUPERIEURE.
+     * @param valeur     La valeur trouvée, relative aux points accumulés avant la position.
+     * @param coup       L'identifiant du meilleur coup trouvé, ou AUCUN_COUP.
+     */
+    public void enregistrer(long cle, int profondeur, int borne, float valeur, int coup) {
+        int i = 2 * ((int) cle & masque);
+        int info = (generation << 24) | ((profondeur & 0xFF) << 16) | (borne << 8) | (coup & 0xFF);
+
+        // Entrée à profondeur préférée : vide, même position, ancienne recherche ou résultat au moins aussi profond
+        if (infos[i] == 0 || cles[i] == cle || generationDe(i) != generation || profondeur >= profondeur(i)) {
+            cles[i] = cle;
+            valeurs[i] = valeur;
+            infos[i] = info;
+        }
+        // Sinon l'entrée toujours remplacée
+        else {
+            cles[i + 1] = cle;
+            valeurs[i + 1] = valeur;
+            infos[i + 1] = info;
+        }
+    }
+
+
+    public int profondeur(int entree) {
+        return (infos[entree] >>> 16) & 0xFF;
+    }
+
+
+    public int borne(int entree) {
+        return (infos[entree] >>> 8) & 0xFF;
+    }
+
+
+    public float valeur(int entree) {
+        return valeurs[entree];
+    }
+
+
+    /**
+     * Retourne l'identifiant du meilleur coup de l'entrée, ou AUCUN_COUP.
+     */
+    public int coup(int entree) {
+        return (byte) infos[entree];
+    }
+
+
+    private int generationDe(int entree) {
+        return infos[entree] >>> 24;
+    }
+
+
+    public long getNbSondes() {
+        return nbSondes;
+    }
+
+
+    public long getNbSucces() {
+        return nbSucces;
+    }
+}
@@ -0,0 +1,193 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+import src.main.Paquet.Carte.Couleur;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+
+
+/**
+ * Table précalculée des scores d'enchère des bots, projetée en mémoire.
+ *
+ * Au moment de parler, un bot a 6 cartes : ses 5 cartes et la carte du milieu. Son score pour une couleur d'atout
+ * (voir Bot.evaluerScore) ne dépend que de ces 6 cartes et de l'atout, et ne distingue pas les couleurs non atout
+ * entre elles. Les mains sont donc ramenées à une forme canonique où l'atout est la première couleur
+ * (rotation du CardSet d'un octet par couleur), puis numérotées par le système combinatoire :
+ * la table contient C(32, 6) = 906 192 scores sur 2 octets, soit environ 1,8 Mo.
+ *
+ * Format du fichier (gros‑boutiste) : MAGIQUE, VERSION, nombre d'entrées (int chacun), puis les scores (short).
+ * Le fichier est généré par {@link #main} ou au premier {@link #initialiser} s'il n'existe pas,
+ * puis projeté en lecture seule : une enchère ne coûte plus qu'une lecture dans la table.
+ */
+public final class TableDesEncheres {
+    public static final String FICHIER_PAR_DEFAUT = "encheres.bin";
+    public static final int NB_CARTES_MAIN = 6;   // 5 cartes distribuées + la carte du milieu
+
+    private static final int MAGIQUE = 0x454E4348;  // "ENCH"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = 3 * Integer.BYTES;
+    private static final int NB_VERIFICATIONS = 64; // Entrées recalculées au chargement pour détecter une table périmée
+
+    // Coefficients binomiaux C(n, k) pour n <= 32 et k <= 6
+    private static final int[][] BINOMIAL = new int[Carte.NB_CARTES + 1][NB_CARTES_MAIN + 1];
+    private static final int NB_ENTREES;
+
+    static {
+        for (int n = 0; n <= Carte.NB_CARTES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, NB_CARTES_MAIN); k++)
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+        }
+        NB_ENTREES = BINOMIAL[Carte.NB_CARTES][NB_CARTES_MAIN];
+    }
+
+    private static volatile MappedByteBuffer table;   // null tant que la table n'est pas chargée
+
+
+
+    private TableDesEncheres() {}
+
+
+    /**
+     * Génère le fichier par défaut.
+     * Usage : java src.main.TableDesEncheres [fichier]
+     */
+    public static void main(String[] args) throws IOException {
+        Path fichier = Paths.get(args.length > 0 ? args[0] : FICHIER_PAR_DEFAUT);
+        long debut = System.nanoTime();
+
+        generer(fichier);
+        System.out.println(NB_ENTREES + " scores écrits dans " + fichier + " en " + (System.nanoTime() - debut) / 1_000_000 + " ms");
+    }
+
+
+    /**
+     * Charge la table par défaut, en la générant si le fichier n'existe pas ou n'est plus valide.
+     * En cas d'erreur les bots calculent leurs scores directement.
+     */
+    public static void initialiser() {
+        Path fichier = Paths.get(FICHIER_PAR_DEFAUT);
+
+        try {
+            if (!charger(fichier)) {
+                generer(fichier);
+                charger(fichier);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Table des enchères indisponible : " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Calcule le score de chaque main canonique et l'écrit dans un fichier, remplacé de façon atomique.
+     */
+    public static void generer(Path fichier) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+
+        try (OutputStream os = Files.newOutputStream(temporaire);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIQUE);
+            out.writeInt(VERSION);
+            out.writeInt(NB_ENTREES);
+
+            // Les mains sont énumérées dans l'ordre de leur rang
+            int[] ids = new int[NB_CARTES_MAIN];
+            for (int i = 0; i < NB_CARTES_MAIN; i++) ids[i] = i;
+
+            for (int rang = 0; rang < NB_ENTREES; rang++) {
+                int main = CardSet.EMPTY;
+                for (int id : ids) main |= CardSet.bit(id);
+
+                out.writeShort(Bot.evaluerScore(main, Couleur.values()[0]));
+                combinaisonSuivante(ids);
+            }
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+
+    /**
+     * Projette un fichier de scores en mémoire.
+     *
+     * @return false si le fichier n'existe pas, n'a pas le bon format ou ne correspond plus à Bot.evaluerScore.
+     */
+    public static boolean charger(Path fichier) throws IOException {
+        if (!Files.isRegularFile(fichier) || Files.size(fichier) != TAILLE_ENTETE + 2L * NB_ENTREES) return false;
+
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (buffer.getInt(0) != MAGIQUE || buffer.getInt(4) != VERSION || buffer.getInt(8) != NB_ENTREES) return false;
+
+        // Quelques mains tirées au hasard doivent avoir le score calculé par le bot
+        SplittableRandom rng = new SplittableRandom();
+        for (int i = 0; i < NB_VERIFICATIONS; i++) {
+            int main = CardSet.EMPTY;
+            while (CardSet.size(main) < NB_CARTES_MAIN) main |= CardSet.bit(rng.nextInt(Carte.NB_CARTES));
+
+            if (buffer.getShort(TAILLE_ENTETE + 2 * rang(main)) != Bot.evaluerScore(main, Couleur.values()[0])) return false;
+        }
+
+        table = buffer;
+        return true;
+    }
+
+
+    /**
+     * Retourne le score d'enchère d'une main de 6 cartes pour une couleur d'atout.
+     *
+     * @param main  La main (CardSet), carte du milieu comprise.
+     * @param atout La couleur d'atout envisagée.
+     * @return Le score, ou -1 si la table n'est pas chargée ou si la main n'a pas 6 cartes.
+     */
+    public static int score(int main, Couleur atout) {
+        MappedByteBuffer t = table;
+        if (t == null || CardSet.size(main) != NB_CARTES_MAIN) return -1;
+
+        // Forme canonique : l'atout devient la première couleur (les identifiants d'une couleur commencent au sept)
+        int canonique = Integer.rotateRight(main, Carte.idOf(atout, Carte.Type.SEPT));
+        return t.getShort(TAILLE_ENTETE + 2 * rang(canonique));
+    }
+
+
+    public static boolean estChargee() {
+        return table != null;
+    }
+
+
+    // Rang d'une main de 6 cartes dans le système combinatoire : somme des C(id, i + 1) sur les cartes triées
+    private static int rang(int main) {
+        int rang = 0, i = 1;
+
+        for (int reste = main; reste != 0; reste = CardSet.next(reste)) rang += BINOMIAL[CardSet.first(reste)][i++];
+
+        return rang;
+    }
+
+
+    // Passe à la combinaison suivante dans l'ordre des rangs (ordre colexicographique)
+    private static void combinaisonSuivante(int[] ids) {
+        int i = 0;
+
+        while (i < ids.length - 1 && ids[i] + 1 == ids[i + 1]) {
+            ids[i] = i;
+            i++;
+        }
+        ids[i]++;
+    }
+}
@@ -0,0 +1,352 @@
+package src.main;
+
+import src.main.Paquet.Carte;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+
+
+/**
+ * Trace de l'évolution des croyances des bots : après chaque carte jouée et l'inférence qui suit, une trame binaire
+ * contenant la matrice des croyances et les mains réelles des joueurs, qui permettent de mesurer la qualité de l'inférence.
+ *
+ * La trace s'active et se désactive pendant l'exécution ({@link #activer}, {@link #desactiver}). Désactivée,
+ * elle ne coûte qu'une lecture de champ par carte jouée. Activée, les trames de toutes les parties sont écrites
+ * dans le même fichier, par blocs.
+ *
+ * Format du fichier (little-endian) : MAGIQUE et VERSION (int), puis des trames de TAILLE_TRAME octets :
+ *   numéro de la partie (long, voir Game.numero), graine de la partie (long), numéro de la donne (short),
+ *   joueur (byte), identifiant de la carte jouée (byte),
+ *   mains des 4 joueurs après le coup (int, CardSet), puis les probabilités float[joueur][carte] (4 x 32 float).
+ * Les trames se relisent avec {@link Lecteur}, et {@link Bilan} en résume la qualité.
+ */
+public final class TraceDesCroyances {
+    public static final int MAGIQUE = 0x43525442;   // "BTRC" en little-endian
+    public static final int VERSION = 2;
+    public static final int TAILLE_TRAME = 2 * Long.BYTES + Short.BYTES + 2 + Game.NB_PLAYERS * Integer.BYTES
+                                         + Game.NB_PLAYERS * Carte.NB_CARTES * Float.BYTES;
+    private static final int TAILLE_TAMPON = 1 << 20;
+
+    private static volatile TraceDesCroyances active = null;
+    private static boolean arretEnregistre = false;
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+
+
+
+    private TraceDesCroyances(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        tampon.putInt(MAGIQUE).putInt(VERSION);
+    }
+
+
+    /**
+     * Active la trace dans un fichier (remplacé), en fermant la trace précédente s'il y en a une.
+     */
+    public static synchronized void activer(Path fichier) throws IOException {
+        desactiver();
+        active = new TraceDesCroyances(fichier);
+
+        // Les trames en attente sont écrites à l'arrêt de la JVM
+        if (!arretEnregistre) {
+            Runtime.getRuntime().addShutdownHook(new Thread(TraceDesCroyances::desactiver));
+            arretEnregistre = true;
+        }
+    }
+
+
+    /**
+     * Désactive la trace, écrit les trames en attente et ferme le fichier.
+     */
+    public static synchronized void desactiver() {
+        TraceDesCroyances trace = active;
+        if (trace == null) return;
+
+        active = null;
+        synchronized (trace) {
+            try {
+                trace.vider();
+                trace.canal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    public static boolean estActive() {
+        return active != null;
+    }
+
+
+    /**
+     * Ajoute une trame si la trace est active : à appeler après une carte jouée et l'inférence qui la suit.
+     *
+     * @param numero  Le numéro de la partie, qui la distingue des parties de même graine.
+     * @param graine  La graine de la partie.
+     * @param noDonne Le numéro de la donne dans la partie.
+     * @param joueur  Le joueur qui vient de jouer.
+     * @param carte   La carte jouée.
+     * @param context L'état de la partie : mains des joueurs et croyances.
+     */
+    public static void enregistrer(long numero, long graine, int noDonne, int joueur, Carte carte, GameContext context) {
+        TraceDesCroyances trace = active;
+        if (trace == null) return;
+
+        synchronized (trace) {
+            if (!trace.canal.isOpen()) return;   // Désactivée entre temps
+
+            try {
+                if (trace.tampon.remaining() < TAILLE_TRAME) trace.vider();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            ByteBuffer t = trace.tampon;
+            t.putLong(numero).putLong(graine).putShort((short) noDonne).put((byte) joueur).put((byte) carte.getId());
+            for (int p = 0; p < Game.NB_PLAYERS; p++) t.putInt(context.getJoueur(p).getMain());
+
+            Croyances croyances = context.getCroyances();
+            for (int p = 0; p < Game.NB_PLAYERS; p++)
+                for (int id = 0; id < Carte.NB_CARTES; id++) t.putFloat(croyances.get(p, id));
+        }
+    }
+
+
+    private void vider() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) canal.write(tampon);
+        tampon.clear();
+    }
+
+
+    /**
+     * Lit une trace trame par trame : {@link #suivante} charge la trame suivante, lue ensuite avec les accesseurs.
+     */
+    public static final class Lecteur implements AutoCloseable {
+        private final FileChannel canal;
+        private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long numero;
+        private long graine;
+        private int noDonne;
+        private int joueur;
+        private int carte;
+        private final int[] mains = new int[Game.NB_PLAYERS];
+        private final float[] probas = new float[Game.NB_PLAYERS * Carte.NB_CARTES];
+
+
+
+        /**
+         * @throws IOException Si le fichier ne peut pas être lu ou n'est pas une trace des croyances.
+         */
+        public Lecteur(Path fichier) throws IOException {
+            canal = FileChannel.open(fichier, StandardOpenOption.READ);
+            tampon.limit(0);
+
+            if (!disponible(2 * Integer.BYTES) || tampon.getInt() != MAGIQUE || tampon.getInt() != VERSION) {
+                canal.close();
+                throw new IOException("Trace des croyances invalide : " + fichier);
+            }
+        }
+
+
+        /**
+         * Charge la trame suivante.
+         *
+         * @return false à la fin de la trace.
+         * @throws EOFException Si la dernière trame est incomplète.
+         */
+        public boolean suivante() throws IOException {
+            if (!disponible(TAILLE_TRAME)) {
+                if (tampon.hasRemaining()) throw new EOFException("Trame des croyances incomplète");
+                return false;
+            }
+
+            numero = tampon.getLong();
+            graine = tampon.getLong();
+            noDonne = tampon.getShort();
+            joueur = tampon.get();
+            carte = tampon.get();
+            for (int p = 0; p < Game.NB_PLAYERS; p++) mains[p] = tampon.getInt();
+            tampon.asFloatBuffer().get(probas);
+            tampon.position(tampon.position() + probas.length * Float.BYTES);
+            return true;
+        }
+
+
+        public long getNumero() {
+            return numero;
+        }
+
+
+        public long getGraine() {
+            return graine;
+        }
+
+
+        public int getNoDonne() {
+            return noDonne;
+        }
+
+
+        public int getJoueur() {
+            return joueur;
+        }
+
+
+        public Carte getCarte() {
+            return Carte.fromId(carte);
+        }
+
+
+        /**
+         * Retourne la main réelle d'un joueur après le coup (CardSet).
+         */
+        public int getMain(int joueur) {
+            return mains[joueur];
+        }
+
+
+        /**
+         * Retourne la probabilité qu'un joueur possède une carte d'après les croyances après le coup.
+         */
+        public float getProba(int joueur, int id) {
+            return probas[joueur * Carte.NB_CARTES + id];
+        }
+
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+
+
+        // Complète le tampon pour que n octets soient lisibles, retourne false si le fichier se termine avant
+        private boolean disponible(int n) throws IOException {
+            if (tampon.remaining() >= n) return true;
+
+            tampon.compact();
+            while (tampon.position() < n)
+                if (canal.read(tampon) < 0) break;
+            tampon.flip();
+
+            return tampon.remaining() >= n;
+        }
+    }
+
+
+    /**
+     * Résumé de la qualité des croyances d'une trace, calculé sur les cartes encore cachées de chaque trame
+     * (cartes en main d'un joueur) : pour chaque joueur et chaque carte cachée, la probabilité annoncée
+     * est comparée au fait que le joueur la possède ou non.
+     */
+    public static final class Bilan {
+        public static final int NB_CLASSES = 10;   // Classes de probabilité de la calibration
+
+        private long nbTrames = 0;
+        private long nbCases = 0;
+        private double entropie = 0;   // Somme des entropies des trames (bits)
+        private double brier = 0;      // Somme des carrés des écarts
+        private final long[] effectifs = new long[NB_CLASSES];
+        private final double[] sommeProbas = new double[NB_CLASSES];
+        private final long[] possedees = new long[NB_CLASSES];
+
+
+
+        /**
+         * Calcule le bilan d'un fichier de trace.
+         */
+        public static Bilan calculer(Path fichier) throws IOException {
+            Bilan bilan = new Bilan();
+
+            try (Lecteur lecteur = new Lecteur(fichier)) {
+                while (lecteur.suivante()) bilan.ajouter(lecteur);
+            }
+            return bilan;
+        }
+
+
+        /**
+         * Ajoute la trame chargée par un lecteur au bilan.
+         */
+        public void ajouter(Lecteur trame) {
+            int cachees = CardSet.EMPTY;
+            for (int p = 0; p < Game.NB_PLAYERS; p++) cachees |= trame.getMain(p);
+
+            nbTrames++;
+            for (int p = 0; p < Game.NB_PLAYERS; p++) {
+                for (int reste = cachees; reste != 0; reste = CardSet.next(reste)) {
+                    int id = CardSet.first(reste);
+                    double q = Math.min(1, Math.max(0, trame.getProba(p, id)));
+                    int reel = CardSet.containsId(trame.getMain(p), id) ? 1 : 0;
+
+                    nbCases++;
+                    if (q > 0 && q < 1) entropie -= (q * Math.log(q) + (1 - q) * Math.log(1 - q)) / Math.log(2);
+                    brier += (q - reel) * (q - reel);
+
+                    int classe = Math.min(NB_CLASSES - 1, (int) (q * NB_CLASSES));
+                    effectifs[classe]++;
+                    sommeProbas[classe] += q;
+                    possedees[classe] += reel;
+                }
+            }
+        }
+
+
+        public long getNbTrames() {
+            return nbTrames;
+        }
+
+
+        /**
+         * Retourne l'entropie moyenne d'une trame : incertitude restante sur la position des cartes cachées, en bits.
+         */
+        public double getEntropieMoyenne() {
+            return nbTrames == 0 ? 0 : entropie / nbTrames;
+        }
+
+
+        /**
+         * Retourne le score de Brier moyen par case (0 pour des croyances parfaites).
+         */
+        public double getBrier() {
+            return nbCases == 0 ? 0 : brier / nbCases;
+        }
+
+
+        /**
+         * Retourne, pour une classe de probabilité, la fréquence à laquelle les cartes annoncées étaient vraiment
+         * possédées (NaN si la classe est vide). Des croyances calibrées donnent une fréquence proche de la probabilité.
+         */
+        public double getFrequence(int classe) {
+            return effectifs[classe] == 0 ? Double.NaN : (double) possedees[classe] / effectifs[classe];
+        }
+
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%d trames, entropie moyenne %.2f bits, Brier %.4f%n",
+                                    nbTrames, getEntropieMoyenne(), getBrier()));
+            sb.append("Calibration (probabilité annoncée -> fréquence observée) :");
+
+            for (int c = 0; c < NB_CLASSES; c++) {
+                if (effectifs[c] == 0) continue;
+                sb.append(String.format(Locale.ROOT, "%n  [%.1f, %.1f[ : %.3f -> %.3f (%d cases)",
+                                        (double) c / NB_CLASSES, (double) (c + 1) / NB_CLASSES,
+                                        sommeProbas[c] / effectifs[c], getFrequence(c), effectifs[c]));
+            }
+            return sb.toString();
+        }
+    }
+}